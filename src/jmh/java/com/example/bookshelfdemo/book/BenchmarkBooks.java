@@ -0,0 +1,38 @@
+package com.example.bookshelfdemo.book;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+final class BenchmarkBooks {
+
+    private static final long SEED = 42L;
+
+    private BenchmarkBooks() {
+    }
+
+    static Book book() {
+        return new Book(1L, "9781617290459", "Spring in Action", "Craig Walls", 520, 5);
+    }
+
+    static List<Book> books(int count) {
+        var random = new Random(SEED);
+        var books = new ArrayList<Book>(count);
+        for (long id = 1; id <= count; id++) {
+            books.add(new Book(id, isbn(random), "Title " + random.nextInt(100_000), "Author " + random.nextInt(1_000),
+                    1 + random.nextInt(1_500), 1 + random.nextInt(5)));
+        }
+        return books;
+    }
+
+    private static String isbn(Random random) {
+        var digits = new StringBuilder("978");
+        var sum = 9 + 7 * 3 + 8;
+        for (int i = 3; i < 12; i++) {
+            var digit = random.nextInt(10);
+            sum += digit * (i % 2 == 0 ? 1 : 3);
+            digits.append(digit);
+        }
+        return digits.append((10 - sum % 10) % 10).toString();
+    }
+}
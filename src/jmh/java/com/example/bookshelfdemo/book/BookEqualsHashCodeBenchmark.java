@@ -0,0 +1,41 @@
+package com.example.bookshelfdemo.book;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgs = {"-Xms1g", "-Xmx1g"})
+public class BookEqualsHashCodeBenchmark {
+
+    private Book book;
+    private Book equalBook;
+    private Book differentBook;
+
+    @Setup
+    public void setUp() {
+        book = BenchmarkBooks.book();
+        equalBook = BenchmarkBooks.book();
+        differentBook = BenchmarkBooks.book();
+        differentBook.setRating(1);
+    }
+
+    @Benchmark
+    public int hashCodeOfBook() {
+        return book.hashCode();
+    }
+
+    @Benchmark
+    public boolean equalBooks() {
+        return book.equals(equalBook);
+    }
+
+    @Benchmark
+    public boolean differentBooks() {
+        return book.equals(differentBook);
+    }
+}
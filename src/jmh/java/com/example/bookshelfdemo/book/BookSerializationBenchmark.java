@@ -0,0 +1,69 @@
+package com.example.bookshelfdemo.book;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgs = {"-Xms2g", "-Xmx2g"})
+public class BookSerializationBenchmark {
+
+    @Param({"1", "1000", "100000"})
+    private int size;
+
+    private ObjectWriter listWriter;
+    private ObjectReader listReader;
+    private ObjectWriter bookWriter;
+    private ObjectReader bookReader;
+    private Book book;
+    private String bookJson;
+    private List<Book> books;
+    private byte[] booksJson;
+
+    @Setup
+    public void setUp() throws JsonProcessingException {
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        listWriter = objectMapper.writerFor(new TypeReference<List<Book>>() {
+        });
+        listReader = objectMapper.readerFor(new TypeReference<List<Book>>() {
+        });
+        bookWriter = objectMapper.writerFor(Book.class);
+        bookReader = objectMapper.readerFor(Book.class);
+        book = BenchmarkBooks.book();
+        bookJson = bookWriter.writeValueAsString(book);
+        books = BenchmarkBooks.books(size);
+        booksJson = listWriter.writeValueAsBytes(books);
+    }
+
+    @Benchmark
+    public String serializeBook() throws JsonProcessingException {
+        return bookWriter.writeValueAsString(book);
+    }
+
+    @Benchmark
+    public Book deserializeBook() throws IOException {
+        return bookReader.readValue(bookJson);
+    }
+
+    @Benchmark
+    public byte[] serializeBooks() throws JsonProcessingException {
+        return listWriter.writeValueAsBytes(books);
+    }
+
+    @Benchmark
+    public List<Book> deserializeBooks() throws IOException {
+        return listReader.readValue(booksJson);
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.bookshelfdemo.book;
+
+import org.openjdk.jmh.annotations.*;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validation;
+import javax.validation.Validator;
+import javax.validation.ValidatorFactory;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgs = {"-Xms1g", "-Xmx1g"})
+public class BookValidationBenchmark {
+
+    private ValidatorFactory validatorFactory;
+    private Validator validator;
+    private Book validBook;
+    private Book invalidIsbnBook;
+    private Book invalidBook;
+
+    @Setup
+    public void setUp() {
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        validator = validatorFactory.getValidator();
+        validBook = BenchmarkBooks.book();
+        invalidIsbnBook = new Book(1L, "9781617A459", "Spring in Action", "Craig Walls", 520, 5);
+        invalidBook = new Book(1L, "9781617A459", "", null, 0, 6);
+    }
+
+    @TearDown
+    public void tearDown() {
+        validatorFactory.close();
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<Book>> validBook() {
+        return validator.validate(validBook);
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<Book>> invalidIsbn() {
+        return validator.validate(invalidIsbnBook);
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<Book>> allConstraintsViolated() {
+        return validator.validate(invalidBook);
+    }
+}
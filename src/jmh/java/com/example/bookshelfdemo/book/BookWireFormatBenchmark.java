@@ -0,0 +1,71 @@
+package com.example.bookshelfdemo.book;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@Slf4j
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgs = {"-Xms2g", "-Xmx2g"})
+public class BookWireFormatBenchmark {
+
+    @Param({"json", "smile", "cbor"})
+    private String format;
+
+    @Param({"1000", "100000"})
+    private int size;
+
+    private ObjectWriter listWriter;
+    private ObjectReader listReader;
+    private List<Book> books;
+    private byte[] encodedBooks;
+
+    @Setup
+    public void setUp() throws JsonProcessingException {
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().factory(factory(format)).build();
+        listWriter = objectMapper.writerFor(new TypeReference<List<Book>>() {
+        });
+        listReader = objectMapper.readerFor(new TypeReference<List<Book>>() {
+        });
+        books = BenchmarkBooks.books(size);
+        encodedBooks = listWriter.writeValueAsBytes(books);
+        log.info("{} payload for {} books: {} bytes", format, size, encodedBooks.length);
+    }
+
+    @Benchmark
+    public byte[] encodeBooks() throws JsonProcessingException {
+        return listWriter.writeValueAsBytes(books);
+    }
+
+    @Benchmark
+    public List<Book> decodeBooks() throws IOException {
+        return listReader.readValue(encodedBooks);
+    }
+
+    private static JsonFactory factory(String format) {
+        switch (format) {
+            case "smile":
+                return new SmileFactory();
+            case "cbor":
+                return new CBORFactory();
+            default:
+                return new JsonFactory();
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.bookshelfdemo.book;
+
+import org.hibernate.validator.constraints.ISBN;
+import org.openjdk.jmh.annotations.*;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validation;
+import javax.validation.Validator;
+import javax.validation.ValidatorFactory;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgs = {"-Xms1g", "-Xmx1g"})
+public class ISBNParserBenchmark {
+
+    private static final Pattern NOT_DIGITS_OR_NOT_X = Pattern.compile("[^\\dX]");
+
+    @Param({"9781617290459", "978-1-61729-045-9", "978-3-16-148410-X"})
+    private String isbn;
+
+    private ValidatorFactory validatorFactory;
+    private Validator validator;
+
+    @Setup
+    public void setUp() {
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        validator = validatorFactory.getValidator();
+    }
+
+    @TearDown
+    public void tearDown() {
+        validatorFactory.close();
+    }
+
+    @Benchmark
+    public String parse() {
+        return ISBNParser.parse(isbn);
+    }
+
+    @Benchmark
+    public boolean isValid() {
+        return ISBNParser.isValid(isbn);
+    }
+
+    @Benchmark
+    public String regexParse() {
+        return NOT_DIGITS_OR_NOT_X.matcher(isbn).replaceAll("");
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<HibernateIsbn>> hibernateIsbnValidation() {
+        return validator.validateValue(HibernateIsbn.class, "isbn", isbn);
+    }
+
+    public static class HibernateIsbn {
+
+        @ISBN
+        private String isbn;
+    }
+}
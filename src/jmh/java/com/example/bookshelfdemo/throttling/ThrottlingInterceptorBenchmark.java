@@ -0,0 +1,87 @@
+package com.example.bookshelfdemo.throttling;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgs = {"-Xms1g", "-Xmx1g"})
+@Threads(8)
+public class ThrottlingInterceptorBenchmark {
+
+    @Param({"1", "10000"})
+    private int clients;
+
+    private ThrottlingInterceptor interceptor;
+    private HandlerMethod handler;
+
+    @Setup
+    public void setUp() throws NoSuchMethodException {
+        var properties = new ThrottlingProperties();
+        properties.getDefaults().setPerSecond(1_000_000_000);
+        properties.getDefaults().setBurst(1_000_000);
+        properties.getConcurrency().setInitialLimit(1_000);
+        properties.getConcurrency().setMaxLimit(1_000);
+        interceptor = new ThrottlingInterceptor(properties, new SimpleMeterRegistry());
+        handler = new HandlerMethod(new BooksController(), BooksController.class.getMethod("findBookById", Long.class));
+    }
+
+    @RestController
+    public static class BooksController {
+
+        @GetMapping("/books/{id}")
+        public String findBookById(@PathVariable Long id) {
+            return "";
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Client {
+
+        private final MockHttpServletRequest request = new MockHttpServletRequest("GET", "/books/42");
+        private final MockHttpServletResponse response = new MockHttpServletResponse();
+        private String[] addresses;
+        private int next;
+
+        @Setup
+        public void setUp(ThrottlingInterceptorBenchmark benchmark) {
+            request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/books/{id}");
+            addresses = new String[benchmark.clients];
+            for (int i = 0; i < addresses.length; i++) {
+                addresses[i] = "10.0." + (i >> 8) + "." + (i & 0xff);
+            }
+        }
+
+        private MockHttpServletRequest next() {
+            next = next + 1 < addresses.length ? next + 1 : 0;
+            request.setRemoteAddr(addresses[next]);
+            return request;
+        }
+    }
+
+    @Benchmark
+    public MockHttpServletRequest baseline(Client client) {
+        return client.next();
+    }
+
+    @Benchmark
+    public boolean throttled(Client client) throws IOException {
+        var request = client.next();
+        var admitted = interceptor.preHandle(request, client.response, handler);
+        interceptor.afterCompletion(request, client.response, handler, null);
+        return admitted;
+    }
+}
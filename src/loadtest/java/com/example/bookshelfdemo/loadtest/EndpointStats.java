@@ -0,0 +1,41 @@
+package com.example.bookshelfdemo.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+class EndpointStats {
+
+    private static final long HIGHEST_TRACKABLE = TimeUnit.MINUTES.toMicros(1);
+    private static final int SIGNIFICANT_DIGITS = 3;
+
+    private final Histogram responseTimes = new ConcurrentHistogram(HIGHEST_TRACKABLE, SIGNIFICANT_DIGITS);
+    private final Histogram serviceTimes = new ConcurrentHistogram(HIGHEST_TRACKABLE, SIGNIFICANT_DIGITS);
+    private final LongAdder errors = new LongAdder();
+
+    void record(long responseTime, long serviceTime, boolean successful) {
+        responseTimes.recordValue(micros(responseTime));
+        serviceTimes.recordValue(micros(serviceTime));
+        if (!successful) {
+            errors.increment();
+        }
+    }
+
+    Histogram getResponseTimes() {
+        return responseTimes;
+    }
+
+    Histogram getServiceTimes() {
+        return serviceTimes;
+    }
+
+    long getErrors() {
+        return errors.sum();
+    }
+
+    private static long micros(long nanos) {
+        return Math.min(HIGHEST_TRACKABLE, Math.max(1, TimeUnit.NANOSECONDS.toMicros(nanos)));
+    }
+}
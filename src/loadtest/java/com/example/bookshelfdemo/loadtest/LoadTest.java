@@ -0,0 +1,141 @@
+package com.example.bookshelfdemo.loadtest;
+
+import com.example.bookshelfdemo.BookshelfDemoApplication;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Stream;
+
+@Slf4j
+public final class LoadTest {
+
+    private static final Duration DRAIN_TIMEOUT = Duration.ofSeconds(60);
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        var options = LoadTestOptions.fromSystemProperties();
+        var objectMapper = new ObjectMapper().findAndRegisterModules().disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        var regressions = 0;
+        var applicationArgs = Stream.concat(Stream.of(
+                "--spring.profiles.active=" + (options.isReactive() ? LoadTestOptions.REACTIVE + ",loadtest" : "loadtest"),
+                "--server.port=0",
+                "--spring.datasource.url=jdbc:hsqldb:mem:bookshelf-loadtest",
+                "--spring.datasource.username=sa",
+                "--spring.jpa.hibernate.ddl-auto=create-drop",
+                "--bookshelf.r2dbc.url=r2dbc:h2:mem:///bookshelf-loadtest?options=DB_CLOSE_DELAY=-1",
+                "--bookshelf.throttling.client-header=" + Workload.CLIENT_HEADER,
+                "--logging.level.root=warn",
+                "--logging.level.com.example.bookshelfdemo.loadtest=info"), Arrays.stream(args)).toArray(String[]::new);
+        try (var context = new SpringApplicationBuilder(BookshelfDemoApplication.class).run(applicationArgs)) {
+            var base = URI.create("http://localhost:" + context.getEnvironment().getProperty("local.server.port"));
+            var client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+            var workload = Workload.seed(client, base, objectMapper, options);
+
+            log.info("Warming up the {} stack for {} at {} requests/s", options.getProfile(), options.getWarmup(), options.getRate());
+            run(client, workload, options, options.getWarmup());
+            log.info("Measuring for {} at {} requests/s", options.getDuration(), options.getRate());
+            var measurement = run(client, workload, options, options.getDuration());
+
+            var report = LoadTestReport.of(options, measurement);
+            report.write(options.getReportDirectory(), measurement.getStats(), objectMapper);
+            report.getEndpoints().forEach((name, endpoint) -> log.info(
+                    "{}: {} requests, {} errors, {} ok/s, p50 {}ms, p99 {}ms, p99.9 {}ms, max {}ms",
+                    name, endpoint.getRequests(), endpoint.getErrors(), String.format("%.1f", endpoint.getThroughput()),
+                    endpoint.getP50(), endpoint.getP99(), endpoint.getP999(), endpoint.getMax()));
+            log.info("Report written to {}", options.getReportDirectory().toAbsolutePath());
+
+            if (options.getBaseline() != null) {
+                var baseline = LoadTestReport.read(options.getBaseline(), objectMapper);
+                var found = report.regressionsAgainst(baseline, options.getP99Tolerance(), options.getThroughputTolerance());
+                found.forEach(regression -> log.error("Regression: {}", regression));
+                regressions = found.size();
+                if (regressions == 0) {
+                    log.info("No regression against {}", options.getBaseline());
+                }
+            }
+        }
+        System.exit(regressions == 0 ? 0 : 1);
+    }
+
+    private static Measurement run(HttpClient client, Workload workload, LoadTestOptions options,
+                                   Duration duration) throws Exception {
+        var stats = new EnumMap<Operation, EndpointStats>(Operation.class);
+        options.getMix().keySet().forEach(operation -> stats.put(operation, new EndpointStats()));
+        var pending = new ConcurrentHashMap<Long, PendingRequest>();
+        var period = TimeUnit.SECONDS.toNanos(1) / options.getRate();
+        var start = System.nanoTime();
+        var end = start + duration.toNanos();
+        var lastCompleted = new AtomicLong(start);
+        for (long i = 0; ; i++) {
+            var intended = start + i * period;
+            if (intended >= end) {
+                break;
+            }
+            for (var delay = intended - System.nanoTime(); delay > 0; delay = intended - System.nanoTime()) {
+                LockSupport.parkNanos(delay);
+            }
+            var operation = workload.next();
+            var request = workload.request(operation, "client-" + i % options.getClients());
+            var id = i;
+            var sent = System.nanoTime();
+            pending.put(id, new PendingRequest(stats.get(operation), intended, sent));
+            client.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((response, failure) -> {
+                var completed = System.nanoTime();
+                var pendingRequest = pending.remove(id);
+                if (pendingRequest != null) {
+                    pendingRequest.complete(completed, failure == null && response.statusCode() < 400);
+                    lastCompleted.accumulateAndGet(completed, Math::max);
+                }
+            });
+        }
+        var deadline = System.nanoTime() + DRAIN_TIMEOUT.toNanos();
+        while (!pending.isEmpty() && System.nanoTime() < deadline) {
+            TimeUnit.MILLISECONDS.sleep(10);
+        }
+        if (!pending.isEmpty()) {
+            var timedOut = System.nanoTime();
+            var abandoned = 0;
+            for (var id : pending.keySet()) {
+                var pendingRequest = pending.remove(id);
+                if (pendingRequest != null) {
+                    pendingRequest.complete(timedOut, false);
+                    abandoned++;
+                }
+            }
+            lastCompleted.accumulateAndGet(timedOut, Math::max);
+            log.warn("{} requests still pending after {}, counted as errors", abandoned, DRAIN_TIMEOUT);
+        }
+        return new Measurement(stats, Duration.ofNanos(lastCompleted.get() - start));
+    }
+
+    private static class PendingRequest {
+
+        private final EndpointStats endpoint;
+        private final long intended;
+        private final long sent;
+
+        PendingRequest(EndpointStats endpoint, long intended, long sent) {
+            this.endpoint = endpoint;
+            this.intended = intended;
+            this.sent = sent;
+        }
+
+        void complete(long completed, boolean successful) {
+            endpoint.record(completed - intended, completed - sent, successful);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.bookshelfdemo.loadtest;
+
+import lombok.Getter;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Getter
+class LoadTestOptions {
+
+    static final String REACTIVE = "reactive";
+
+    private static final String SERVLET_MIX = "findById:60,findAll:15,search:10,save:10,update:5";
+    private static final String REACTIVE_MIX = "findById:65,findAll:20,save:10,update:5";
+
+    private final String profile;
+    private final int books;
+    private final int rate;
+    private final Duration warmup;
+    private final Duration duration;
+    private final Map<Operation, Integer> mix;
+    private final int clients;
+    private final long seed;
+    private final Path reportDirectory;
+    private final Path baseline;
+    private final double p99Tolerance;
+    private final double throughputTolerance;
+
+    private LoadTestOptions() {
+        profile = property("profile", "servlet");
+        books = Integer.parseInt(property("books", "10000"));
+        rate = Integer.parseInt(property("rate", "200"));
+        warmup = Duration.parse(property("warmup", "PT10S"));
+        duration = Duration.parse(property("duration", "PT60S"));
+        mix = mix(property("mix", isReactive() ? REACTIVE_MIX : SERVLET_MIX));
+        clients = Integer.parseInt(property("clients", "100"));
+        seed = Long.parseLong(property("seed", "42"));
+        reportDirectory = Paths.get(property("report-dir", "target/loadtest"));
+        var baselineFile = property("baseline", "");
+        baseline = baselineFile.isBlank() ? null : Paths.get(baselineFile);
+        p99Tolerance = Double.parseDouble(property("p99-tolerance", "0.2"));
+        throughputTolerance = Double.parseDouble(property("throughput-tolerance", "0.1"));
+    }
+
+    boolean isReactive() {
+        return REACTIVE.equals(profile);
+    }
+
+    static LoadTestOptions fromSystemProperties() {
+        return new LoadTestOptions();
+    }
+
+    private static String property(String name, String defaultValue) {
+        var value = System.getProperty("loadtest." + name);
+        return value != null ? value : defaultValue;
+    }
+
+    private static Map<Operation, Integer> mix(String mix) {
+        var weights = new LinkedHashMap<Operation, Integer>();
+        for (var entry : mix.split(",")) {
+            var parts = entry.trim().split(":");
+            weights.put(Operation.of(parts[0]), Integer.parseInt(parts[1]));
+        }
+        return weights;
+    }
+}
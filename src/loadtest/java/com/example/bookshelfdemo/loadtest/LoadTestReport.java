@@ -0,0 +1,125 @@
+package com.example.bookshelfdemo.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Getter
+@Setter
+@NoArgsConstructor
+class LoadTestReport {
+
+    static final String REPORT_FILE = "loadtest-report.json";
+
+    private static final double MICROS_PER_MILLI = 1000.0;
+
+    private Instant finishedAt;
+    private String profile;
+    private int books;
+    private int rate;
+    private double durationSeconds;
+    private double elapsedSeconds;
+    private Map<String, Integer> mix = new LinkedHashMap<>();
+    private long requests;
+    private long errors;
+    private double throughput;
+    private Map<String, Endpoint> endpoints = new LinkedHashMap<>();
+
+    static LoadTestReport of(LoadTestOptions options, Measurement measurement) {
+        var report = new LoadTestReport();
+        var seconds = measurement.getElapsed().toMillis() / 1000.0;
+        report.finishedAt = Instant.now();
+        report.profile = options.getProfile();
+        report.books = options.getBooks();
+        report.rate = options.getRate();
+        report.durationSeconds = options.getDuration().toMillis() / 1000.0;
+        report.elapsedSeconds = seconds;
+        options.getMix().forEach((operation, weight) -> report.mix.put(operation.getEndpoint(), weight));
+        measurement.getStats().forEach((operation, endpointStats) -> {
+            var endpoint = Endpoint.of(endpointStats, seconds);
+            report.endpoints.put(operation.getEndpoint(), endpoint);
+            report.requests += endpoint.requests;
+            report.errors += endpoint.errors;
+        });
+        report.throughput = (report.requests - report.errors) / seconds;
+        return report;
+    }
+
+    static LoadTestReport read(Path file, ObjectMapper objectMapper) throws IOException {
+        return objectMapper.readValue(file.toFile(), LoadTestReport.class);
+    }
+
+    void write(Path directory, Map<Operation, EndpointStats> stats, ObjectMapper objectMapper) throws IOException {
+        Files.createDirectories(directory);
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(directory.resolve(REPORT_FILE).toFile(), this);
+        for (var entry : stats.entrySet()) {
+            var file = directory.resolve(entry.getKey().getEndpoint() + ".hgrm");
+            try (var out = new PrintStream(Files.newOutputStream(file))) {
+                entry.getValue().getResponseTimes().outputPercentileDistribution(out, MICROS_PER_MILLI);
+            }
+        }
+    }
+
+    List<String> regressionsAgainst(LoadTestReport baseline, double p99Tolerance, double throughputTolerance) {
+        var regressions = new ArrayList<String>();
+        if (throughput < baseline.throughput * (1 - throughputTolerance)) {
+            regressions.add(String.format("throughput %.1f/s is more than %.0f%% below baseline %.1f/s",
+                    throughput, throughputTolerance * 100, baseline.throughput));
+        }
+        endpoints.forEach((name, endpoint) -> {
+            var before = baseline.endpoints.get(name);
+            if (before != null && endpoint.p99 > before.p99 * (1 + p99Tolerance)) {
+                regressions.add(String.format("%s p99 %.2fms is more than %.0f%% above baseline %.2fms",
+                        name, endpoint.p99, p99Tolerance * 100, before.p99));
+            }
+        });
+        return regressions;
+    }
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    static class Endpoint {
+
+        private long requests;
+        private long errors;
+        private double throughput;
+        private double p50;
+        private double p90;
+        private double p99;
+        private double p999;
+        private double max;
+        private double serviceP99;
+
+        private static Endpoint of(EndpointStats stats, double seconds) {
+            var responseTimes = stats.getResponseTimes();
+            var endpoint = new Endpoint();
+            endpoint.requests = responseTimes.getTotalCount();
+            endpoint.errors = stats.getErrors();
+            endpoint.throughput = (endpoint.requests - endpoint.errors) / seconds;
+            endpoint.p50 = millis(responseTimes, 50);
+            endpoint.p90 = millis(responseTimes, 90);
+            endpoint.p99 = millis(responseTimes, 99);
+            endpoint.p999 = millis(responseTimes, 99.9);
+            endpoint.max = responseTimes.getMaxValue() / MICROS_PER_MILLI;
+            endpoint.serviceP99 = millis(stats.getServiceTimes(), 99);
+            return endpoint;
+        }
+
+        private static double millis(Histogram histogram, double percentile) {
+            return histogram.getValueAtPercentile(percentile) / MICROS_PER_MILLI;
+        }
+    }
+}
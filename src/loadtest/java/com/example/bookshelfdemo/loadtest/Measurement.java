@@ -0,0 +1,18 @@
+package com.example.bookshelfdemo.loadtest;
+
+import lombok.Getter;
+
+import java.time.Duration;
+import java.util.Map;
+
+@Getter
+class Measurement {
+
+    private final Map<Operation, EndpointStats> stats;
+    private final Duration elapsed;
+
+    Measurement(Map<Operation, EndpointStats> stats, Duration elapsed) {
+        this.stats = stats;
+        this.elapsed = elapsed;
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.bookshelfdemo.loadtest;
+
+import lombok.Getter;
+
+import java.util.Arrays;
+
+@Getter
+enum Operation {
+
+    FIND_BY_ID("findById"),
+    FIND_ALL("findAll"),
+    SEARCH("search"),
+    SAVE("save"),
+    UPDATE("update");
+
+    private final String endpoint;
+
+    Operation(String endpoint) {
+        this.endpoint = endpoint;
+    }
+
+    static Operation of(String endpoint) {
+        return Arrays.stream(values())
+                .filter(operation -> operation.endpoint.equals(endpoint))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Unknown operation " + endpoint));
+    }
+}
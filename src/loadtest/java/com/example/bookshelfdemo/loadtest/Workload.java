@@ -0,0 +1,185 @@
+package com.example.bookshelfdemo.loadtest;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Slf4j
+class Workload {
+
+    static final String CLIENT_HEADER = "X-Load-Client";
+
+    private static final int SEED_BATCH_SIZE = 1000;
+    private static final int SEED_CONCURRENCY = 32;
+    private static final int PAGE_SIZE = 20;
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+    private static final String[] WORDS = {"spring", "java", "patterns", "reactive", "concurrency", "databases",
+            "microservices", "testing", "performance", "kotlin", "cloud", "security", "algorithms", "design"};
+
+    private final URI base;
+    private final ObjectMapper objectMapper;
+    private final Random random;
+    private final Operation[] wheel;
+    private final List<Long> ids = new ArrayList<>();
+    private final List<String> isbns = new ArrayList<>();
+    private long nextNumber;
+
+    private Workload(URI base, ObjectMapper objectMapper, LoadTestOptions options) {
+        this.base = base;
+        this.objectMapper = objectMapper;
+        this.random = new Random(options.getSeed());
+        var wheel = new ArrayList<Operation>();
+        options.getMix().forEach((operation, weight) -> {
+            for (int i = 0; i < weight; i++) {
+                wheel.add(operation);
+            }
+        });
+        this.wheel = wheel.toArray(new Operation[0]);
+    }
+
+    static Workload seed(HttpClient client, URI base, ObjectMapper objectMapper, LoadTestOptions options)
+            throws IOException, InterruptedException {
+        var workload = new Workload(base, objectMapper, options);
+        if (options.isReactive()) {
+            workload.seedOneByOne(client, options.getBooks());
+        } else {
+            workload.seedInBatches(client, options.getBooks());
+        }
+        log.info("Seeded {} books", workload.ids.size());
+        return workload;
+    }
+
+    private void seedInBatches(HttpClient client, int books) throws IOException, InterruptedException {
+        while (nextNumber < books) {
+            var batch = new ArrayList<Map<String, Object>>();
+            var batchIsbns = new ArrayList<String>();
+            while (batch.size() < SEED_BATCH_SIZE && nextNumber < books) {
+                var book = newBook();
+                batch.add(book);
+                batchIsbns.add((String) book.get("isbn"));
+            }
+            var response = client.send(builder("/books:batch")
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(batch)))
+                    .build(), HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 200) {
+                throw new IllegalStateException("Seeding failed with status " + response.statusCode());
+            }
+            for (var result : objectMapper.readTree(response.body())) {
+                if (result.get("status").asInt() == 201) {
+                    ids.add(result.get("id").asLong());
+                    isbns.add(batchIsbns.get(result.get("index").asInt()));
+                }
+            }
+        }
+    }
+
+    private void seedOneByOne(HttpClient client, int books) throws IOException, InterruptedException {
+        var permits = new Semaphore(SEED_CONCURRENCY);
+        var seeded = new ConcurrentHashMap<Long, String>();
+        var failures = new AtomicInteger();
+        while (nextNumber < books) {
+            var book = newBook();
+            var isbn = (String) book.get("isbn");
+            var request = builder("/books")
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(book)))
+                    .build();
+            permits.acquire();
+            client.sendAsync(request, HttpResponse.BodyHandlers.ofString()).whenComplete((response, failure) -> {
+                try {
+                    if (failure == null && response.statusCode() == 200) {
+                        seeded.put(objectMapper.readTree(response.body()).get("id").asLong(), isbn);
+                    } else {
+                        failures.incrementAndGet();
+                    }
+                } catch (IOException exception) {
+                    failures.incrementAndGet();
+                } finally {
+                    permits.release();
+                }
+            });
+        }
+        permits.acquire(SEED_CONCURRENCY);
+        if (failures.get() > 0) {
+            throw new IllegalStateException("Seeding failed for " + failures.get() + " books");
+        }
+        seeded.forEach((id, isbn) -> {
+            ids.add(id);
+            isbns.add(isbn);
+        });
+    }
+
+    Operation next() {
+        return wheel[random.nextInt(wheel.length)];
+    }
+
+    HttpRequest request(Operation operation, String client) throws JsonProcessingException {
+        var index = random.nextInt(ids.size());
+        var id = ids.get(index);
+        switch (operation) {
+            case FIND_BY_ID:
+                return builder("/books/" + id).header(CLIENT_HEADER, client).GET().build();
+            case FIND_ALL:
+                return builder("/books?after=" + id + "&limit=" + PAGE_SIZE).header(CLIENT_HEADER, client).GET().build();
+            case SEARCH:
+                return builder("/books/search?q=" + word()).header(CLIENT_HEADER, client).GET().build();
+            case SAVE:
+                return builder("/books").header(CLIENT_HEADER, client)
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(newBook())))
+                        .build();
+            case UPDATE:
+                var book = book(isbns.get(index));
+                return builder("/books/" + id).header(CLIENT_HEADER, client)
+                        .header("Content-Type", "application/json")
+                        .PUT(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(book)))
+                        .build();
+            default:
+                throw new IllegalArgumentException("Unknown operation " + operation);
+        }
+    }
+
+    private HttpRequest.Builder builder(String path) {
+        return HttpRequest.newBuilder(base.resolve(path)).timeout(TIMEOUT);
+    }
+
+    private Map<String, Object> newBook() {
+        return book(isbn(nextNumber++));
+    }
+
+    private Map<String, Object> book(String isbn) {
+        return Map.of("isbn", isbn,
+                "title", word() + " " + word(),
+                "author", "Author " + random.nextInt(1_000),
+                "numberOfPages", 1 + random.nextInt(1_500),
+                "rating", 1 + random.nextInt(5));
+    }
+
+    private String word() {
+        return WORDS[random.nextInt(WORDS.length)];
+    }
+
+    private static String isbn(long number) {
+        var digits = String.format("978%09d", number);
+        var sum = 0;
+        for (int i = 0; i < 12; i++) {
+            sum += (digits.charAt(i) - '0') * (i % 2 == 0 ? 1 : 3);
+        }
+        return digits + (10 - sum % 10) % 10;
+    }
+}
@@ -1,32 +1,45 @@
 package com.example.bookshelfdemo.book;
 
-import lombok.AllArgsConstructor;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
-import org.hibernate.validator.constraints.ISBN;
 
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.PrePersist;
+import javax.persistence.PreUpdate;
+import javax.persistence.SequenceGenerator;
+import javax.persistence.Table;
+import javax.persistence.Version;
 import javax.validation.constraints.Max;
 import javax.validation.constraints.Min;
 import javax.validation.constraints.NotEmpty;
 import javax.validation.constraints.NotNull;
+import java.time.Instant;
 import java.util.Objects;
 
 @Entity
-@AllArgsConstructor
+@Table(indexes = {
+        @Index(name = Book.ISBN_INDEX, columnList = "isbn", unique = true),
+        @Index(name = "ix_book_author_id", columnList = "author, id"),
+        @Index(name = "ix_book_rating_id", columnList = "rating, id")
+})
 @NoArgsConstructor
 @Getter
 @Setter
 public class Book {
 
+    static final String ISBN_INDEX = "ux_book_isbn";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "book_seq")
+    @SequenceGenerator(name = "book_seq", sequenceName = "book_seq", allocationSize = 50)
     private Long id;
-    @ISBN
+    @ValidISBN
     @NotNull(message = "ISBN required")
     private String isbn;
     @NotEmpty(message = "Title required")
@@ -40,6 +53,20 @@ public class Book {
     @Min(value = 1, message = "Rating must be between 1 and 5")
     @Max(value = 5, message = "Rating must be between 1 and 5")
     private Integer rating;
+    @Version
+    @JsonIgnore
+    private long version;
+    @JsonIgnore
+    private Instant lastModified;
+
+    public Book(Long id, String isbn, String title, String author, Integer numberOfPages, Integer rating) {
+        this.id = id;
+        this.isbn = isbn;
+        this.title = title;
+        this.author = author;
+        this.numberOfPages = numberOfPages;
+        this.rating = rating;
+    }
 
     Book(String isbn, String title, String author, Integer numberOfPages, Integer rating) {
         this.isbn = isbn;
@@ -49,6 +76,12 @@ public class Book {
         this.rating = rating;
     }
 
+    @PrePersist
+    @PreUpdate
+    void touch() {
+        lastModified = Instant.now();
+    }
+
     @Override
     public String toString() {
         return "Book{" +
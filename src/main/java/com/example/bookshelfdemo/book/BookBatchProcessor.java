@@ -0,0 +1,213 @@
+package com.example.bookshelfdemo.book;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@Component
+@Profile("!reactive & !catalogue")
+class BookBatchProcessor {
+
+    private static final String ID_REQUIRED = "Id required";
+    private static final String ISBN_TAKEN = "ISBN already exists";
+
+    private final BookRepository bookRepository;
+    private final BookSearchIndex bookSearchIndex;
+    private final BookShelfVersion bookShelfVersion;
+    private final BookStatistics bookStatistics;
+    private final BookChangeLog bookChangeLog;
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
+
+    @Autowired
+    BookBatchProcessor(BookRepository bookRepository, BookSearchIndex bookSearchIndex, BookShelfVersion bookShelfVersion,
+                       BookStatistics bookStatistics, BookChangeLog bookChangeLog,
+                       PlatformTransactionManager transactionManager, Validator validator) {
+        this.bookRepository = bookRepository;
+        this.bookSearchIndex = bookSearchIndex;
+        this.bookShelfVersion = bookShelfVersion;
+        this.bookStatistics = bookStatistics;
+        this.bookChangeLog = bookChangeLog;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.validator = validator;
+    }
+
+    List<BookBatchResult> saveAll(List<Book> books) {
+        var results = new BookBatchResult[books.size()];
+        var indexes = new ArrayList<Integer>();
+        var booksToSave = new ArrayList<Book>();
+        for (int i = 0; i < books.size(); i++) {
+            var book = books.get(i);
+            var errors = validate(book);
+            if (!errors.isEmpty()) {
+                results[i] = BookBatchResult.invalid(i, book.getId(), errors);
+                continue;
+            }
+            normalizeForSave(book);
+            indexes.add(i);
+            booksToSave.add(book);
+        }
+        saveValid(results, indexes, booksToSave);
+        return Arrays.asList(results);
+    }
+
+    void saveValid(BookBatchResult[] results, List<Integer> indexes, List<Book> books) {
+        rejectDuplicatedIsbns(results, indexes, books);
+        if (!books.isEmpty()) {
+            var savedBooks = transactionTemplate.execute(status -> {
+                var saved = bookRepository.saveAll(books);
+                bookChangeLog.created(saved);
+                return saved;
+            });
+            bookShelfVersion.changed();
+            for (int i = 0; i < savedBooks.size(); i++) {
+                bookSearchIndex.index(savedBooks.get(i));
+                bookStatistics.index(savedBooks.get(i));
+                results[indexes.get(i)] = BookBatchResult.of(indexes.get(i), savedBooks.get(i).getId(), HttpStatus.CREATED);
+            }
+        }
+    }
+
+    List<BookBatchResult> updateAll(List<Book> books) {
+        var results = new BookBatchResult[books.size()];
+        var indexes = new ArrayList<Integer>();
+        var booksToUpdate = new ArrayList<Book>();
+        for (int i = 0; i < books.size(); i++) {
+            var book = books.get(i);
+            var errors = validate(book);
+            if (book.getId() == null) {
+                errors.add(0, ID_REQUIRED);
+            }
+            if (!errors.isEmpty()) {
+                results[i] = BookBatchResult.invalid(i, book.getId(), errors);
+                continue;
+            }
+            book.setIsbn(ISBNParser.parse(book.getIsbn()));
+            indexes.add(i);
+            booksToUpdate.add(book);
+        }
+        rejectTakenIsbns(results, indexes, booksToUpdate);
+        if (!booksToUpdate.isEmpty()) {
+            var updateCounts = transactionTemplate.execute(status -> {
+                var counts = bookRepository.batchUpdate(booksToUpdate);
+                bookChangeLog.updated(applied(booksToUpdate, counts));
+                return counts;
+            });
+            bookShelfVersion.changed();
+            for (int i = 0; i < updateCounts.length; i++) {
+                if (updateCounts[i] != 0) {
+                    bookSearchIndex.index(booksToUpdate.get(i));
+                    bookStatistics.index(booksToUpdate.get(i));
+                }
+                results[indexes.get(i)] = toResult(indexes.get(i), booksToUpdate.get(i).getId(), updateCounts[i]);
+            }
+        }
+        return Arrays.asList(results);
+    }
+
+    List<BookBatchResult> deleteAll(List<Long> ids) {
+        var results = new BookBatchResult[ids.size()];
+        var indexes = new ArrayList<Integer>();
+        var idsToDelete = new ArrayList<Long>();
+        for (int i = 0; i < ids.size(); i++) {
+            if (ids.get(i) == null) {
+                results[i] = BookBatchResult.invalid(i, null, List.of(ID_REQUIRED));
+                continue;
+            }
+            indexes.add(i);
+            idsToDelete.add(ids.get(i));
+        }
+        if (!idsToDelete.isEmpty()) {
+            var deleteCounts = transactionTemplate.execute(status -> {
+                var counts = bookRepository.batchDelete(idsToDelete);
+                bookChangeLog.deleted(applied(idsToDelete, counts));
+                return counts;
+            });
+            bookShelfVersion.changed();
+            for (int i = 0; i < deleteCounts.length; i++) {
+                bookSearchIndex.remove(idsToDelete.get(i));
+                bookStatistics.remove(idsToDelete.get(i));
+                results[indexes.get(i)] = toResult(indexes.get(i), idsToDelete.get(i), deleteCounts[i]);
+            }
+        }
+        return Arrays.asList(results);
+    }
+
+    private void rejectDuplicatedIsbns(BookBatchResult[] results, List<Integer> indexes, List<Book> books) {
+        if (books.isEmpty()) {
+            return;
+        }
+        var isbns = books.stream().map(Book::getIsbn).collect(Collectors.toSet());
+        var takenIsbns = new HashSet<>(bookRepository.findExistingIsbns(isbns));
+        var indexIterator = indexes.iterator();
+        var bookIterator = books.iterator();
+        while (bookIterator.hasNext()) {
+            var index = indexIterator.next();
+            var book = bookIterator.next();
+            if (!takenIsbns.add(book.getIsbn())) {
+                results[index] = BookBatchResult.conflict(index, book.getId(), List.of(ISBN_TAKEN));
+                indexIterator.remove();
+                bookIterator.remove();
+            }
+        }
+    }
+
+    private void rejectTakenIsbns(BookBatchResult[] results, List<Integer> indexes, List<Book> books) {
+        if (books.isEmpty()) {
+            return;
+        }
+        var isbns = books.stream().map(Book::getIsbn).collect(Collectors.toSet());
+        var owners = bookRepository.findByIsbnIn(isbns).stream()
+                .collect(Collectors.toMap(Book::getIsbn, Book::getId));
+        var indexIterator = indexes.iterator();
+        var bookIterator = books.iterator();
+        while (bookIterator.hasNext()) {
+            var index = indexIterator.next();
+            var book = bookIterator.next();
+            var owner = owners.putIfAbsent(book.getIsbn(), book.getId());
+            if (owner != null && !owner.equals(book.getId())) {
+                results[index] = BookBatchResult.conflict(index, book.getId(), List.of(ISBN_TAKEN));
+                indexIterator.remove();
+                bookIterator.remove();
+            }
+        }
+    }
+
+    List<String> validate(Book book) {
+        return validator.validate(book)
+                .stream()
+                .map(ConstraintViolation::getMessage)
+                .sorted()
+                .collect(Collectors.toCollection(ArrayList::new));
+    }
+
+    static void normalizeForSave(Book book) {
+        book.setId(null);
+        book.setIsbn(ISBNParser.parse(book.getIsbn()));
+    }
+
+    private static <T> List<T> applied(List<T> items, int[] counts) {
+        var applied = new ArrayList<T>(items.size());
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] != 0) {
+                applied.add(items.get(i));
+            }
+        }
+        return applied;
+    }
+
+    private BookBatchResult toResult(int index, Long id, int count) {
+        return count == 0 ? BookBatchResult.notFound(index, id) : BookBatchResult.of(index, id, HttpStatus.OK);
+    }
+}
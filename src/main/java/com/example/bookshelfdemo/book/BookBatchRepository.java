@@ -0,0 +1,11 @@
+package com.example.bookshelfdemo.book;
+
+import java.util.List;
+
+public interface BookBatchRepository {
+
+    int[] batchUpdate(List<Book> books);
+
+    int[] batchDelete(List<Long> ids);
+
+}
@@ -0,0 +1,76 @@
+package com.example.bookshelfdemo.book;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+
+class BookBatchRepositoryImpl implements BookBatchRepository {
+
+    private static final String UPDATE_BOOK =
+            "update book set isbn = ?, title = ?, author = ?, number_of_pages = ?, rating = ?, version = version + 1, " +
+                    "last_modified = ? where id = ?";
+    private static final String DELETE_BOOK = "delete from book where id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Cache cache;
+
+    @Autowired
+    BookBatchRepositoryImpl(JdbcTemplate jdbcTemplate, CacheManager cacheManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.cache = cacheManager.getCache(BookRepository.BOOKS_CACHE);
+    }
+
+    @Override
+    @Transactional
+    public int[] batchUpdate(List<Book> books) {
+        var lastModified = Timestamp.from(Instant.now());
+        var counts = jdbcTemplate.batchUpdate(UPDATE_BOOK, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement statement, int i) throws SQLException {
+                var book = books.get(i);
+                statement.setString(1, book.getIsbn());
+                statement.setString(2, book.getTitle());
+                statement.setString(3, book.getAuthor());
+                statement.setInt(4, book.getNumberOfPages());
+                statement.setInt(5, book.getRating());
+                statement.setTimestamp(6, lastModified);
+                statement.setLong(7, book.getId());
+            }
+
+            @Override
+            public int getBatchSize() {
+                return books.size();
+            }
+        });
+        books.forEach(book -> cache.evict(book.getId()));
+        return counts;
+    }
+
+    @Override
+    @Transactional
+    public int[] batchDelete(List<Long> ids) {
+        var counts = jdbcTemplate.batchUpdate(DELETE_BOOK, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement statement, int i) throws SQLException {
+                statement.setLong(1, ids.get(i));
+            }
+
+            @Override
+            public int getBatchSize() {
+                return ids.size();
+            }
+        });
+        ids.forEach(cache::evict);
+        return counts;
+    }
+
+}
@@ -0,0 +1,37 @@
+package com.example.bookshelfdemo.book;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.http.HttpStatus;
+
+import java.util.List;
+
+@Getter
+@AllArgsConstructor
+public class BookBatchResult {
+
+    private final int index;
+    private final Long id;
+    private final int status;
+    private final List<String> errors;
+
+    static BookBatchResult of(int index, Long id, HttpStatus status) {
+        return new BookBatchResult(index, id, status.value(), List.of());
+    }
+
+    static BookBatchResult invalid(int index, Long id, List<String> errors) {
+        return new BookBatchResult(index, id, HttpStatus.BAD_REQUEST.value(), errors);
+    }
+
+    static BookBatchResult conflict(int index, Long id, List<String> errors) {
+        return new BookBatchResult(index, id, HttpStatus.CONFLICT.value(), errors);
+    }
+
+    static BookBatchResult notFound(int index, Long id) {
+        return new BookBatchResult(index, id, HttpStatus.NOT_FOUND.value(), List.of(new BookNotFoundException(id).getMessage()));
+    }
+
+    BookBatchResult withIndex(int index) {
+        return new BookBatchResult(index, id, status, errors);
+    }
+}
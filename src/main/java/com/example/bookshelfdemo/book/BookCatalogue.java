@@ -0,0 +1,61 @@
+package com.example.bookshelfdemo.book;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.Objects;
+
+@Slf4j
+@Component
+@Profile("catalogue")
+class BookCatalogue {
+
+    private final Path file;
+
+    private volatile BookSnapshot snapshot;
+    private Object fileKey;
+    private FileTime lastModified;
+
+    @Autowired
+    BookCatalogue(@Value("${bookshelf.catalogue.file}") String file) throws IOException {
+        this.file = Paths.get(file);
+        load();
+    }
+
+    @Scheduled(initialDelayString = "${bookshelf.catalogue.refresh-interval}",
+            fixedDelayString = "${bookshelf.catalogue.refresh-interval}")
+    public void refresh() {
+        try {
+            var attributes = Files.readAttributes(file, BasicFileAttributes.class);
+            if (!Objects.equals(attributes.fileKey(), fileKey) || !attributes.lastModifiedTime().equals(lastModified)) {
+                load();
+            }
+        } catch (IOException exception) {
+            log.warn("Reloading book snapshot {} failed, still serving the one created at {}", file,
+                    snapshot.getCreatedAt(), exception);
+        }
+    }
+
+    BookSnapshot current() {
+        return snapshot;
+    }
+
+    private synchronized void load() throws IOException {
+        var attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        var next = BookSnapshot.open(file);
+        snapshot = next;
+        fileKey = attributes.fileKey();
+        lastModified = attributes.lastModifiedTime();
+        log.info("Serving {} books from snapshot {} created at {}", next.size(), file, next.getCreatedAt());
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.bookshelfdemo.book;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@Profile("catalogue")
+public class BookCatalogueController {
+
+    private static final String RECORD_DESCRIPTION = "book snapshot record";
+
+    private final BookCatalogue bookCatalogue;
+
+    @Autowired
+    BookCatalogueController(BookCatalogue bookCatalogue) {
+        this.bookCatalogue = bookCatalogue;
+    }
+
+    @GetMapping("/books/{id}")
+    public ResponseEntity<Resource> findById(@PathVariable Long id, @RequestHeader HttpHeaders headers) {
+        var snapshot = bookCatalogue.current();
+        var index = snapshot.indexOf(id);
+        if (index < 0) {
+            throw new BookNotFoundException(id);
+        }
+        return respond(snapshot, index, headers);
+    }
+
+    @GetMapping("/books/isbn/{isbn}")
+    public ResponseEntity<Resource> findByIsbn(@PathVariable String isbn, @RequestHeader HttpHeaders headers) {
+        var snapshot = bookCatalogue.current();
+        var index = snapshot.indexOfIsbn(ISBNParser.parse(isbn));
+        if (index < 0) {
+            throw new BookNotFoundException(isbn);
+        }
+        return respond(snapshot, index, headers);
+    }
+
+    private static ResponseEntity<Resource> respond(BookSnapshot snapshot, int index, HttpHeaders headers) {
+        var version = snapshot.getVersion(index);
+        if (BookVersion.isConditionalGet(headers) && version.isNotModified(headers)) {
+            return version.notModified(headers).build();
+        }
+        return version.applyTo(ResponseEntity.ok())
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .body(new ByteBufferResource(snapshot.getJson(index), RECORD_DESCRIPTION));
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.bookshelfdemo.book;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.SequenceGenerator;
+import javax.persistence.Table;
+import java.time.Instant;
+
+@Entity
+@Table(indexes = @Index(name = "ux_book_change_position", columnList = "position", unique = true))
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@Getter
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BookChange {
+
+    enum Type {
+        CREATED, UPDATED, DELETED
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "book_change_seq")
+    @SequenceGenerator(name = "book_change_seq", sequenceName = "book_change_seq", allocationSize = 1)
+    @JsonIgnore
+    private Long id;
+    private Long position;
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 7)
+    private Type type;
+    @Column(nullable = false)
+    private Long bookId;
+    private String isbn;
+    private String title;
+    private String author;
+    private Integer numberOfPages;
+    private Integer rating;
+    @Column(nullable = false)
+    private Instant occurredAt;
+
+    private BookChange(Type type, Long bookId, Book book) {
+        this.type = type;
+        this.bookId = bookId;
+        if (book != null) {
+            this.isbn = book.getIsbn();
+            this.title = book.getTitle();
+            this.author = book.getAuthor();
+            this.numberOfPages = book.getNumberOfPages();
+            this.rating = book.getRating();
+        }
+        this.occurredAt = Instant.now();
+    }
+
+    static BookChange of(Type type, Book book) {
+        return new BookChange(type, book.getId(), book);
+    }
+
+    static BookChange deleted(Long bookId) {
+        return new BookChange(Type.DELETED, bookId, null);
+    }
+}
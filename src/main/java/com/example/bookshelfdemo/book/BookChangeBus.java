@@ -0,0 +1,33 @@
+package com.example.bookshelfdemo.book;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+@Slf4j
+@Component
+@Profile("!reactive & !catalogue")
+class BookChangeBus {
+
+    private final List<Consumer<List<BookChange>>> subscribers = new CopyOnWriteArrayList<>();
+
+    Runnable subscribe(Consumer<List<BookChange>> subscriber) {
+        subscribers.add(subscriber);
+        return () -> subscribers.remove(subscriber);
+    }
+
+    void publish(List<BookChange> changes) {
+        for (var subscriber : subscribers) {
+            try {
+                subscriber.accept(changes);
+            } catch (RuntimeException exception) {
+                log.warn("Book change subscriber failed, unsubscribing", exception);
+                subscribers.remove(subscriber);
+            }
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.bookshelfdemo.book;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+@Component
+@Profile("!reactive & !catalogue")
+class BookChangeLog {
+
+    private final BookChangeRepository bookChangeRepository;
+
+    @Autowired
+    BookChangeLog(BookChangeRepository bookChangeRepository) {
+        this.bookChangeRepository = bookChangeRepository;
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void created(List<Book> books) {
+        bookChangeRepository.saveAll(books.stream()
+                .map(book -> BookChange.of(BookChange.Type.CREATED, book))
+                .collect(Collectors.toList()));
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void updated(List<Book> books) {
+        bookChangeRepository.saveAll(books.stream()
+                .map(book -> BookChange.of(BookChange.Type.UPDATED, book))
+                .collect(Collectors.toList()));
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void deleted(List<Long> ids) {
+        bookChangeRepository.saveAll(ids.stream()
+                .map(BookChange::deleted)
+                .collect(Collectors.toList()));
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.bookshelfdemo.book;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+@Slf4j
+@Component
+@Profile("!reactive & !catalogue")
+class BookChangePublisher {
+
+    private static final long UNKNOWN = -1;
+
+    private final BookChangeRepository bookChangeRepository;
+    private final BookChangeBus bookChangeBus;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+
+    private long lastDelivered = UNKNOWN;
+
+    @Autowired
+    BookChangePublisher(BookChangeRepository bookChangeRepository, BookChangeBus bookChangeBus,
+                        PlatformTransactionManager transactionManager,
+                        @Value("${bookshelf.changes.batch-size}") int batchSize) {
+        this.bookChangeRepository = bookChangeRepository;
+        this.bookChangeBus = bookChangeBus;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(fixedDelayString = "${bookshelf.changes.poll-interval}")
+    public synchronized void publish() {
+        if (lastDelivered == UNKNOWN) {
+            lastDelivered = bookChangeRepository.findLastPosition();
+        }
+        assignPositions();
+        deliver();
+    }
+
+    private void assignPositions() {
+        int assigned;
+        do {
+            try {
+                assigned = transactionTemplate.execute(status -> assignPositions(
+                        bookChangeRepository.findByPositionIsNullOrderByIdAsc(PageRequest.of(0, batchSize))));
+            } catch (DataAccessException exception) {
+                log.warn("Assigning positions to book changes failed, another publisher may have taken them", exception);
+                return;
+            }
+        } while (assigned == batchSize);
+    }
+
+    private int assignPositions(List<BookChange> changes) {
+        var assigned = 0;
+        if (!changes.isEmpty()) {
+            var position = bookChangeRepository.findLastPosition();
+            for (var change : changes) {
+                if (bookChangeRepository.publishAt(change.getId(), ++position) == 0) {
+                    break;
+                }
+                assigned++;
+            }
+        }
+        return assigned;
+    }
+
+    private void deliver() {
+        List<BookChange> batch;
+        do {
+            batch = bookChangeRepository.findByPositionGreaterThanOrderByPositionAsc(lastDelivered, PageRequest.of(0, batchSize));
+            if (!batch.isEmpty()) {
+                lastDelivered = batch.get(batch.size() - 1).getPosition();
+                bookChangeBus.publish(batch);
+            }
+        } while (batch.size() == batchSize);
+    }
+}
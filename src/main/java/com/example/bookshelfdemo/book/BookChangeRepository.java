@@ -0,0 +1,26 @@
+package com.example.bookshelfdemo.book;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+@Transactional
+public interface BookChangeRepository extends JpaRepository<BookChange, Long> {
+
+    List<BookChange> findByPositionIsNullOrderByIdAsc(Pageable pageable);
+
+    List<BookChange> findByPositionGreaterThanOrderByPositionAsc(Long position, Pageable pageable);
+
+    @Query("select coalesce(max(c.position), 0) from BookChange c")
+    long findLastPosition();
+
+    @Modifying
+    @Query("update BookChange c set c.position = :position where c.id = :id and c.position is null")
+    int publishAt(@Param("id") Long id, @Param("position") long position);
+
+}
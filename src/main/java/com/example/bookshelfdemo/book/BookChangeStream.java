@@ -0,0 +1,177 @@
+package com.example.bookshelfdemo.book;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Component
+@Profile("!reactive & !catalogue")
+class BookChangeStream implements DisposableBean {
+
+    static final String CHANGES_EVENT = "changes";
+
+    private final BookChangeRepository bookChangeRepository;
+    private final BookChangeBus bookChangeBus;
+    private final int batchSize;
+    private final long timeout;
+    private final int queueCapacity;
+    private final int maxStreams;
+    private final AtomicInteger openStreams = new AtomicInteger();
+    private final ExecutorService senders;
+
+    @Autowired
+    BookChangeStream(BookChangeRepository bookChangeRepository, BookChangeBus bookChangeBus,
+                     @Value("${bookshelf.changes.batch-size}") int batchSize,
+                     @Value("${bookshelf.changes.stream-timeout}") Duration timeout,
+                     @Value("${bookshelf.changes.subscriber-queue-capacity}") int queueCapacity,
+                     @Value("${bookshelf.changes.sender-threads}") int senderThreads,
+                     @Value("${bookshelf.changes.max-streams}") int maxStreams) {
+        this.bookChangeRepository = bookChangeRepository;
+        this.bookChangeBus = bookChangeBus;
+        this.batchSize = batchSize;
+        this.timeout = timeout.toMillis();
+        this.queueCapacity = queueCapacity;
+        this.maxStreams = maxStreams;
+        this.senders = Executors.newFixedThreadPool(senderThreads, new CustomizableThreadFactory("book-changes-sender-"));
+    }
+
+    SseEmitter open(Long since) {
+        if (openStreams.incrementAndGet() > maxStreams) {
+            openStreams.decrementAndGet();
+            throw new BookEndpointOverloadedException("changes");
+        }
+        var closed = new AtomicBoolean();
+        Runnable close = () -> {
+            if (closed.compareAndSet(false, true)) {
+                openStreams.decrementAndGet();
+            }
+        };
+        try {
+            var emitter = new SseEmitter(timeout);
+            var subscriber = new Subscriber(emitter, since != null ? since : bookChangeRepository.findLastPosition());
+            subscriber.unsubscribe = bookChangeBus.subscribe(subscriber);
+            emitter.onCompletion(() -> {
+                subscriber.unsubscribe.run();
+                close.run();
+            });
+            emitter.onTimeout(emitter::complete);
+            senders.execute(subscriber::replay);
+            return emitter;
+        } catch (RuntimeException exception) {
+            close.run();
+            throw exception;
+        }
+    }
+
+
+    @Override
+    public void destroy() {
+        senders.shutdownNow();
+    }
+
+    private final class Subscriber implements Consumer<List<BookChange>> {
+
+        private final SseEmitter emitter;
+        private final BlockingQueue<List<BookChange>> queue = new ArrayBlockingQueue<>(queueCapacity);
+        private final AtomicBoolean draining = new AtomicBoolean(true);
+        private volatile boolean dropped;
+        private volatile Runnable unsubscribe;
+        private long lastSent;
+
+        private Subscriber(SseEmitter emitter, long since) {
+            this.emitter = emitter;
+            this.lastSent = since;
+        }
+
+        @Override
+        public void accept(List<BookChange> changes) {
+            if (!queue.offer(changes)) {
+                log.warn("Book change subscriber fell {} batches behind, dropping it", queueCapacity);
+                dropped = true;
+                unsubscribe.run();
+            }
+            if (draining.compareAndSet(false, true)) {
+                senders.execute(this::drain);
+            }
+        }
+
+        private void replay() {
+            try {
+                List<BookChange> page;
+                do {
+                    page = bookChangeRepository.findByPositionGreaterThanOrderByPositionAsc(lastSent, PageRequest.of(0, batchSize));
+                    if (!dropped && !send(page)) {
+                        return;
+                    }
+                } while (!dropped && page.size() == batchSize);
+            } catch (RuntimeException exception) {
+                close(exception);
+                return;
+            }
+            drain();
+        }
+
+        private void drain() {
+            do {
+                for (var changes = queue.poll(); changes != null && !dropped; changes = queue.poll()) {
+                    if (!send(changes)) {
+                        return;
+                    }
+                }
+                if (dropped) {
+                    queue.clear();
+                    emitter.complete();
+                    return;
+                }
+                draining.set(false);
+            } while (!queue.isEmpty() && draining.compareAndSet(false, true));
+        }
+
+        private boolean send(List<BookChange> changes) {
+            var unsent = changes.stream()
+                    .filter(change -> change.getPosition() > lastSent)
+                    .collect(Collectors.toList());
+            if (unsent.isEmpty()) {
+                return true;
+            }
+            var last = unsent.get(unsent.size() - 1).getPosition();
+            try {
+                emitter.send(SseEmitter.event()
+                        .id(Long.toString(last))
+                        .name(CHANGES_EVENT)
+                        .data(unsent, MediaType.APPLICATION_JSON));
+                lastSent = last;
+                return true;
+            } catch (IOException | IllegalStateException exception) {
+                close(exception);
+                return false;
+            }
+        }
+
+        private void close(Exception exception) {
+            dropped = true;
+            unsubscribe.run();
+            emitter.completeWithError(exception);
+        }
+    }
+}
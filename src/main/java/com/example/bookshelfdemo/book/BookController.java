@@ -1,53 +1,362 @@
 package com.example.bookshelfdemo.book;
 
+import com.example.bookshelfdemo.datasource.ReadYourWrites;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+import org.springframework.web.util.UriComponentsBuilder;
 
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.Pattern;
+import javax.validation.constraints.Size;
+import java.io.InputStream;
+import java.time.Instant;
 import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @RestController
+@Validated
+@Profile("!reactive & !catalogue")
 public class BookController {
 
+    private static final int MAX_PAGE_SIZE = 1000;
+    private static final int MAX_BATCH_SIZE = 1000;
+    private static final int MAX_SEARCH_OFFSET = 10000;
+
     private final BookRepository bookRepository;
+    private final BookStreamer bookStreamer;
+    private final BookBatchProcessor bookBatchProcessor;
+    private final BookSearchIndex bookSearchIndex;
+    private final BookImporter bookImporter;
+    private final BookExporter bookExporter;
+    private final BookShelfVersion bookShelfVersion;
+    private final BookStatistics bookStatistics;
+    private final BookResponseCache bookResponseCache;
+    private final BookChangeLog bookChangeLog;
+    private final BookChangeStream bookChangeStream;
+    private final TransactionTemplate transactionTemplate;
+    private final ReadYourWrites readYourWrites;
+    private final BookLoader bookLoader;
 
     @Autowired
-    public BookController(BookRepository bookRepository) {
+    public BookController(BookRepository bookRepository, BookStreamer bookStreamer, BookBatchProcessor bookBatchProcessor,
+                          BookSearchIndex bookSearchIndex, BookImporter bookImporter, BookExporter bookExporter,
+                          BookShelfVersion bookShelfVersion,
+                          BookStatistics bookStatistics, BookResponseCache bookResponseCache,
+                          BookChangeLog bookChangeLog, BookChangeStream bookChangeStream,
+                          PlatformTransactionManager transactionManager, ReadYourWrites readYourWrites,
+                          BookLoader bookLoader) {
         this.bookRepository = bookRepository;
+        this.bookStreamer = bookStreamer;
+        this.bookBatchProcessor = bookBatchProcessor;
+        this.bookSearchIndex = bookSearchIndex;
+        this.bookImporter = bookImporter;
+        this.bookExporter = bookExporter;
+        this.bookShelfVersion = bookShelfVersion;
+        this.bookStatistics = bookStatistics;
+        this.bookResponseCache = bookResponseCache;
+        this.bookChangeLog = bookChangeLog;
+        this.bookChangeStream = bookChangeStream;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.readYourWrites = readYourWrites;
+        this.bookLoader = bookLoader;
     }
 
     @GetMapping("/books")
-    public List<Book> findAll() {
-        return bookRepository.findAll();
+    public Callable<ResponseEntity<?>> findAll(@RequestParam(required = false) String author,
+                                               @RequestParam(required = false) @Min(1) @Max(5) Integer minRating,
+                                               @RequestParam(defaultValue = "0") Long after,
+                                               @RequestParam(defaultValue = "20") @Min(1) @Max(MAX_PAGE_SIZE) int limit,
+                                               @RequestParam(required = false) @Pattern(regexp = BookFieldsRepository.FIELDS_PATTERN) String fields,
+                                               @RequestHeader HttpHeaders headers) {
+        var nextPage = ServletUriComponentsBuilder.fromCurrentRequest();
+        return () -> {
+            var shelfETag = bookShelfVersion.getETag();
+            if (ETags.weakMatch(headers.getIfNoneMatch(), shelfETag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).headers(BookResponseCache.vary()).eTag(shelfETag).build();
+            }
+            var changedAt = bookShelfVersion.getChangedAt();
+            var cacheable = BookResponseCache.isCacheable(headers);
+            var key = new BookResponseCache.Key(author, minRating, after, limit, fields);
+            if (cacheable) {
+                var cached = bookResponseCache.get(key, shelfETag, headers);
+                if (cached != null) {
+                    return cached;
+                }
+            }
+            List<?> books;
+            Object lastId;
+            boolean consistent;
+            if (fields != null) {
+                var read = readYourWrites.read(() -> bookRepository.findFields(List.of(fields.split(",")), author, minRating, after, limit));
+                var rows = read.getValue();
+                lastId = rows.isEmpty() ? null : rows.get(rows.size() - 1).get("id");
+                books = rows;
+                consistent = read.includesChangesUntil(changedAt);
+            } else {
+                var read = readYourWrites.read(() -> findPage(author, minRating, after, PageRequest.of(0, limit)));
+                var entities = read.getValue();
+                lastId = entities.isEmpty() ? null : entities.get(entities.size() - 1).getId();
+                books = entities;
+                consistent = read.includesChangesUntil(changedAt);
+            }
+            var link = books.size() == limit ? nextPageLink(nextPage, "after", lastId) : null;
+            if (cacheable && consistent) {
+                return bookResponseCache.put(key, shelfETag, link, books, headers);
+            }
+            var response = ResponseEntity.ok().headers(BookResponseCache.vary()).eTag(shelfETag);
+            if (link != null) {
+                response.header(HttpHeaders.LINK, link);
+            }
+            return response.body(books);
+        };
+    }
+
+    @GetMapping(value = "/books", produces = BookStreamer.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAll() {
+        return ResponseEntity.ok()
+                .contentType(MediaType.valueOf(BookStreamer.APPLICATION_NDJSON_VALUE))
+                .body(bookStreamer::writeAll);
+    }
+
+    @GetMapping("/books/search")
+    public Callable<ResponseEntity<List<Book>>> search(@RequestParam String q,
+                                                       @RequestParam(defaultValue = "0") @Min(0) @Max(MAX_SEARCH_OFFSET) int offset,
+                                                       @RequestParam(defaultValue = "20") @Min(1) @Max(MAX_PAGE_SIZE) int limit) {
+        var nextPage = ServletUriComponentsBuilder.fromCurrentRequest();
+        return () -> {
+            var ids = bookSearchIndex.search(q, offset, limit);
+            var booksById = bookRepository.findAllById(ids)
+                    .stream()
+                    .collect(Collectors.toMap(Book::getId, Function.identity()));
+            var books = ids.stream()
+                    .map(booksById::get)
+                    .filter(Objects::nonNull)
+                    .collect(Collectors.toList());
+            var response = ResponseEntity.ok();
+            if (ids.size() == limit) {
+                response.header(HttpHeaders.LINK, nextPageLink(nextPage, "offset", offset + limit));
+            }
+            return response.body(books);
+        };
+    }
+
+    @GetMapping("/books/stats")
+    public ResponseEntity<BookStats> stats(@RequestHeader HttpHeaders headers) {
+        var shelfETag = bookShelfVersion.getETag();
+        if (ETags.weakMatch(headers.getIfNoneMatch(), shelfETag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).headers(BookResponseCache.vary()).eTag(shelfETag).build();
+        }
+        return ResponseEntity.ok().headers(BookResponseCache.vary()).eTag(shelfETag).body(bookStatistics.stats());
+    }
+
+    @GetMapping(value = "/books/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter changes(@RequestParam(required = false) @Min(0) Long since,
+                              @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+        return bookChangeStream.open(since != null ? since : lastEventId);
+    }
+
+    @GetMapping("/books/isbn/{isbn}")
+    public Callable<ResponseEntity<Book>> findByIsbn(@PathVariable String isbn) {
+        return () -> ResponseEntity.ok(
+                bookRepository.findByIsbn(ISBNParser.parse(isbn)).orElseThrow(() -> new BookNotFoundException(isbn)));
     }
 
     @GetMapping("/books/{id}")
-    public Book findById(@PathVariable Long id) {
-        return bookRepository.findById(id).orElseThrow(() -> new BookNotFoundException(id));
+    public Callable<ResponseEntity<?>> findById(@PathVariable Long id,
+                                                @RequestParam(required = false) @Pattern(regexp = BookFieldsRepository.FIELDS_PATTERN) String fields,
+                                                @RequestHeader HttpHeaders headers) {
+        return () -> {
+            if (BookVersion.isConditionalGet(headers)) {
+                var current = bookRepository.findVersionById(id).orElseThrow(() -> new BookNotFoundException(id));
+                if (current.isNotModified(headers)) {
+                    return current.notModified(headers).build();
+                }
+            }
+            if (fields != null) {
+                var row = bookRepository.findFieldsById(id, List.of(fields.split(","))).orElseThrow(() -> new BookNotFoundException(id));
+                return BookVersion.remove(row).applyTo(ResponseEntity.ok()).body(row);
+            }
+            var book = bookLoader.findById(id).orElseThrow(() -> new BookNotFoundException(id));
+            return BookVersion.of(book).applyTo(ResponseEntity.ok()).body(book);
+        };
     }
 
     @PostMapping("/books")
-    public Book save(@RequestBody @Valid Book book) {
-        book.setIsbn(ISBNParser.parse(book.getIsbn()));
-        return bookRepository.save(book);
+    public Callable<ResponseEntity<Book>> save(@RequestBody @Valid Book book, HttpServletResponse servletResponse) {
+        return () -> {
+            BookBatchProcessor.normalizeForSave(book);
+            var savedBook = transactionTemplate.execute(status -> {
+                var saved = bookRepository.save(book);
+                bookChangeLog.created(List.of(saved));
+                return saved;
+            });
+            readYourWrites.written(servletResponse);
+            bookSearchIndex.index(savedBook);
+            bookStatistics.index(savedBook);
+            bookShelfVersion.changed();
+            return BookVersion.of(savedBook).applyTo(ResponseEntity.ok()).body(savedBook);
+        };
     }
 
     @PutMapping("/books/{id}")
-    public Book update(@RequestBody @Valid Book book, @PathVariable Long id) {
-        var bookForUpdate = bookRepository.findById(id).orElseThrow(() -> new BookNotFoundException(id));
-        bookForUpdate.setIsbn(ISBNParser.parse(book.getIsbn()));
-        bookForUpdate.setNumberOfPages(book.getNumberOfPages());
-        bookForUpdate.setRating(book.getRating());
-        bookForUpdate.setAuthor(book.getAuthor());
-        bookForUpdate.setTitle(book.getTitle());
-        return bookRepository.save(bookForUpdate);
+    public Callable<ResponseEntity<Book>> update(@RequestBody @Valid Book book, @PathVariable Long id,
+                                                 @RequestHeader HttpHeaders headers, HttpServletResponse servletResponse) {
+        return () -> {
+            book.setId(id);
+            book.setIsbn(ISBNParser.parse(book.getIsbn()));
+            book.setLastModified(Instant.now());
+            var response = ResponseEntity.ok().lastModified(book.getLastModified());
+            try {
+                transactionTemplate.execute(status -> {
+                    if (headers.getIfMatch().isEmpty()) {
+                        if (bookRepository.updateById(id, book) == 0) {
+                            throw new BookNotFoundException(id);
+                        }
+                    } else {
+                        var current = currentVersion(id, headers);
+                        if (bookRepository.updateByIdAndVersion(id, current.getVersion(), book) == 0) {
+                            throw new BookPreconditionFailedException(id);
+                        }
+                        new BookVersion(current.getVersion() + 1, book.getLastModified()).applyTo(response);
+                    }
+                    bookChangeLog.updated(List.of(book));
+                    return null;
+                });
+            } catch (DataIntegrityViolationException exception) {
+                if (isIsbnTaken(exception)) {
+                    throw new BookIsbnTakenException(book.getIsbn());
+                }
+                throw exception;
+            }
+            readYourWrites.written(servletResponse);
+            bookSearchIndex.index(book);
+            bookStatistics.index(book);
+            bookShelfVersion.changed();
+            return response.body(book);
+        };
     }
 
     @DeleteMapping("/books/{id}")
-    public void delete(@PathVariable Long id) {
-        bookRepository.findById(id).ifPresentOrElse(bookRepository::delete, () -> {
-            throw new BookNotFoundException(id);
-        });
+    public Callable<ResponseEntity<Void>> delete(@PathVariable Long id, @RequestHeader HttpHeaders headers,
+                                                 HttpServletResponse servletResponse) {
+        return () -> {
+            transactionTemplate.execute(status -> {
+                if (headers.getIfMatch().isEmpty()) {
+                    if (bookRepository.removeById(id) == 0) {
+                        throw new BookNotFoundException(id);
+                    }
+                } else if (bookRepository.removeByIdAndVersion(id, currentVersion(id, headers).getVersion()) == 0) {
+                    throw new BookPreconditionFailedException(id);
+                }
+                bookChangeLog.deleted(List.of(id));
+                return null;
+            });
+            readYourWrites.written(servletResponse);
+            bookSearchIndex.remove(id);
+            bookStatistics.remove(id);
+            bookShelfVersion.changed();
+            return ResponseEntity.ok().build();
+        };
+    }
+
+    @PostMapping("/books:batch")
+    public Callable<ResponseEntity<List<BookBatchResult>>> saveAll(@RequestBody @NotEmpty @Size(max = MAX_BATCH_SIZE) List<Book> books,
+                                                                   HttpServletResponse servletResponse) {
+        return () -> ResponseEntity.ok(written(bookBatchProcessor.saveAll(books), servletResponse));
+    }
+
+    @PutMapping("/books:batch")
+    public Callable<ResponseEntity<List<BookBatchResult>>> updateAll(@RequestBody @NotEmpty @Size(max = MAX_BATCH_SIZE) List<Book> books,
+                                                                     HttpServletResponse servletResponse) {
+        return () -> ResponseEntity.ok(written(bookBatchProcessor.updateAll(books), servletResponse));
+    }
+
+    @DeleteMapping("/books:batch")
+    public Callable<ResponseEntity<List<BookBatchResult>>> deleteAll(@RequestBody @NotEmpty @Size(max = MAX_BATCH_SIZE) List<Long> ids,
+                                                                     HttpServletResponse servletResponse) {
+        return () -> ResponseEntity.ok(written(bookBatchProcessor.deleteAll(ids), servletResponse));
+    }
+
+    @PostMapping(value = "/books:import", consumes = {BookImportFormat.TEXT_CSV_VALUE, BookStreamer.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<BookImportReport> importBooks(@RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+                                                        @RequestParam(defaultValue = "0") @Min(0) long after,
+                                                        InputStream body, HttpServletResponse servletResponse) {
+        var report = bookImporter.importBooks(body, BookImportFormat.of(contentType), after, BookImportListener.NONE);
+        readYourWrites.written(servletResponse);
+        return ResponseEntity.status(report.isCompleted() ? HttpStatus.OK : HttpStatus.INTERNAL_SERVER_ERROR).body(report);
+    }
+
+    @GetMapping("/books:export")
+    public ResponseEntity<StreamingResponseBody> exportBooks(@RequestParam(defaultValue = "ndjson") @Pattern(regexp = "ndjson|csv") String format) {
+        var exportFormat = BookExportFormat.valueOf(format.toUpperCase(Locale.ROOT));
+        var attachment = ContentDisposition.builder("attachment")
+                .filename(exportFormat.fileName("books"))
+                .build();
+        return ResponseEntity.ok()
+                .contentType(MediaType.valueOf(BookExportFormat.APPLICATION_GZIP_VALUE))
+                .header(HttpHeaders.CONTENT_DISPOSITION, attachment.toString())
+                .body(output -> bookExporter.exportBooks(output, exportFormat));
+    }
+
+    private <T> T written(T result, HttpServletResponse servletResponse) {
+        readYourWrites.written(servletResponse);
+        return result;
+    }
+
+    private static boolean isIsbnTaken(DataIntegrityViolationException exception) {
+        var message = exception.getMostSpecificCause().getMessage();
+        return message != null && message.toLowerCase(Locale.ROOT).contains(Book.ISBN_INDEX);
+    }
+
+    private BookVersion currentVersion(Long id, HttpHeaders headers) {
+        var current = bookRepository.findVersionById(id).orElseThrow(() -> new BookNotFoundException(id));
+        if (!current.matches(headers)) {
+            throw new BookPreconditionFailedException(id);
+        }
+        return current;
+    }
+
+
+    private List<Book> findPage(String author, Integer minRating, Long after, PageRequest page) {
+        if (author != null && minRating != null) {
+            return bookRepository.findByAuthorAndRatingGreaterThanEqualAndIdGreaterThanOrderByIdAsc(author, minRating, after, page);
+        }
+        if (author != null) {
+            return bookRepository.findByAuthorAndIdGreaterThanOrderByIdAsc(author, after, page);
+        }
+        if (minRating != null) {
+            return bookRepository.findByRatingGreaterThanEqualAndIdGreaterThanOrderByIdAsc(minRating, after, page);
+        }
+        return bookRepository.findByIdGreaterThanOrderByIdAsc(after, page);
+    }
+
+    private String nextPageLink(UriComponentsBuilder currentRequest, String cursorParam, Object cursor) {
+        var next = currentRequest
+                .replaceQueryParam(cursorParam, cursor)
+                .toUriString();
+        return String.format("<%s>; rel=\"next\"", next);
     }
 
 }
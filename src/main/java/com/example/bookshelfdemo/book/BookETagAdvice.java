@@ -0,0 +1,36 @@
+package com.example.bookshelfdemo.book;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+@ControllerAdvice
+@Profile("!reactive")
+class BookETagAdvice implements ResponseBodyAdvice<Object> {
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        var headers = response.getHeaders();
+        var eTag = headers.getETag();
+        if (eTag != null && ETags.isStrong(eTag) && selectedContentType != null && response instanceof ServletServerHttpResponse) {
+            headers.remove(HttpHeaders.ETAG);
+            ((ServletServerHttpResponse) response).getServletResponse()
+                    .setHeader(HttpHeaders.ETAG, ETags.withVariant(eTag, selectedContentType));
+        }
+        return body;
+    }
+}
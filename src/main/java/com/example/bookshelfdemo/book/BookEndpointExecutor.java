@@ -0,0 +1,99 @@
+package com.example.bookshelfdemo.book;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.async.WebAsyncTask;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+
+@Component
+@Profile("!reactive & !catalogue")
+class BookEndpointExecutor implements DisposableBean {
+
+    private final BookExecutionProperties properties;
+    private final TaskDecorator taskDecorator;
+    private final ObjectProvider<DataSource> dataSources;
+    private final Map<String, Bulkhead> bulkheads = new ConcurrentHashMap<>();
+
+    @Autowired
+    BookEndpointExecutor(BookExecutionProperties properties, ObjectProvider<TaskDecorator> taskDecorators,
+                         ObjectProvider<DataSource> dataSources) {
+        this.properties = properties;
+        this.dataSources = dataSources;
+        this.taskDecorator = taskDecorators.orderedStream()
+                .reduce((outer, inner) -> runnable -> outer.decorate(inner.decorate(runnable)))
+                .orElse(null);
+    }
+
+    boolean isBlocking() {
+        return properties.getMode() == BookExecutionProperties.Mode.BLOCKING;
+    }
+
+    <T> WebAsyncTask<T> submit(String endpoint, Callable<T> task) {
+        var bulkhead = bulkheads.computeIfAbsent(endpoint, this::createBulkhead);
+        if (!bulkhead.permits.tryAcquire()) {
+            throw new BookEndpointOverloadedException(endpoint);
+        }
+        return new WebAsyncTask<>(properties.getTimeout().toMillis(), bulkhead.executor, () -> {
+            try {
+                return task.call();
+            } finally {
+                bulkhead.permits.release();
+            }
+        });
+    }
+
+    void checkConnections(Collection<String> endpoints) throws SQLException {
+        var dataSource = dataSources.getIfAvailable();
+        if (isBlocking() || dataSource == null || !dataSource.isWrapperFor(HikariDataSource.class)) {
+            return;
+        }
+        var connections = dataSource.unwrap(HikariDataSource.class).getMaximumPoolSize();
+        var concurrency = endpoints.stream().mapToInt(endpoint -> properties.bulkhead(endpoint).getConcurrency()).sum();
+        if (concurrency > connections) {
+            throw new IllegalStateException("Endpoints " + endpoints + " may run " + concurrency
+                    + " handlers at once but the connection pool has only " + connections + " connections");
+        }
+    }
+
+    @Override
+    public void destroy() {
+        bulkheads.values().forEach(bulkhead -> bulkhead.executor.shutdown());
+    }
+
+    private Bulkhead createBulkhead(String endpoint) {
+        var limits = properties.bulkhead(endpoint);
+        var executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(limits.getConcurrency());
+        executor.setMaxPoolSize(limits.getConcurrency());
+        executor.setThreadNamePrefix("books-" + endpoint + "-");
+        if (taskDecorator != null) {
+            executor.setTaskDecorator(taskDecorator);
+        }
+        executor.initialize();
+        return new Bulkhead(new Semaphore(limits.getConcurrency() + limits.getQueueCapacity()), executor);
+    }
+
+    private static final class Bulkhead {
+
+        private final Semaphore permits;
+        private final ThreadPoolTaskExecutor executor;
+
+        private Bulkhead(Semaphore permits, ThreadPoolTaskExecutor executor) {
+            this.permits = permits;
+            this.executor = executor;
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.bookshelfdemo.book;
+
+import lombok.Getter;
+
+@Getter
+class BookEndpointOverloadedException extends RuntimeException {
+
+    private final String endpoint;
+
+    BookEndpointOverloadedException(String endpoint) {
+        super(String.format("Endpoint %s is overloaded", endpoint));
+        this.endpoint = endpoint;
+    }
+}
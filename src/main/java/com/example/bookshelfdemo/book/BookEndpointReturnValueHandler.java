@@ -0,0 +1,106 @@
+package com.example.bookshelfdemo.book;
+
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.MethodParameter;
+import org.springframework.core.ResolvableType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.method.support.HandlerMethodReturnValueHandler;
+import org.springframework.web.method.support.HandlerMethodReturnValueHandlerComposite;
+import org.springframework.web.method.support.ModelAndViewContainer;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerAdapter;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.stream.Collectors;
+
+@Component
+@Profile("!reactive & !catalogue")
+class BookEndpointReturnValueHandler implements HandlerMethodReturnValueHandler, InitializingBean {
+
+    private final BookEndpointExecutor bookEndpointExecutor;
+    private final RequestMappingHandlerAdapter handlerAdapter;
+    private final RequestMappingHandlerMapping handlerMapping;
+    private HandlerMethodReturnValueHandler resultHandler;
+
+    @Autowired
+    BookEndpointReturnValueHandler(BookEndpointExecutor bookEndpointExecutor, RequestMappingHandlerAdapter handlerAdapter,
+                                   @Qualifier("requestMappingHandlerMapping") RequestMappingHandlerMapping handlerMapping) {
+        this.bookEndpointExecutor = bookEndpointExecutor;
+        this.handlerAdapter = handlerAdapter;
+        this.handlerMapping = handlerMapping;
+    }
+
+    @Override
+    public void afterPropertiesSet() throws Exception {
+        var endpoints = handlerMapping.getHandlerMethods().values().stream()
+                .map(HandlerMethod::getReturnType)
+                .filter(this::supportsReturnType)
+                .map(BookEndpointReturnValueHandler::endpoint)
+                .collect(Collectors.toCollection(ArrayList::new));
+        bookEndpointExecutor.checkConnections(endpoints);
+        var handlers = new ArrayList<>(Objects.requireNonNull(handlerAdapter.getReturnValueHandlers()));
+        resultHandler = new HandlerMethodReturnValueHandlerComposite().addHandlers(handlers);
+        handlers.add(0, this);
+        handlerAdapter.setReturnValueHandlers(handlers);
+    }
+
+    @Override
+    public boolean supportsReturnType(MethodParameter returnType) {
+        return BookController.class.isAssignableFrom(returnType.getContainingClass())
+                && Callable.class.isAssignableFrom(returnType.getParameterType());
+    }
+
+    @Override
+    public void handleReturnValue(Object returnValue, MethodParameter returnType, ModelAndViewContainer mavContainer,
+                                  NativeWebRequest webRequest) throws Exception {
+        var task = (Callable<?>) returnValue;
+        if (bookEndpointExecutor.isBlocking()) {
+            resultHandler.handleReturnValue(task.call(), new ResultType(returnType), mavContainer, webRequest);
+        } else {
+            WebAsyncUtils.getAsyncManager(webRequest)
+                    .startCallableProcessing(bookEndpointExecutor.submit(endpoint(returnType), task), mavContainer);
+        }
+    }
+
+    private static String endpoint(MethodParameter returnType) {
+        return Objects.requireNonNull(returnType.getMethod()).getName();
+    }
+
+    private static class ResultType extends MethodParameter {
+
+        private final ResolvableType type;
+
+        private ResultType(MethodParameter returnType) {
+            this(returnType, ResolvableType.forMethodParameter(returnType).getGeneric());
+        }
+
+        private ResultType(MethodParameter original, ResolvableType type) {
+            super(original);
+            this.type = type;
+        }
+
+        @Override
+        public Class<?> getParameterType() {
+            return type.toClass();
+        }
+
+        @Override
+        public Type getGenericParameterType() {
+            return type.getType();
+        }
+
+        @Override
+        public ResultType clone() {
+            return new ResultType(this, type);
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.bookshelfdemo.book;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+@Component
+@ConfigurationProperties("bookshelf.execution")
+@Getter
+@Setter
+class BookExecutionProperties {
+
+    private Mode mode = Mode.BLOCKING;
+    private Duration timeout = Duration.ofSeconds(30);
+    private Bulkhead defaults = new Bulkhead();
+    private Map<String, Bulkhead> endpoints = new HashMap<>();
+
+    Bulkhead bulkhead(String endpoint) {
+        return endpoints.getOrDefault(endpoint, defaults);
+    }
+
+    enum Mode {
+        BLOCKING, BOUNDED_ASYNC
+    }
+
+    @Getter
+    @Setter
+    static class Bulkhead {
+
+        private int concurrency = 2;
+        private int queueCapacity = 50;
+    }
+}
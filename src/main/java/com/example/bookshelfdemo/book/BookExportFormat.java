@@ -0,0 +1,85 @@
+package com.example.bookshelfdemo.book;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+enum BookExportFormat {
+
+    NDJSON("ndjson") {
+        @Override
+        RowWriter writer(OutputStream output, ObjectMapper objectMapper) throws IOException {
+            var generator = objectMapper.getFactory().createGenerator(output);
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(null);
+            return new RowWriter() {
+                @Override
+                public void write(Object[] row) throws IOException {
+                    generator.writeStartObject();
+                    for (int i = 0; i < COLUMNS.length; i++) {
+                        generator.writeObjectField(COLUMNS[i], row[i]);
+                    }
+                    generator.writeEndObject();
+                    generator.writeRaw('\n');
+                }
+
+                @Override
+                public void close() throws IOException {
+                    generator.close();
+                }
+            };
+        }
+    },
+    CSV("csv") {
+        @Override
+        RowWriter writer(OutputStream output, ObjectMapper objectMapper) throws IOException {
+            var schema = CsvSchema.builder();
+            Arrays.stream(COLUMNS).forEach(schema::addColumn);
+            var rows = new CsvMapper()
+                    .writer(schema.setUseHeader(true).build())
+                    .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                    .writeValues(output);
+            return new RowWriter() {
+                @Override
+                public void write(Object[] row) throws IOException {
+                    rows.write(row);
+                }
+
+                @Override
+                public void close() throws IOException {
+                    rows.close();
+                }
+            };
+        }
+    };
+
+    static final String APPLICATION_GZIP_VALUE = "application/gzip";
+    static final String[] COLUMNS = {"id", "isbn", "title", "author", "numberOfPages", "rating"};
+
+    private final String extension;
+
+    BookExportFormat(String extension) {
+        this.extension = extension;
+    }
+
+    String fileName(String baseName) {
+        return baseName + "." + extension + ".gz";
+    }
+
+    abstract RowWriter writer(OutputStream output, ObjectMapper objectMapper) throws IOException;
+
+    static BookExportFormat of(String fileName) {
+        return fileName.contains(".csv") ? CSV : NDJSON;
+    }
+
+    interface RowWriter extends Closeable {
+
+        void write(Object[] row) throws IOException;
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.bookshelfdemo.book;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties("bookshelf.export")
+@Getter
+@Setter
+class BookExportProperties {
+
+    private String file;
+    private BookExportFormat format;
+    private int fetchSize = 1000;
+}
@@ -0,0 +1,48 @@
+package com.example.bookshelfdemo.book;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+@Slf4j
+@Component
+@Profile("!reactive & !catalogue")
+@ConditionalOnProperty("bookshelf.export.file")
+class BookExportRunner implements ApplicationRunner {
+
+    private final BookExporter bookExporter;
+    private final BookExportProperties properties;
+
+    @Autowired
+    BookExportRunner(BookExporter bookExporter, BookExportProperties properties) {
+        this.bookExporter = bookExporter;
+        this.properties = properties;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws IOException {
+        var file = Paths.get(properties.getFile());
+        var format = properties.getFormat() != null ? properties.getFormat() : BookExportFormat.of(file.toString());
+        var partial = file.resolveSibling(file.getFileName() + ".partial");
+        long exported;
+        try (var channel = FileChannel.open(partial, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            exported = bookExporter.exportBooks(Channels.newOutputStream(channel), format);
+            channel.force(false);
+        }
+        Files.move(partial, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        log.info("Export of {} books to {} completed, {} bytes", exported, file, Files.size(file));
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.bookshelfdemo.book;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+@Slf4j
+@Component
+@Profile("!reactive & !catalogue")
+class BookExporter {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final BookRepository bookRepository;
+    private final ObjectMapper objectMapper;
+    private final BookExportProperties properties;
+
+    @Autowired
+    BookExporter(BookRepository bookRepository, ObjectMapper objectMapper, BookExportProperties properties) {
+        this.bookRepository = bookRepository;
+        this.objectMapper = objectMapper;
+        this.properties = properties;
+    }
+
+    @Transactional(readOnly = true)
+    public long exportBooks(OutputStream output, BookExportFormat format) throws IOException {
+        var start = System.nanoTime();
+        var gzip = new GZIPOutputStream(output, BUFFER_SIZE);
+        long exported = 0;
+        try (var writer = format.writer(gzip, objectMapper);
+             var rows = bookRepository.streamRows(properties.getFetchSize())) {
+            for (var iterator = rows.iterator(); iterator.hasNext(); exported++) {
+                writer.write(iterator.next());
+            }
+        }
+        gzip.finish();
+        gzip.flush();
+        var durationMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        log.info("Exported {} books as {} in {} ms, {} books/s", exported, format, durationMillis,
+                exported * 1000 / Math.max(durationMillis, 1));
+        return exported;
+    }
+}
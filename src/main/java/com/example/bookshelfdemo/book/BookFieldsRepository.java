@@ -0,0 +1,20 @@
+package com.example.bookshelfdemo.book;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+public interface BookFieldsRepository {
+
+    String FIELDS_PATTERN = "(id|isbn|title|author|numberOfPages|rating)(,(id|isbn|title|author|numberOfPages|rating))*";
+    String VERSION = "version";
+    String LAST_MODIFIED = "lastModified";
+
+    List<Map<String, Object>> findFields(List<String> fields, String author, Integer minRating, Long after, int limit);
+
+    Optional<Map<String, Object>> findFieldsById(Long id, List<String> fields);
+
+    Stream<Object[]> streamRows(int fetchSize);
+
+}
@@ -0,0 +1,121 @@
+package com.example.bookshelfdemo.book;
+
+import org.hibernate.ScrollMode;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Tuple;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import javax.persistence.criteria.Selection;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+class BookFieldsRepositoryImpl implements BookFieldsRepository {
+
+    private static final String ID = "id";
+    private static final String ROWS_QUERY =
+            "select b.id, b.isbn, b.title, b.author, b.numberOfPages, b.rating from Book b order by b.id";
+
+    private final EntityManager entityManager;
+
+    @Autowired
+    BookFieldsRepositoryImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> findFields(List<String> fields, String author, Integer minRating, Long after, int limit) {
+        var builder = entityManager.getCriteriaBuilder();
+        var query = builder.createTupleQuery();
+        var book = query.from(Book.class);
+        var predicates = new ArrayList<Predicate>();
+        predicates.add(builder.greaterThan(book.get(ID), after));
+        if (author != null) {
+            predicates.add(builder.equal(book.get("author"), author));
+        }
+        if (minRating != null) {
+            predicates.add(builder.greaterThanOrEqualTo(book.get("rating"), minRating));
+        }
+        query.multiselect(select(book, fields))
+                .where(predicates.toArray(new Predicate[0]))
+                .orderBy(builder.asc(book.get(ID)));
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultStream()
+                .map(BookFieldsRepositoryImpl::toMap)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public Optional<Map<String, Object>> findFieldsById(Long id, List<String> fields) {
+        var builder = entityManager.getCriteriaBuilder();
+        var query = builder.createTupleQuery();
+        var book = query.from(Book.class);
+        var selection = select(book, fields);
+        selection.add(book.get(VERSION).alias(VERSION));
+        selection.add(book.get(LAST_MODIFIED).alias(LAST_MODIFIED));
+        query.multiselect(selection).where(builder.equal(book.get(ID), id));
+        return entityManager.createQuery(query)
+                .getResultStream()
+                .findFirst()
+                .map(BookFieldsRepositoryImpl::toMap);
+    }
+
+    @Override
+    public Stream<Object[]> streamRows(int fetchSize) {
+        var session = entityManager.unwrap(Session.class);
+        var statelessSession = session.doReturningWork(connection -> session.getSessionFactory().openStatelessSession(connection));
+        try {
+            var rows = statelessSession.createQuery(ROWS_QUERY, Object[].class)
+                    .setFetchSize(fetchSize)
+                    .scroll(ScrollMode.FORWARD_ONLY);
+            var spliterator = new Spliterators.AbstractSpliterator<Object[]>(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL) {
+                @Override
+                public boolean tryAdvance(Consumer<? super Object[]> action) {
+                    if (!rows.next()) {
+                        return false;
+                    }
+                    action.accept(rows.get());
+                    return true;
+                }
+            };
+            return StreamSupport.stream(spliterator, false).onClose(() -> {
+                rows.close();
+                statelessSession.close();
+            });
+        } catch (RuntimeException exception) {
+            statelessSession.close();
+            throw exception;
+        }
+    }
+
+    private static List<Selection<?>> select(Root<Book> book, List<String> fields) {
+        var names = new LinkedHashSet<String>();
+        names.add(ID);
+        names.addAll(fields);
+        return names.stream()
+                .map(name -> book.get(name).alias(name))
+                .collect(Collectors.toCollection(ArrayList::new));
+    }
+
+    private static Map<String, Object> toMap(Tuple tuple) {
+        var row = new LinkedHashMap<String, Object>();
+        tuple.getElements().forEach(element -> row.put(element.getAlias(), tuple.get(element)));
+        return row;
+    }
+
+}
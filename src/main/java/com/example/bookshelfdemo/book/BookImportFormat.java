@@ -0,0 +1,91 @@
+package com.example.bookshelfdemo.book;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import org.springframework.http.MediaType;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.Arrays;
+
+enum BookImportFormat {
+
+    CSV(BookImportFormat.TEXT_CSV_VALUE, 1) {
+        @Override
+        LineParser parser(BufferedReader reader, ObjectMapper objectMapper) throws IOException {
+            var header = reader.readLine();
+            if (header == null) {
+                return null;
+            }
+            var csvMapper = new CsvMapper();
+            csvMapper.disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+            String[] columns = csvMapper.readerFor(String[].class).readValue(header);
+            var schema = CsvSchema.builder();
+            Arrays.stream(columns).map(String::trim).forEach(schema::addColumn);
+            var bookReader = csvMapper.readerFor(Book.class).with(schema.build());
+            return bookReader::readValue;
+        }
+
+        @Override
+        String readRecord(BufferedReader reader) throws IOException {
+            var line = reader.readLine();
+            if (line == null || isClosed(line)) {
+                return line;
+            }
+            var record = new StringBuilder(line);
+            while (!isClosed(record) && (line = reader.readLine()) != null) {
+                record.append('\n').append(line);
+            }
+            return record.toString();
+        }
+
+        private boolean isClosed(CharSequence record) {
+            return record.chars().filter(character -> character == '"').count() % 2 == 0;
+        }
+    },
+    NDJSON(BookStreamer.APPLICATION_NDJSON_VALUE, 0) {
+        @Override
+        LineParser parser(BufferedReader reader, ObjectMapper objectMapper) {
+            var bookReader = objectMapper.readerFor(Book.class);
+            return bookReader::readValue;
+        }
+    };
+
+    static final String TEXT_CSV_VALUE = "text/csv";
+
+    private final MediaType mediaType;
+    private final int headerLines;
+
+    BookImportFormat(String mediaType, int headerLines) {
+        this.mediaType = MediaType.valueOf(mediaType);
+        this.headerLines = headerLines;
+    }
+
+    int getHeaderLines() {
+        return headerLines;
+    }
+
+    abstract LineParser parser(BufferedReader reader, ObjectMapper objectMapper) throws IOException;
+
+    String readRecord(BufferedReader reader) throws IOException {
+        return reader.readLine();
+    }
+
+    static BookImportFormat of(MediaType contentType) {
+        return Arrays.stream(values())
+                .filter(format -> format.mediaType.isCompatibleWith(contentType))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Unsupported import format: " + contentType));
+    }
+
+    static BookImportFormat of(String fileName) {
+        return fileName.endsWith(".csv") ? CSV : NDJSON;
+    }
+
+    interface LineParser {
+
+        Book parse(String line) throws IOException;
+    }
+}
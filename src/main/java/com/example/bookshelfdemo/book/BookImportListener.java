@@ -0,0 +1,13 @@
+package com.example.bookshelfdemo.book;
+
+interface BookImportListener {
+
+    BookImportListener NONE = new BookImportListener() {
+    };
+
+    default void onError(BookBatchResult error) {
+    }
+
+    default void onCommit(long line) {
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.bookshelfdemo.book;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties("bookshelf.import")
+@Getter
+@Setter
+class BookImportProperties {
+
+    private String file;
+    private BookImportFormat format;
+    private int chunkSize = 1000;
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+    private int maxReportedErrors = 1000;
+}
@@ -0,0 +1,21 @@
+package com.example.bookshelfdemo.book;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+@Getter
+@AllArgsConstructor
+public class BookImportReport {
+
+    private final boolean completed;
+    private final long lines;
+    private final long imported;
+    private final long rejected;
+    private final long lastCommittedLine;
+    private final long durationMillis;
+    private final long booksPerSecond;
+    private final String failure;
+    private final List<BookBatchResult> errors;
+}
@@ -0,0 +1,94 @@
+package com.example.bookshelfdemo.book;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+@Slf4j
+@Component
+@Profile("!reactive & !catalogue")
+@ConditionalOnProperty("bookshelf.import.file")
+class BookImportRunner implements ApplicationRunner {
+
+    private final BookImporter bookImporter;
+    private final BookImportProperties properties;
+    private final ObjectMapper objectMapper;
+
+    @Autowired
+    BookImportRunner(BookImporter bookImporter, BookImportProperties properties, ObjectMapper objectMapper) {
+        this.bookImporter = bookImporter;
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws IOException {
+        var file = Paths.get(properties.getFile());
+        var format = properties.getFormat() != null ? properties.getFormat() : BookImportFormat.of(file.toString());
+        var checkpoint = file.resolveSibling(file.getFileName() + ".checkpoint");
+        var errorFile = file.resolveSibling(file.getFileName() + ".errors.ndjson");
+        var after = Files.exists(checkpoint) ? Long.parseLong(Files.readString(checkpoint).trim()) : 0;
+        if (after > 0) {
+            log.info("Resuming import of {} after line {}", file, after);
+        }
+        var errorFileMode = after > 0 ? StandardOpenOption.APPEND : StandardOpenOption.TRUNCATE_EXISTING;
+        try (var input = Files.newInputStream(file);
+             var errors = Files.newBufferedWriter(errorFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE, errorFileMode)) {
+            var report = bookImporter.importBooks(input, format, after, new CheckpointingListener(checkpoint, errors));
+            log.info("Import of {} {}: {} lines, {} imported, {} rejected (see {}), last committed line {}, {} ms, {} books/s",
+                    file, report.isCompleted() ? "completed" : "failed", report.getLines(), report.getImported(),
+                    report.getRejected(), errorFile, report.getLastCommittedLine(), report.getDurationMillis(),
+                    report.getBooksPerSecond());
+            if (report.isCompleted()) {
+                Files.deleteIfExists(checkpoint);
+            }
+        }
+    }
+
+    private class CheckpointingListener implements BookImportListener {
+
+        private final Path checkpoint;
+        private final BufferedWriter errors;
+
+        private CheckpointingListener(Path checkpoint, BufferedWriter errors) {
+            this.checkpoint = checkpoint;
+            this.errors = errors;
+        }
+
+        @Override
+        public void onError(BookBatchResult error) {
+            try {
+                errors.write(objectMapper.writeValueAsString(error));
+                errors.newLine();
+            } catch (IOException exception) {
+                throw new UncheckedIOException(exception);
+            }
+        }
+
+        @Override
+        public void onCommit(long line) {
+            try {
+                errors.flush();
+                var next = checkpoint.resolveSibling(checkpoint.getFileName() + ".tmp");
+                Files.writeString(next, Long.toString(line));
+                Files.move(next, checkpoint, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException exception) {
+                throw new UncheckedIOException(exception);
+            }
+        }
+    }
+}
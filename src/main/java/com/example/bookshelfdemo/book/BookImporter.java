@@ -0,0 +1,255 @@
+package com.example.bookshelfdemo.book;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+@Slf4j
+@Component
+@Profile("!reactive & !catalogue")
+class BookImporter {
+
+    private static final String MALFORMED_LINE = "Malformed line: ";
+    private static final int PROGRESS_INTERVAL = 100;
+    private static final Future<ParsedChunk> END = CompletableFuture.completedFuture(null);
+
+    private final BookBatchProcessor bookBatchProcessor;
+    private final ObjectMapper objectMapper;
+    private final BookImportProperties properties;
+
+    @Autowired
+    BookImporter(BookBatchProcessor bookBatchProcessor, ObjectMapper objectMapper, BookImportProperties properties) {
+        this.bookBatchProcessor = bookBatchProcessor;
+        this.objectMapper = objectMapper;
+        this.properties = properties;
+    }
+
+    BookImportReport importBooks(InputStream input, BookImportFormat format, long after, BookImportListener listener) {
+        var progress = new Progress(after, listener);
+        var workers = Executors.newFixedThreadPool(properties.getParallelism(), new CustomizableThreadFactory("book-import-"));
+        var chunks = new ArrayBlockingQueue<Future<ParsedChunk>>(properties.getParallelism() * 2);
+        var reading = new AtomicBoolean(true);
+        var reader = new Thread(() -> read(input, format, after, workers, chunks, reading), "book-import-reader");
+        reader.start();
+        try {
+            for (var chunk = chunks.take(); chunk != END; chunk = chunks.take()) {
+                write(chunk.get(), progress);
+            }
+        } catch (ExecutionException exception) {
+            progress.fail(exception.getCause());
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            progress.fail(exception);
+        } catch (RuntimeException exception) {
+            progress.fail(exception);
+        } finally {
+            reading.set(false);
+            chunks.clear();
+            workers.shutdownNow();
+            stop(reader, input);
+        }
+        return progress.report();
+    }
+
+    private void stop(Thread reader, InputStream input) {
+        try {
+            input.close();
+        } catch (IOException exception) {
+            log.warn("Could not close import input", exception);
+        }
+        reader.interrupt();
+        try {
+            reader.join();
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void read(InputStream input, BookImportFormat format, long after, ExecutorService workers,
+                      BlockingQueue<Future<ParsedChunk>> chunks, AtomicBoolean reading) {
+        try (var reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+            var parser = format.parser(reader, objectMapper);
+            long lineNumber = format.getHeaderLines();
+            var lines = new ArrayList<String>(properties.getChunkSize());
+            long firstLine = 0;
+            String line;
+            while (parser != null && reading.get() && (line = format.readRecord(reader)) != null) {
+                if (++lineNumber <= after) {
+                    continue;
+                }
+                if (lines.isEmpty()) {
+                    firstLine = lineNumber;
+                }
+                lines.add(line);
+                if (lines.size() == properties.getChunkSize()) {
+                    var chunk = new RawChunk(firstLine, lines);
+                    put(chunks, workers.submit(() -> parse(chunk, parser)), reading);
+                    lines = new ArrayList<>(properties.getChunkSize());
+                }
+            }
+            if (!lines.isEmpty()) {
+                var chunk = new RawChunk(firstLine, lines);
+                put(chunks, workers.submit(() -> parse(chunk, parser)), reading);
+            }
+            put(chunks, END, reading);
+        } catch (Exception exception) {
+            try {
+                put(chunks, CompletableFuture.failedFuture(exception), reading);
+            } catch (InterruptedException interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void put(BlockingQueue<Future<ParsedChunk>> chunks, Future<ParsedChunk> chunk, AtomicBoolean reading)
+            throws InterruptedException {
+        while (reading.get()) {
+            if (chunks.offer(chunk, 100, TimeUnit.MILLISECONDS)) {
+                return;
+            }
+        }
+    }
+
+    private ParsedChunk parse(RawChunk chunk, BookImportFormat.LineParser parser) {
+        var results = new BookBatchResult[chunk.lines.size()];
+        var indexes = new ArrayList<Integer>();
+        var books = new ArrayList<Book>();
+        for (int i = 0; i < chunk.lines.size(); i++) {
+            var line = chunk.lines.get(i);
+            if (line.isBlank()) {
+                continue;
+            }
+            Book book;
+            try {
+                book = parser.parse(line);
+            } catch (JsonProcessingException exception) {
+                results[i] = BookBatchResult.invalid(i, null, List.of(MALFORMED_LINE + exception.getOriginalMessage()));
+                continue;
+            } catch (Exception exception) {
+                results[i] = BookBatchResult.invalid(i, null, List.of(MALFORMED_LINE + exception.getMessage()));
+                continue;
+            }
+            var errors = bookBatchProcessor.validate(book);
+            if (!errors.isEmpty()) {
+                results[i] = BookBatchResult.invalid(i, book.getId(), errors);
+                continue;
+            }
+            BookBatchProcessor.normalizeForSave(book);
+            indexes.add(i);
+            books.add(book);
+        }
+        return new ParsedChunk(chunk.firstLine, results, indexes, books);
+    }
+
+    private void write(ParsedChunk chunk, Progress progress) {
+        bookBatchProcessor.saveValid(chunk.results, chunk.indexes, chunk.books);
+        progress.committed(chunk);
+    }
+
+    private final class Progress {
+
+        private final long startNanos = System.nanoTime();
+        private final List<BookBatchResult> errors = new ArrayList<>();
+        private final BookImportListener listener;
+        private long lines;
+        private long imported;
+        private long rejected;
+        private long lastCommittedLine;
+        private long chunks;
+        private String failure;
+
+        private Progress(long after, BookImportListener listener) {
+            this.lastCommittedLine = after;
+            this.listener = listener;
+        }
+
+        private void committed(ParsedChunk chunk) {
+            for (int i = 0; i < chunk.results.length; i++) {
+                var result = chunk.results[i];
+                if (result == null) {
+                    continue;
+                }
+                lines++;
+                if (result.getStatus() == HttpStatus.CREATED.value()) {
+                    imported++;
+                    continue;
+                }
+                rejected++;
+                var error = result.withIndex(Math.toIntExact(chunk.firstLine + i));
+                listener.onError(error);
+                if (errors.size() < properties.getMaxReportedErrors()) {
+                    errors.add(error);
+                }
+            }
+            lastCommittedLine = chunk.firstLine + chunk.results.length - 1;
+            listener.onCommit(lastCommittedLine);
+            if (++chunks % PROGRESS_INTERVAL == 0) {
+                log.info("Imported {} of {} lines up to line {}, {} books/s", imported, lines, lastCommittedLine, booksPerSecond());
+            }
+        }
+
+        private void fail(Throwable cause) {
+            log.error("Import failed after line {}", lastCommittedLine, cause);
+            failure = cause.getClass().getSimpleName() + ": " + cause.getMessage();
+        }
+
+        private long booksPerSecond() {
+            var seconds = Math.max(System.nanoTime() - startNanos, 1) / 1e9;
+            return Math.round(imported / seconds);
+        }
+
+        private BookImportReport report() {
+            var durationMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+            return new BookImportReport(failure == null, lines, imported, rejected, lastCommittedLine, durationMillis,
+                    booksPerSecond(), failure, errors);
+        }
+    }
+
+    private static final class RawChunk {
+
+        private final long firstLine;
+        private final List<String> lines;
+
+        private RawChunk(long firstLine, List<String> lines) {
+            this.firstLine = firstLine;
+            this.lines = lines;
+        }
+    }
+
+    private static final class ParsedChunk {
+
+        private final long firstLine;
+        private final BookBatchResult[] results;
+        private final List<Integer> indexes;
+        private final List<Book> books;
+
+        private ParsedChunk(long firstLine, BookBatchResult[] results, List<Integer> indexes, List<Book> books) {
+            this.firstLine = firstLine;
+            this.results = results;
+            this.indexes = indexes;
+            this.books = books;
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.bookshelfdemo.book;
+
+class BookIsbnTakenException extends RuntimeException {
+
+    BookIsbnTakenException(String isbn) {
+        super(String.format("ISBN %s already exists", isbn));
+    }
+}
@@ -0,0 +1,133 @@
+package com.example.bookshelfdemo.book;
+
+import com.example.bookshelfdemo.datasource.ReadYourWrites;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Component
+@Profile("!reactive & !catalogue")
+class BookLoader {
+
+    private final BookRepository bookRepository;
+    private final Cache cache;
+    private final ReadYourWrites readYourWrites;
+    private final BookShelfVersion bookShelfVersion;
+    private final long batchWindow;
+    private final int maxBatchSize;
+    private final Map<Long, CompletableFuture<Optional<Book>>> inFlight = new ConcurrentHashMap<>();
+    private Batch collecting;
+
+    @Autowired
+    BookLoader(BookRepository bookRepository, CacheManager cacheManager, ReadYourWrites readYourWrites,
+               BookShelfVersion bookShelfVersion,
+               @Value("${bookshelf.lookup.batch-window}") Duration batchWindow,
+               @Value("${bookshelf.lookup.max-batch-size}") int maxBatchSize) {
+        this.bookRepository = bookRepository;
+        this.cache = cacheManager.getCache(BookRepository.BOOKS_CACHE);
+        this.readYourWrites = readYourWrites;
+        this.bookShelfVersion = bookShelfVersion;
+        this.batchWindow = batchWindow.toNanos();
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    Optional<Book> findById(Long id) {
+        var cached = cache.get(id, Book.class);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        if (readYourWrites.isPinned()) {
+            return bookRepository.findAllById(List.of(id)).stream().findFirst();
+        }
+        var lookup = new CompletableFuture<Optional<Book>>();
+        var existing = inFlight.putIfAbsent(id, lookup);
+        if (existing != null) {
+            return join(existing);
+        }
+        cached = cache.get(id, Book.class);
+        if (cached != null) {
+            lookup.complete(Optional.of(cached));
+            inFlight.remove(id, lookup);
+            return Optional.of(cached);
+        }
+        var batch = enqueue(id, lookup);
+        if (batch != null) {
+            if (batchWindow > 0) {
+                LockSupport.parkNanos(batchWindow);
+            }
+            close(batch);
+            load(batch);
+        }
+        return join(lookup);
+    }
+
+    private synchronized Batch enqueue(Long id, CompletableFuture<Optional<Book>> lookup) {
+        Batch leading = null;
+        if (collecting == null) {
+            collecting = new Batch();
+            leading = collecting;
+        }
+        collecting.lookups.put(id, lookup);
+        if (collecting.lookups.size() >= maxBatchSize) {
+            collecting = null;
+        }
+        return leading;
+    }
+
+    private synchronized void close(Batch batch) {
+        if (collecting == batch) {
+            collecting = null;
+        }
+    }
+
+    private void load(Batch batch) {
+        try {
+            var changedAt = bookShelfVersion.getChangedAt();
+            var read = readYourWrites.read(() -> bookRepository.findAllById(new ArrayList<>(batch.lookups.keySet())));
+            var found = read.getValue().stream().collect(Collectors.toMap(Book::getId, Function.identity()));
+            if (read.includesChangesUntil(changedAt) && bookShelfVersion.getChangedAt() == changedAt) {
+                found.values().forEach(book -> cache.put(book.getId(), book));
+            }
+            batch.lookups.forEach((id, lookup) -> lookup.complete(Optional.ofNullable(found.get(id))));
+        } catch (RuntimeException | Error exception) {
+            batch.lookups.values().forEach(lookup -> lookup.completeExceptionally(exception));
+        } finally {
+            batch.lookups.forEach(inFlight::remove);
+        }
+    }
+
+    private static Optional<Book> join(CompletableFuture<Optional<Book>> lookup) {
+        try {
+            return lookup.join();
+        } catch (CompletionException exception) {
+            if (exception.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) exception.getCause();
+            }
+            if (exception.getCause() instanceof Error) {
+                throw (Error) exception.getCause();
+            }
+            throw exception;
+        }
+    }
+
+    private static final class Batch {
+
+        private final Map<Long, CompletableFuture<Optional<Book>>> lookups = new LinkedHashMap<>();
+    }
+}
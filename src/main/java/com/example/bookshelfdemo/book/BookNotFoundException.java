@@ -5,4 +5,8 @@ class BookNotFoundException extends RuntimeException {
     BookNotFoundException(Long id) {
         super(String.format("Book with id: %d not found", id));
     }
+
+    BookNotFoundException(String isbn) {
+        super(String.format("Book with isbn: %s not found", isbn));
+    }
 }
@@ -0,0 +1,8 @@
+package com.example.bookshelfdemo.book;
+
+class BookPreconditionFailedException extends RuntimeException {
+
+    BookPreconditionFailedException(Long id) {
+        super(String.format("Book with id: %d has been modified", id));
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.bookshelfdemo.book;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.time.Instant;
+
+@Getter
+@AllArgsConstructor
+final class BookRecord {
+
+    private final long id;
+    private final long version;
+    private final long lastModified;
+    private final String isbn;
+    private final String title;
+    private final String author;
+    private final int numberOfPages;
+    private final byte rating;
+
+    static BookRecord of(long id, long version, Book book, String author) {
+        return new BookRecord(id, version, System.currentTimeMillis(), book.getIsbn(), book.getTitle(), author,
+                book.getNumberOfPages(), book.getRating().byteValue());
+    }
+
+    static BookRecord readFrom(DataInput input) throws IOException {
+        return new BookRecord(input.readLong(), input.readLong(), input.readLong(), input.readUTF(), input.readUTF(),
+                input.readUTF(), input.readInt(), input.readByte());
+    }
+
+    void writeTo(DataOutput output) throws IOException {
+        output.writeLong(id);
+        output.writeLong(version);
+        output.writeLong(lastModified);
+        output.writeUTF(isbn);
+        output.writeUTF(title);
+        output.writeUTF(author);
+        output.writeInt(numberOfPages);
+        output.writeByte(rating);
+    }
+
+    BookRecord withAuthor(String author) {
+        return new BookRecord(id, version, lastModified, isbn, title, author, numberOfPages, rating);
+    }
+
+    Object get(String field) {
+        switch (field) {
+            case "id":
+                return id;
+            case "isbn":
+                return isbn;
+            case "title":
+                return title;
+            case "author":
+                return author;
+            case "numberOfPages":
+                return numberOfPages;
+            case "rating":
+                return (int) rating;
+            case BookFieldsRepository.VERSION:
+                return version;
+            case BookFieldsRepository.LAST_MODIFIED:
+                return Instant.ofEpochMilli(lastModified);
+            default:
+                throw new IllegalArgumentException("Unknown book field " + field);
+        }
+    }
+
+    BookVersion toVersion() {
+        return new BookVersion(version, Instant.ofEpochMilli(lastModified));
+    }
+
+    Book toBook() {
+        var book = new Book(id, isbn, title, author, numberOfPages, (int) rating);
+        book.setVersion(version);
+        book.setLastModified(Instant.ofEpochMilli(lastModified));
+        return book;
+    }
+}
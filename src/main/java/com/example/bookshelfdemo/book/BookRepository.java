@@ -1,7 +1,111 @@
 package com.example.bookshelfdemo.book;
 
-import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.PagingAndSortingRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
-public interface BookRepository extends JpaRepository<Book, Long> {
+import javax.persistence.QueryHint;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
+
+public interface BookRepository extends PagingAndSortingRepository<Book, Long>, BookBatchRepository, BookFieldsRepository {
+
+    String BOOKS_CACHE = "books";
+
+    @Override
+    List<Book> findAll();
+
+    @Override
+    List<Book> findAllById(Iterable<Long> ids);
+
+    @Override
+    <S extends Book> List<S> saveAll(Iterable<S> books);
+
+    <S extends Book> S saveAndFlush(S book);
+
+    void deleteAllInBatch();
+
+    @Override
+    @Cacheable(cacheNames = BOOKS_CACHE, unless = "#result == null")
+    Optional<Book> findById(Long id);
+
+    @Override
+    @CachePut(cacheNames = BOOKS_CACHE, key = "#result.id")
+    <S extends Book> S save(S book);
+
+    @Override
+    @CacheEvict(cacheNames = BOOKS_CACHE, key = "#p0")
+    void deleteById(Long id);
+
+    @Override
+    @CacheEvict(cacheNames = BOOKS_CACHE, key = "#p0.id")
+    void delete(Book book);
+
+    @Modifying
+    @Transactional
+    @CacheEvict(cacheNames = BOOKS_CACHE, key = "#p0")
+    @Query("update Book b set b.isbn = :#{#book.isbn}, b.title = :#{#book.title}, b.author = :#{#book.author}, " +
+            "b.numberOfPages = :#{#book.numberOfPages}, b.rating = :#{#book.rating}, b.version = b.version + 1, " +
+            "b.lastModified = :#{#book.lastModified ?: T(java.time.Instant).now()} where b.id = :id")
+    int updateById(@Param("id") Long id, @Param("book") Book book);
+
+    @Modifying
+    @Transactional
+    @CacheEvict(cacheNames = BOOKS_CACHE, key = "#p0")
+    @Query("update Book b set b.isbn = :#{#book.isbn}, b.title = :#{#book.title}, b.author = :#{#book.author}, " +
+            "b.numberOfPages = :#{#book.numberOfPages}, b.rating = :#{#book.rating}, b.version = b.version + 1, " +
+            "b.lastModified = :#{#book.lastModified ?: T(java.time.Instant).now()} where b.id = :id and b.version = :version")
+    int updateByIdAndVersion(@Param("id") Long id, @Param("version") Long version, @Param("book") Book book);
+
+    @Modifying
+    @Transactional
+    @CacheEvict(cacheNames = BOOKS_CACHE, key = "#p0")
+    @Query("delete from Book b where b.id = :id")
+    int removeById(@Param("id") Long id);
+
+    @Modifying
+    @Transactional
+    @CacheEvict(cacheNames = BOOKS_CACHE, key = "#p0")
+    @Query("delete from Book b where b.id = :id and b.version = :version")
+    int removeByIdAndVersion(@Param("id") Long id, @Param("version") Long version);
+
+    @Query("select new com.example.bookshelfdemo.book.BookVersion(b.version, b.lastModified) from Book b where b.id = :id")
+    Optional<BookVersion> findVersionById(@Param("id") Long id);
+
+    Optional<Book> findByIsbn(String isbn);
+
+    @Query("select b.isbn from Book b where b.isbn in :isbns")
+    Set<String> findExistingIsbns(@Param("isbns") Collection<String> isbns);
+
+    List<Book> findByIsbnIn(Collection<String> isbns);
+
+    @Transactional(readOnly = true)
+    List<Book> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+
+    @Transactional(readOnly = true)
+    List<Book> findByAuthorAndIdGreaterThanOrderByIdAsc(String author, Long id, Pageable pageable);
+
+    @Transactional(readOnly = true)
+    List<Book> findByRatingGreaterThanEqualAndIdGreaterThanOrderByIdAsc(Integer rating, Long id, Pageable pageable);
+
+    @Transactional(readOnly = true)
+    List<Book> findByAuthorAndRatingGreaterThanEqualAndIdGreaterThanOrderByIdAsc(String author, Integer rating, Long id, Pageable pageable);
+
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "500"), @QueryHint(name = HINT_READONLY, value = "true")})
+    @Query("select b from Book b order by b.id")
+    Stream<Book> streamAll();
 
 }
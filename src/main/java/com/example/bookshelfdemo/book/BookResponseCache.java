@@ -0,0 +1,149 @@
+package com.example.bookshelfdemo.book;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Locale;
+import java.util.zip.GZIPOutputStream;
+
+@Component
+@Profile("!reactive & !catalogue")
+class BookResponseCache {
+
+    private static final String CACHE_NAME = "books.responses";
+    private static final String RESPONSE_DESCRIPTION = "cached books response";
+    private static final String GZIP = "gzip";
+    private static final List<MediaType> BINARY_FORMATS = List.of(
+            MediaType.valueOf(BookWireFormatConfiguration.APPLICATION_SMILE_VALUE),
+            MediaType.valueOf(BookWireFormatConfiguration.APPLICATION_CBOR_VALUE));
+    private static final String VARY = HttpHeaders.ACCEPT + ", " + HttpHeaders.ACCEPT_ENCODING;
+
+    private final Cache<Key, Entry> entries;
+    private final ObjectMapper objectMapper;
+
+    @Autowired
+    BookResponseCache(ObjectMapper objectMapper, MeterRegistry meterRegistry,
+                      @Value("${bookshelf.response-cache.max-size}") DataSize maxSize) {
+        this.objectMapper = objectMapper;
+        this.entries = Caffeine.newBuilder()
+                .maximumWeight(maxSize.toBytes())
+                .<Key, Entry>weigher((key, entry) -> entry.identity.capacity() + entry.gzipped.capacity())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, entries, CACHE_NAME, "cacheManager", "bookResponseCache", "name", CACHE_NAME);
+    }
+
+    static boolean isCacheable(HttpHeaders request) {
+        var accept = request.getAccept();
+        if (accept.isEmpty()) {
+            return true;
+        }
+        MediaType.sortBySpecificityAndQuality(accept);
+        for (var mediaType : accept) {
+            if (mediaType.includes(MediaType.APPLICATION_JSON)) {
+                return true;
+            }
+            if (BINARY_FORMATS.stream().anyMatch(mediaType::isCompatibleWith)) {
+                return false;
+            }
+        }
+        return false;
+    }
+
+    static HttpHeaders vary() {
+        var headers = new HttpHeaders();
+        headers.set(HttpHeaders.VARY, VARY);
+        return headers;
+    }
+
+    ResponseEntity<?> get(Key key, String shelfETag, HttpHeaders request) {
+        var entry = entries.getIfPresent(key);
+        if (entry == null || !entry.shelfETag.equals(shelfETag)) {
+            return null;
+        }
+        return entry.toResponse(request);
+    }
+
+    ResponseEntity<?> put(Key key, String shelfETag, String link, Object body, HttpHeaders request) throws IOException {
+        var identity = objectMapper.writeValueAsBytes(body);
+        var gzipped = new ByteArrayOutputStream(identity.length / 4 + 64);
+        try (var gzip = new GZIPOutputStream(gzipped)) {
+            gzip.write(identity);
+        }
+        var entry = new Entry(shelfETag, link, direct(identity), direct(gzipped.toByteArray()));
+        entries.put(key, entry);
+        return entry.toResponse(request);
+    }
+
+    private static ByteBuffer direct(byte[] bytes) {
+        return ByteBuffer.allocateDirect(bytes.length).put(bytes).flip().asReadOnlyBuffer();
+    }
+
+    private static boolean acceptsGzip(HttpHeaders request) {
+        for (var value : request.getValuesAsList(HttpHeaders.ACCEPT_ENCODING)) {
+            var parts = value.toLowerCase(Locale.ROOT).split(";");
+            if (parts[0].trim().equals(GZIP) && !(parts.length > 1 && parts[1].replace(" ", "").matches("q=0(\\.0*)?"))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @AllArgsConstructor
+    @EqualsAndHashCode
+    static class Key {
+
+        private final String author;
+        private final Integer minRating;
+        private final Long after;
+        private final int limit;
+        private final String fields;
+    }
+
+    private static class Entry {
+
+        private final String shelfETag;
+        private final String link;
+        private final ByteBuffer identity;
+        private final ByteBuffer gzipped;
+
+        private Entry(String shelfETag, String link, ByteBuffer identity, ByteBuffer gzipped) {
+            this.shelfETag = shelfETag;
+            this.link = link;
+            this.identity = identity;
+            this.gzipped = gzipped;
+        }
+
+        private ResponseEntity<Resource> toResponse(HttpHeaders request) {
+            var response = ResponseEntity.ok()
+                    .headers(vary())
+                    .contentType(MediaType.APPLICATION_JSON_UTF8)
+                    .eTag(shelfETag);
+            if (link != null) {
+                response.header(HttpHeaders.LINK, link);
+            }
+            if (acceptsGzip(request)) {
+                return response.header(HttpHeaders.CONTENT_ENCODING, GZIP).body(new ByteBufferResource(gzipped, RESPONSE_DESCRIPTION));
+            }
+            return response.body(new ByteBufferResource(identity, RESPONSE_DESCRIPTION));
+        }
+    }
+}
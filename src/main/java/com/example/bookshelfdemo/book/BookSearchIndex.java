@@ -0,0 +1,203 @@
+package com.example.bookshelfdemo.book;
+
+import com.example.bookshelfdemo.datasource.ReadYourWrites;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+@Component
+@Profile("!reactive & !catalogue")
+class BookSearchIndex {
+
+    private static final int TITLE_WEIGHT = 2;
+    private static final int AUTHOR_WEIGHT = 1;
+
+    private final BookRepository bookRepository;
+    private final EntityManager entityManager;
+
+    private final ReadWriteLock swapLock = new ReentrantReadWriteLock();
+
+    private volatile Index index = new Index();
+    private Queue<Consumer<Index>> changesDuringRebuild;
+
+    @Autowired
+    BookSearchIndex(BookRepository bookRepository, EntityManager entityManager) {
+        this.bookRepository = bookRepository;
+        this.entityManager = entityManager;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public synchronized void rebuild() {
+        var rebuilt = new Index();
+        var changes = new ConcurrentLinkedQueue<Consumer<Index>>();
+        swap(() -> changesDuringRebuild = changes);
+        try (var books = ReadYourWrites.fromPrimary(bookRepository::streamAll)) {
+            books.forEach(book -> {
+                rebuilt.index(book);
+                entityManager.detach(book);
+            });
+        } catch (RuntimeException exception) {
+            swap(() -> changesDuringRebuild = null);
+            throw exception;
+        }
+        replay(changes, rebuilt);
+        swap(() -> {
+            replay(changes, rebuilt);
+            index = rebuilt;
+            changesDuringRebuild = null;
+        });
+    }
+
+    void index(Book book) {
+        apply(target -> target.index(book));
+    }
+
+    void remove(Long id) {
+        apply(target -> target.remove(id));
+    }
+
+    List<Long> search(String query, int offset, int limit) {
+        return index.search(query, offset, limit);
+    }
+
+    private void apply(Consumer<Index> change) {
+        swapLock.readLock().lock();
+        try {
+            change.accept(index);
+            if (changesDuringRebuild != null) {
+                changesDuringRebuild.add(change);
+            }
+        } finally {
+            swapLock.readLock().unlock();
+        }
+    }
+
+    private void swap(Runnable swap) {
+        swapLock.writeLock().lock();
+        try {
+            swap.run();
+        } finally {
+            swapLock.writeLock().unlock();
+        }
+    }
+
+    private static void replay(Queue<Consumer<Index>> changes, Index index) {
+        for (var change = changes.poll(); change != null; change = changes.poll()) {
+            change.accept(index);
+        }
+    }
+
+    static List<String> tokenize(String text) {
+        var terms = new ArrayList<String>();
+        if (text == null) {
+            return terms;
+        }
+        var lowerCase = text.toLowerCase(Locale.ROOT);
+        int start = -1;
+        for (int i = 0; i <= lowerCase.length(); i++) {
+            var letterOrDigit = i < lowerCase.length() && Character.isLetterOrDigit(lowerCase.charAt(i));
+            if (letterOrDigit && start < 0) {
+                start = i;
+            } else if (!letterOrDigit && start >= 0) {
+                terms.add(lowerCase.substring(start, i));
+                start = -1;
+            }
+        }
+        return terms;
+    }
+
+    private static class Index {
+
+        private final Map<String, Map<Long, Integer>> postings = new ConcurrentHashMap<>();
+        private final Map<Long, Set<String>> documents = new ConcurrentHashMap<>();
+
+        private void index(Book book) {
+            var weights = new HashMap<String, Integer>();
+            tokenize(book.getTitle()).forEach(term -> weights.merge(term, TITLE_WEIGHT, Integer::sum));
+            tokenize(book.getAuthor()).forEach(term -> weights.merge(term, AUTHOR_WEIGHT, Integer::sum));
+            documents.compute(book.getId(), (id, previousTerms) -> {
+                if (previousTerms != null) {
+                    removePostings(id, previousTerms);
+                }
+                weights.forEach((term, weight) -> postings.compute(term, (t, matches) -> {
+                    var termMatches = matches != null ? matches : new ConcurrentHashMap<Long, Integer>();
+                    termMatches.put(id, weight);
+                    return termMatches;
+                }));
+                return Set.copyOf(weights.keySet());
+            });
+        }
+
+        private void remove(Long id) {
+            documents.computeIfPresent(id, (documentId, terms) -> {
+                removePostings(documentId, terms);
+                return null;
+            });
+        }
+
+        private List<Long> search(String query, int offset, int limit) {
+            var scores = new HashMap<Long, Double>();
+            var documentCount = Math.max(documents.size(), 1);
+            for (var term : new LinkedHashSet<>(tokenize(query))) {
+                var matches = postings.get(term);
+                if (matches == null || matches.isEmpty()) {
+                    continue;
+                }
+                var idf = Math.log(1 + (double) documentCount / matches.size());
+                matches.forEach((id, weight) -> scores.merge(id, idf * weight, Double::sum));
+            }
+            return top(scores, offset, limit);
+        }
+
+        private void removePostings(Long id, Set<String> terms) {
+            for (var term : terms) {
+                postings.computeIfPresent(term, (t, matches) -> {
+                    matches.remove(id);
+                    return matches.isEmpty() ? null : matches;
+                });
+            }
+        }
+
+        private static List<Long> top(Map<Long, Double> scores, int offset, int limit) {
+            Comparator<Map.Entry<Long, Double>> ranking = Map.Entry.<Long, Double>comparingByValue()
+                    .reversed()
+                    .thenComparing(Map.Entry.comparingByKey());
+            var size = offset + limit;
+            var best = new PriorityQueue<Map.Entry<Long, Double>>(size, ranking.reversed());
+            for (var score : scores.entrySet()) {
+                best.offer(score);
+                if (best.size() > size) {
+                    best.poll();
+                }
+            }
+            var ranked = new ArrayList<Map.Entry<Long, Double>>(best);
+            ranked.sort(ranking);
+            var ids = new ArrayList<Long>();
+            for (int i = offset; i < ranked.size(); i++) {
+                ids.add(ranked.get(i).getKey());
+            }
+            return ids;
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.bookshelfdemo.book;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+@Component
+@Profile("!reactive & !catalogue")
+class BookShelfVersion {
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), Character.MAX_RADIX);
+    private final AtomicLong changes = new AtomicLong();
+    private volatile long changedAt = System.currentTimeMillis();
+
+    String getETag() {
+        return "W/\"" + epoch + "-" + changes.get() + "\"";
+    }
+
+    long getChangedAt() {
+        return changedAt;
+    }
+
+    void changed() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            increment();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+            @Override
+            public void afterCompletion(int status) {
+                increment();
+            }
+        });
+    }
+
+    private void increment() {
+        changedAt = System.currentTimeMillis();
+        changes.incrementAndGet();
+    }
+}
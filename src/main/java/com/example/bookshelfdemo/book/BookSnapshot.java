@@ -0,0 +1,286 @@
+package com.example.bookshelfdemo.book;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.function.IntBinaryOperator;
+import java.util.stream.Stream;
+
+final class BookSnapshot {
+
+    private static final int MAGIC = 0x424b534e;
+    private static final int FORMAT_VERSION = 1;
+    private static final int HEADER_SIZE = 32;
+    private static final int RECORD_SIZE = 64;
+    private static final int ID = 0;
+    private static final int VERSION = 8;
+    private static final int LAST_MODIFIED = 16;
+    private static final int NUMBER_OF_PAGES = 24;
+    private static final int RATING = 28;
+    private static final int ISBN = 32;
+    private static final int TITLE = 40;
+    private static final int AUTHOR = 48;
+    private static final int JSON = 56;
+    private static final long NO_LAST_MODIFIED = -1;
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final ByteBuffer buffer;
+    private final int size;
+    private final int isbnIndex;
+    private final int heap;
+    private final Instant createdAt;
+
+    private BookSnapshot(ByteBuffer buffer, int size, int isbnIndex, int heap, Instant createdAt) {
+        this.buffer = buffer;
+        this.size = size;
+        this.isbnIndex = isbnIndex;
+        this.heap = heap;
+        this.createdAt = createdAt;
+    }
+
+    static BookSnapshot open(Path file) throws IOException {
+        try (var channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            var length = channel.size();
+            if (length < HEADER_SIZE || length > Integer.MAX_VALUE) {
+                throw new IOException("Not a book snapshot: " + file);
+            }
+            var buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, length);
+            if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != FORMAT_VERSION) {
+                throw new IOException("Not a book snapshot: " + file);
+            }
+            var size = buffer.getInt(8);
+            var isbnIndex = buffer.getInt(12);
+            var heap = buffer.getInt(16);
+            if (isbnIndex != HEADER_SIZE + size * RECORD_SIZE || heap != isbnIndex + size * Integer.BYTES
+                    || (long) heap + buffer.getInt(20) != length) {
+                throw new IOException("Truncated book snapshot: " + file);
+            }
+            return new BookSnapshot(buffer, size, isbnIndex, heap, Instant.ofEpochMilli(buffer.getLong(24)));
+        }
+    }
+
+    static int write(Stream<Book> books, ObjectMapper objectMapper, Path file) throws IOException {
+        var partial = file.resolveSibling(file.getFileName() + ".partial");
+        var heapFile = file.resolveSibling(file.getFileName() + ".heap");
+        int size;
+        try {
+            size = writePartial(books, objectMapper, partial, heapFile);
+            Files.move(partial, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(heapFile);
+            Files.deleteIfExists(partial);
+        }
+        return size;
+    }
+
+    int size() {
+        return size;
+    }
+
+    Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    int indexOf(long id) {
+        var low = 0;
+        var high = size - 1;
+        while (low <= high) {
+            var middle = (low + high) >>> 1;
+            var middleId = buffer.getLong(record(middle) + ID);
+            if (middleId < id) {
+                low = middle + 1;
+            } else if (middleId > id) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -1;
+    }
+
+    int indexOfIsbn(CharSequence isbn) {
+        var low = 0;
+        var high = size - 1;
+        while (low <= high) {
+            var middle = (low + high) >>> 1;
+            var index = buffer.getInt(isbnIndex + middle * Integer.BYTES);
+            var comparison = compare(record(index) + ISBN, isbn);
+            if (comparison < 0) {
+                low = middle + 1;
+            } else if (comparison > 0) {
+                high = middle - 1;
+            } else {
+                return index;
+            }
+        }
+        return -1;
+    }
+
+    BookVersion getVersion(int index) {
+        var lastModified = buffer.getLong(record(index) + LAST_MODIFIED);
+        return new BookVersion(buffer.getLong(record(index) + VERSION),
+                lastModified != NO_LAST_MODIFIED ? Instant.ofEpochMilli(lastModified) : null);
+    }
+
+    ByteBuffer getJson(int index) {
+        return slice(record(index) + JSON);
+    }
+
+    Book getBook(int index) {
+        var record = record(index);
+        var book = new Book(buffer.getLong(record + ID), getString(record + ISBN), getString(record + TITLE),
+                getString(record + AUTHOR), buffer.getInt(record + NUMBER_OF_PAGES), buffer.getInt(record + RATING));
+        var version = getVersion(index);
+        book.setVersion(version.getVersion());
+        book.setLastModified(version.getLastModified());
+        return book;
+    }
+
+    private static int writePartial(Stream<Book> books, ObjectMapper objectMapper, Path partial, Path heapFile) throws IOException {
+        try (var channel = FileChannel.open(partial, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+             var heapChannel = FileChannel.open(heapFile, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                     StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            channel.position(HEADER_SIZE);
+            var recordOutput = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel), BUFFER_SIZE));
+            var heap = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(heapChannel), BUFFER_SIZE));
+            var isbnOffsets = new int[INITIAL_CAPACITY];
+            var isbnLengths = new int[INITIAL_CAPACITY];
+            var size = 0;
+            var previousId = Long.MIN_VALUE;
+            for (var iterator = books.iterator(); iterator.hasNext(); size++) {
+                var book = iterator.next();
+                if (book.getId() <= previousId) {
+                    throw new IllegalArgumentException("Books must be ordered by id, " + book.getId() + " follows " + previousId);
+                }
+                previousId = book.getId();
+                if (size == isbnOffsets.length) {
+                    isbnOffsets = Arrays.copyOf(isbnOffsets, size * 2);
+                    isbnLengths = Arrays.copyOf(isbnLengths, size * 2);
+                }
+                var isbn = book.getIsbn().getBytes(StandardCharsets.UTF_8);
+                isbnOffsets[size] = heap.size();
+                isbnLengths[size] = isbn.length;
+                recordOutput.writeLong(book.getId());
+                recordOutput.writeLong(book.getVersion());
+                recordOutput.writeLong(book.getLastModified() != null ? book.getLastModified().toEpochMilli() : NO_LAST_MODIFIED);
+                recordOutput.writeInt(book.getNumberOfPages());
+                recordOutput.writeInt(book.getRating());
+                writeString(recordOutput, heap, isbn);
+                writeString(recordOutput, heap, book.getTitle().getBytes(StandardCharsets.UTF_8));
+                writeString(recordOutput, heap, book.getAuthor().getBytes(StandardCharsets.UTF_8));
+                writeString(recordOutput, heap, objectMapper.writeValueAsBytes(book));
+            }
+            heap.flush();
+            var isbnIndex = HEADER_SIZE + (long) size * RECORD_SIZE;
+            var heapOffset = isbnIndex + (long) size * Integer.BYTES;
+            var heapSize = heapChannel.size();
+            if (heapOffset + heapSize > Integer.MAX_VALUE) {
+                throw new IOException("Book snapshot of " + size + " books exceeds 2 GB");
+            }
+            var heapBuffer = heapChannel.map(FileChannel.MapMode.READ_ONLY, 0, heapSize);
+            var offsets = isbnOffsets;
+            var lengths = isbnLengths;
+            var index = new int[size];
+            Arrays.setAll(index, i -> i);
+            sort(index, (left, right) -> compare(heapBuffer, offsets[left], lengths[left], offsets[right], lengths[right]));
+            for (var record : index) {
+                recordOutput.writeInt(record);
+            }
+            recordOutput.flush();
+            for (long transferred = 0; transferred < heapSize; ) {
+                transferred += heapChannel.transferTo(transferred, heapSize - transferred, channel);
+            }
+            var header = ByteBuffer.allocate(HEADER_SIZE)
+                    .putInt(MAGIC)
+                    .putInt(FORMAT_VERSION)
+                    .putInt(size)
+                    .putInt((int) isbnIndex)
+                    .putInt((int) heapOffset)
+                    .putInt((int) heapSize)
+                    .putLong(System.currentTimeMillis())
+                    .flip();
+            while (header.hasRemaining()) {
+                channel.write(header, header.position());
+            }
+            channel.force(true);
+            return size;
+        }
+    }
+
+    private static void writeString(DataOutputStream record, DataOutputStream heap, byte[] value) throws IOException {
+        record.writeInt(heap.size());
+        record.writeInt(value.length);
+        heap.write(value);
+    }
+
+    private static int compare(ByteBuffer heap, int leftOffset, int leftLength, int rightOffset, int rightLength) {
+        var common = Math.min(leftLength, rightLength);
+        for (int i = 0; i < common; i++) {
+            var difference = (heap.get(leftOffset + i) & 0xff) - (heap.get(rightOffset + i) & 0xff);
+            if (difference != 0) {
+                return difference;
+            }
+        }
+        return leftLength - rightLength;
+    }
+
+    private static void sort(int[] values, IntBinaryOperator comparator) {
+        var buffer = new int[values.length];
+        for (int width = 1; width < values.length; width *= 2) {
+            for (int low = 0; low < values.length - width; low += 2 * width) {
+                var middle = low + width;
+                var high = Math.min(low + 2 * width, values.length);
+                System.arraycopy(values, low, buffer, low, high - low);
+                for (int i = low, left = low, right = middle; i < high; i++) {
+                    values[i] = right >= high || left < middle && comparator.applyAsInt(buffer[left], buffer[right]) <= 0
+                            ? buffer[left++]
+                            : buffer[right++];
+                }
+            }
+        }
+    }
+
+    private static int record(int index) {
+        return HEADER_SIZE + index * RECORD_SIZE;
+    }
+
+    private int compare(int reference, CharSequence value) {
+        var offset = heap + buffer.getInt(reference);
+        var length = buffer.getInt(reference + Integer.BYTES);
+        var common = Math.min(length, value.length());
+        for (int i = 0; i < common; i++) {
+            var difference = (buffer.get(offset + i) & 0xff) - value.charAt(i);
+            if (difference != 0) {
+                return difference;
+            }
+        }
+        return length - value.length();
+    }
+
+    private ByteBuffer slice(int reference) {
+        var offset = heap + buffer.getInt(reference);
+        return buffer.duplicate()
+                .position(offset)
+                .limit(offset + buffer.getInt(reference + Integer.BYTES))
+                .slice();
+    }
+
+    private String getString(int reference) {
+        var value = slice(reference);
+        return StandardCharsets.UTF_8.decode(value).toString();
+    }
+}
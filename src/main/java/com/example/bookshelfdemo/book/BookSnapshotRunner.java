@@ -0,0 +1,49 @@
+package com.example.bookshelfdemo.book;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+@Slf4j
+@Component
+@Profile("!reactive & !catalogue")
+@ConditionalOnProperty("bookshelf.snapshot.file")
+class BookSnapshotRunner implements ApplicationRunner {
+
+    private final BookRepository bookRepository;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+    private final String file;
+
+    @Autowired
+    BookSnapshotRunner(BookRepository bookRepository, EntityManager entityManager, ObjectMapper objectMapper,
+                       @Value("${bookshelf.snapshot.file}") String file) {
+        this.bookRepository = bookRepository;
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
+        this.file = file;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void run(ApplicationArguments args) throws IOException {
+        var path = Paths.get(file);
+        int written;
+        try (var books = bookRepository.streamAll()) {
+            written = BookSnapshot.write(books.peek(entityManager::detach), objectMapper, path);
+        }
+        log.info("Snapshot of {} books written to {}, {} bytes", written, path, Files.size(path));
+    }
+}
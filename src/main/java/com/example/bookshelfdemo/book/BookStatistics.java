@@ -0,0 +1,228 @@
+package com.example.bookshelfdemo.book;
+
+import com.example.bookshelfdemo.datasource.ReadYourWrites;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+@Component
+@Profile("!reactive & !catalogue")
+class BookStatistics {
+
+    private static final int MIN_RATING = 1;
+    private static final int MAX_RATING = 5;
+
+    private final BookRepository bookRepository;
+    private final EntityManager entityManager;
+    private final int topAuthors;
+
+    private final ReadWriteLock swapLock = new ReentrantReadWriteLock();
+
+    private volatile Aggregates aggregates = new Aggregates();
+    private volatile Snapshot snapshot;
+    private Queue<Consumer<Aggregates>> changesDuringRebuild;
+
+    @Autowired
+    BookStatistics(BookRepository bookRepository, EntityManager entityManager,
+                   @Value("${bookshelf.stats.top-authors}") int topAuthors) {
+        this.bookRepository = bookRepository;
+        this.entityManager = entityManager;
+        this.topAuthors = topAuthors;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${bookshelf.stats.reconcile-interval}",
+            fixedDelayString = "${bookshelf.stats.reconcile-interval}")
+    @Transactional(readOnly = true)
+    public synchronized void rebuild() {
+        var rebuilt = new Aggregates();
+        var changes = new ConcurrentLinkedQueue<Consumer<Aggregates>>();
+        swap(() -> changesDuringRebuild = changes);
+        try (var books = ReadYourWrites.fromPrimary(bookRepository::streamAll)) {
+            books.forEach(book -> {
+                rebuilt.index(book);
+                entityManager.detach(book);
+            });
+        } catch (RuntimeException exception) {
+            swap(() -> changesDuringRebuild = null);
+            throw exception;
+        }
+        replay(changes, rebuilt);
+        swap(() -> {
+            replay(changes, rebuilt);
+            aggregates = rebuilt;
+            changesDuringRebuild = null;
+        });
+    }
+
+    void index(Book book) {
+        apply(target -> target.index(book));
+    }
+
+    void remove(Long id) {
+        apply(target -> target.remove(id));
+    }
+
+    private void apply(Consumer<Aggregates> change) {
+        swapLock.readLock().lock();
+        try {
+            change.accept(aggregates);
+            if (changesDuringRebuild != null) {
+                changesDuringRebuild.add(change);
+            }
+        } finally {
+            swapLock.readLock().unlock();
+        }
+    }
+
+    private void swap(Runnable swap) {
+        swapLock.writeLock().lock();
+        try {
+            swap.run();
+        } finally {
+            swapLock.writeLock().unlock();
+        }
+    }
+
+    private static void replay(Queue<Consumer<Aggregates>> changes, Aggregates aggregates) {
+        for (var change = changes.poll(); change != null; change = changes.poll()) {
+            change.accept(aggregates);
+        }
+    }
+
+    BookStats stats() {
+        var current = aggregates;
+        var changes = current.changes.get();
+        var cached = snapshot;
+        if (cached != null && cached.aggregates == current && cached.changes == changes) {
+            return cached.stats;
+        }
+        var stats = current.stats(topAuthors);
+        snapshot = new Snapshot(current, changes, stats);
+        return stats;
+    }
+
+    private static class Aggregates {
+
+        private final Map<Long, Contribution> contributions = new ConcurrentHashMap<>();
+        private final Map<String, LongAdder> authors = new ConcurrentHashMap<>();
+        private final LongAdder[] ratings = new LongAdder[MAX_RATING + 1];
+        private final LongAdder totalPages = new LongAdder();
+        private final LongAdder totalRating = new LongAdder();
+        private final AtomicLong changes = new AtomicLong();
+
+        private Aggregates() {
+            for (int rating = MIN_RATING; rating <= MAX_RATING; rating++) {
+                ratings[rating] = new LongAdder();
+            }
+        }
+
+        private void index(Book book) {
+            var next = new Contribution(book.getAuthor(), book.getNumberOfPages(), book.getRating());
+            contributions.compute(book.getId(), (id, previous) -> {
+                if (previous != null) {
+                    apply(previous, -1);
+                }
+                apply(next, 1);
+                return next;
+            });
+            changes.incrementAndGet();
+        }
+
+        private void remove(Long id) {
+            contributions.computeIfPresent(id, (bookId, previous) -> {
+                apply(previous, -1);
+                return null;
+            });
+            changes.incrementAndGet();
+        }
+
+        private void apply(Contribution contribution, int sign) {
+            totalPages.add(sign * contribution.pages);
+            totalRating.add(sign * contribution.rating);
+            ratings[contribution.rating].add(sign);
+            authors.computeIfAbsent(contribution.author, author -> new LongAdder()).add(sign);
+        }
+
+        private BookStats stats(int limit) {
+            var books = contributions.size();
+            var pages = totalPages.sum();
+            var histogram = new LinkedHashMap<Integer, Long>();
+            for (int rating = MIN_RATING; rating <= MAX_RATING; rating++) {
+                histogram.put(rating, ratings[rating].sum());
+            }
+            return new BookStats(books, pages, average(pages, books), average(totalRating.sum(), books), histogram,
+                    top(limit));
+        }
+
+        private List<BookStats.AuthorCount> top(int limit) {
+            Comparator<BookStats.AuthorCount> ranking = Comparator.comparingLong(BookStats.AuthorCount::getBooks)
+                    .reversed()
+                    .thenComparing(BookStats.AuthorCount::getAuthor);
+            var best = new PriorityQueue<BookStats.AuthorCount>(limit + 1, ranking.reversed());
+            authors.forEach((author, count) -> {
+                var books = count.sum();
+                if (books > 0) {
+                    best.offer(new BookStats.AuthorCount(author, books));
+                    if (best.size() > limit) {
+                        best.poll();
+                    }
+                }
+            });
+            var ranked = new ArrayList<>(best);
+            ranked.sort(ranking);
+            return ranked;
+        }
+
+        private static double average(long total, long count) {
+            return count == 0 ? 0 : (double) total / count;
+        }
+    }
+
+    private static class Contribution {
+
+        private final String author;
+        private final int pages;
+        private final int rating;
+
+        private Contribution(String author, int pages, int rating) {
+            this.author = author;
+            this.pages = pages;
+            this.rating = rating;
+        }
+    }
+
+    private static class Snapshot {
+
+        private final Aggregates aggregates;
+        private final long changes;
+        private final BookStats stats;
+
+        private Snapshot(Aggregates aggregates, long changes, BookStats stats) {
+            this.aggregates = aggregates;
+            this.changes = changes;
+            this.stats = stats;
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.bookshelfdemo.book;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+import java.util.Map;
+
+@Getter
+@AllArgsConstructor
+public class BookStats {
+
+    private final long books;
+    private final long totalPages;
+    private final double averagePages;
+    private final double averageRating;
+    private final Map<Integer, Long> ratings;
+    private final List<AuthorCount> topAuthors;
+
+    @Getter
+    @AllArgsConstructor
+    public static class AuthorCount {
+
+        private final String author;
+        private final long books;
+    }
+}
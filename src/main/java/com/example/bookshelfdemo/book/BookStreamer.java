@@ -0,0 +1,50 @@
+package com.example.bookshelfdemo.book;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.io.IOException;
+import java.io.OutputStream;
+
+@Component
+@Profile("!reactive & !catalogue")
+class BookStreamer {
+
+    static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+
+    private final BookRepository bookRepository;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+    private final ObjectWriter bookWriter;
+
+    @Autowired
+    BookStreamer(BookRepository bookRepository, EntityManager entityManager, ObjectMapper objectMapper) {
+        this.bookRepository = bookRepository;
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
+        this.bookWriter = objectMapper.writerFor(Book.class).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    @Transactional(readOnly = true)
+    public void writeAll(OutputStream outputStream) throws IOException {
+        var generator = objectMapper.getFactory().createGenerator(outputStream);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        generator.setRootValueSeparator(null);
+        try (generator; var books = bookRepository.streamAll()) {
+            for (var iterator = books.iterator(); iterator.hasNext(); ) {
+                var book = iterator.next();
+                bookWriter.writeValue(generator, book);
+                generator.writeRaw('\n');
+                entityManager.detach(book);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,66 @@
+package com.example.bookshelfdemo.book;
+
+import lombok.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+@Value
+class BookVersion {
+
+    Long version;
+    Instant lastModified;
+
+    static BookVersion of(Book book) {
+        return new BookVersion(book.getVersion(), book.getLastModified());
+    }
+
+    static BookVersion remove(Map<String, Object> row) {
+        return new BookVersion((Long) row.remove(BookFieldsRepository.VERSION),
+                (Instant) row.remove(BookFieldsRepository.LAST_MODIFIED));
+    }
+
+    static boolean isConditionalGet(HttpHeaders request) {
+        return !request.getIfNoneMatch().isEmpty() || request.getIfModifiedSince() >= 0;
+    }
+
+    String getETag() {
+        return "\"" + version + "\"";
+    }
+
+    boolean isNotModified(HttpHeaders request) {
+        if (!request.getIfNoneMatch().isEmpty()) {
+            return ETags.weakMatch(ETags.withoutVariants(request.getIfNoneMatch()), getETag());
+        }
+        var ifModifiedSince = request.getIfModifiedSince();
+        return ifModifiedSince >= 0 && lastModified != null && lastModified.getEpochSecond() <= ifModifiedSince / 1000;
+    }
+
+    boolean matches(HttpHeaders request) {
+        return ETags.strongMatch(ETags.withoutVariants(request.getIfMatch()), getETag());
+    }
+
+    ResponseEntity.BodyBuilder notModified(HttpHeaders request) {
+        var response = ResponseEntity.status(HttpStatus.NOT_MODIFIED).varyBy(HttpHeaders.ACCEPT);
+        request.getIfNoneMatch().stream()
+                .filter(candidate -> ETags.weakMatch(ETags.withoutVariants(List.of(candidate)), getETag()))
+                .findFirst()
+                .ifPresent(response::eTag);
+        if (lastModified != null) {
+            response.lastModified(lastModified);
+        }
+        return response;
+    }
+
+    ResponseEntity.BodyBuilder applyTo(ResponseEntity.BodyBuilder response) {
+        response.eTag(getETag()).varyBy(HttpHeaders.ACCEPT);
+        if (lastModified != null) {
+            response.lastModified(lastModified);
+        }
+        return response;
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.bookshelfdemo.book;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+@Configuration
+@Profile("!reactive")
+class BookWireFormatConfiguration {
+
+    static final String APPLICATION_SMILE_VALUE = "application/x-jackson-smile";
+    static final String APPLICATION_CBOR_VALUE = "application/cbor";
+
+    @Bean
+    MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        var objectMapper = new ObjectMapper(new SmileFactory());
+        builder.configure(objectMapper);
+        return new MappingJackson2SmileHttpMessageConverter(objectMapper);
+    }
+
+    @Bean
+    MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        var objectMapper = new ObjectMapper(new CBORFactory());
+        builder.configure(objectMapper);
+        return new MappingJackson2CborHttpMessageConverter(objectMapper);
+    }
+}
@@ -1,6 +1,11 @@
 package com.example.bookshelfdemo.book;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
 import org.springframework.context.support.DefaultMessageSourceResolvable;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -20,8 +25,18 @@ import java.util.Map;
 import java.util.stream.Collectors;
 
 @ControllerAdvice
+@Profile("!reactive")
 public class CustomExceptionHandler extends ResponseEntityExceptionHandler {
 
+    private final MeterRegistry meterRegistry;
+    private final Counter booksNotFound;
+
+    @Autowired
+    public CustomExceptionHandler(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.booksNotFound = meterRegistry.counter("books.not.found");
+    }
+
     @Override
     protected ResponseEntity<Object> handleMethodArgumentNotValid(MethodArgumentNotValidException exception,
                                                                   HttpHeaders headers,
@@ -47,8 +62,36 @@ public class CustomExceptionHandler extends ResponseEntityExceptionHandler {
         response.sendError(HttpStatus.BAD_REQUEST.value());
     }
 
+    @ExceptionHandler(DataIntegrityViolationException.class)
+    public void dataIntegrityViolationException(HttpServletResponse response) throws IOException {
+        response.sendError(HttpStatus.CONFLICT.value());
+    }
+
+    @ExceptionHandler(BookIsbnTakenException.class)
+    public ResponseEntity<Object> bookIsbnTakenException(BookIsbnTakenException exception) {
+        Map<String, Object> body = new HashMap<>();
+        body.put("timestamp", LocalDateTime.now());
+        body.put("httpStatus", HttpStatus.CONFLICT.value());
+        body.put("errors", List.of(exception.getMessage()));
+        return new ResponseEntity<>(body, HttpStatus.CONFLICT);
+    }
+
+    @ExceptionHandler(BookEndpointOverloadedException.class)
+    public void bookEndpointOverloadedException(BookEndpointOverloadedException exception,
+                                                HttpServletResponse response) throws IOException {
+        meterRegistry.counter("books.rejected", "endpoint", exception.getEndpoint()).increment();
+        response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+        response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value());
+    }
+
+    @ExceptionHandler(BookPreconditionFailedException.class)
+    public void bookPreconditionFailedException(HttpServletResponse response) throws IOException {
+        response.sendError(HttpStatus.PRECONDITION_FAILED.value());
+    }
+
     @ExceptionHandler(BookNotFoundException.class)
     public void bookNotFoundException(HttpServletResponse response) throws IOException {
+        booksNotFound.increment();
         response.sendError(HttpStatus.NOT_FOUND.value());
     }
 }
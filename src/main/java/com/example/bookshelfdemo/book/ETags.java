@@ -0,0 +1,47 @@
+package com.example.bookshelfdemo.book;
+
+import org.springframework.http.MediaType;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+final class ETags {
+
+    private static final String ANY = "*";
+    private static final String WEAK_PREFIX = "W/";
+    private static final char VARIANT_SEPARATOR = '-';
+
+    private ETags() {
+    }
+
+    static boolean weakMatch(List<String> candidates, String eTag) {
+        return candidates.stream().anyMatch(candidate -> ANY.equals(candidate) || strip(candidate).equals(strip(eTag)));
+    }
+
+    static boolean strongMatch(List<String> candidates, String eTag) {
+        return candidates.stream().anyMatch(candidate -> ANY.equals(candidate) || candidate.equals(eTag));
+    }
+
+    static boolean isStrong(String eTag) {
+        return eTag.startsWith("\"");
+    }
+
+    static String withVariant(String eTag, MediaType contentType) {
+        var subtype = contentType.getSubtype();
+        var variant = subtype.substring(subtype.lastIndexOf(VARIANT_SEPARATOR) + 1);
+        return eTag.substring(0, eTag.length() - 1) + VARIANT_SEPARATOR + variant + "\"";
+    }
+
+    static List<String> withoutVariants(List<String> eTags) {
+        return eTags.stream().map(ETags::withoutVariant).collect(Collectors.toList());
+    }
+
+    private static String withoutVariant(String eTag) {
+        var separator = eTag.lastIndexOf(VARIANT_SEPARATOR);
+        return separator < 0 ? eTag : eTag.substring(0, separator) + "\"";
+    }
+
+    private static String strip(String eTag) {
+        return eTag.startsWith(WEAK_PREFIX) ? eTag.substring(WEAK_PREFIX.length()) : eTag;
+    }
+}
@@ -1,13 +1,49 @@
 package com.example.bookshelfdemo.book;
 
-import java.util.regex.Pattern;
-
 class ISBNParser {
 
-    private static Pattern NOT_DIGITS_OR_NOT_X = Pattern.compile("[^\\dX]");
+    private static final int ISBN_13_LENGTH = 13;
 
     static String parse(String isbn) {
-        return NOT_DIGITS_OR_NOT_X.matcher(isbn).replaceAll("");
+        var length = isbn.length();
+        var i = 0;
+        while (i < length && isIsbnCharacter(isbn.charAt(i))) {
+            i++;
+        }
+        if (i == length) {
+            return isbn;
+        }
+        var normalized = new char[length - 1];
+        isbn.getChars(0, i, normalized, 0);
+        var size = i;
+        for (i++; i < length; i++) {
+            var character = isbn.charAt(i);
+            if (isIsbnCharacter(character)) {
+                normalized[size++] = character;
+            }
+        }
+        return new String(normalized, 0, size);
+    }
+
+    static boolean isValid(CharSequence isbn) {
+        var size = 0;
+        var checksum = 0;
+        for (int i = 0; i < isbn.length(); i++) {
+            var character = isbn.charAt(i);
+            if (!isIsbnCharacter(character)) {
+                continue;
+            }
+            if (size == ISBN_13_LENGTH) {
+                return false;
+            }
+            checksum += (character - '0') * (size % 2 == 0 ? 1 : 3);
+            size++;
+        }
+        return size == ISBN_13_LENGTH && checksum % 10 == 0;
+    }
+
+    private static boolean isIsbnCharacter(char character) {
+        return (character >= '0' && character <= '9') || character == 'X';
     }
 
 }
@@ -0,0 +1,12 @@
+package com.example.bookshelfdemo.book;
+
+import javax.validation.ConstraintValidator;
+import javax.validation.ConstraintValidatorContext;
+
+public class ISBNValidator implements ConstraintValidator<ValidISBN, CharSequence> {
+
+    @Override
+    public boolean isValid(CharSequence isbn, ConstraintValidatorContext context) {
+        return isbn == null || ISBNParser.isValid(isbn);
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.bookshelfdemo.book;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+import java.nio.file.Path;
+
+@Configuration
+@Profile("memory")
+class InMemoryBookDataSourceConfiguration {
+
+    static final String CHANGES_DATABASE = "changes";
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    HikariDataSource dataSource(DataSourceProperties dataSourceProperties, InMemoryBookProperties properties) {
+        var builder = dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class);
+        if (dataSourceProperties.getUrl() == null) {
+            var file = Path.of(properties.getDirectory()).toAbsolutePath().resolve(CHANGES_DATABASE);
+            builder.url("jdbc:h2:file:" + file).username("sa").password("");
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,289 @@
+package com.example.bookshelfdemo.book;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.zip.CRC32;
+
+@Slf4j
+class InMemoryBookLog implements Closeable {
+
+    private static final Pattern SEGMENT = Pattern.compile("wal-(\\d+)\\.log");
+    private static final Pattern SNAPSHOT = Pattern.compile("snapshot-(\\d+)\\.bin");
+    private static final byte PUT = 1;
+    private static final byte DELETE = 2;
+    private static final byte SEQUENCE = 3;
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int MAX_ENTRY_SIZE = 1024 * 1024;
+
+    private final Path directory;
+    private final boolean fsync;
+    private final Entries walEntries = new Entries();
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    private long sequence;
+    private FileChannel channel;
+    private ByteArrayOutputStream pending = new ByteArrayOutputStream(BUFFER_SIZE);
+    private DataOutputStream output = new DataOutputStream(pending);
+    private long appended;
+    private volatile long durable;
+    private IOException failure;
+
+    InMemoryBookLog(Path directory, boolean fsync) {
+        this.directory = directory;
+        this.fsync = fsync;
+    }
+
+    long recover(Consumer<BookRecord> put, LongConsumer delete, LongConsumer sequence) throws IOException {
+        Files.createDirectories(directory);
+        var snapshots = sequences(SNAPSHOT);
+        var snapshot = snapshots.isEmpty() ? 0 : snapshots.get(snapshots.size() - 1);
+        long entries = 0;
+        if (snapshot > 0) {
+            entries += replay(snapshotFile(snapshot), put, delete, sequence);
+        }
+        var segments = sequences(SEGMENT);
+        for (var segment : segments) {
+            if (segment >= snapshot) {
+                entries += replay(segmentFile(segment), put, delete, sequence);
+            }
+        }
+        this.sequence = Math.max(snapshot, segments.isEmpty() ? 0 : segments.get(segments.size() - 1) + 1);
+        open();
+        log.info("Recovered {} log entries from {} (snapshot {}, next segment {})", entries, directory, snapshot, this.sequence);
+        return entries;
+    }
+
+    synchronized void appendPut(BookRecord record) throws IOException {
+        walEntries.put(record, output);
+        appended++;
+    }
+
+    synchronized void appendDelete(long id) throws IOException {
+        walEntries.delete(id, output);
+        appended++;
+    }
+
+    synchronized long position() {
+        return appended;
+    }
+
+    void commit(long position) throws IOException {
+        if (durable >= position) {
+            return;
+        }
+        flushLock.lock();
+        try {
+            if (durable < position) {
+                flush();
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    long rotate() throws IOException {
+        flushLock.lock();
+        try {
+            flush();
+            channel.close();
+            sequence++;
+            open();
+            return sequence;
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    void snapshot(long covered, BookRecord[] records, long lastId) throws IOException {
+        var file = snapshotFile(covered);
+        var partial = file.resolveSibling(file.getFileName() + ".partial");
+        try (var snapshotChannel = FileChannel.open(partial, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+             var snapshotOutput = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(snapshotChannel), BUFFER_SIZE))) {
+            var snapshotEntries = new Entries();
+            snapshotEntries.sequence(lastId, snapshotOutput);
+            for (var record : records) {
+                snapshotEntries.put(record, snapshotOutput);
+            }
+            snapshotOutput.flush();
+            snapshotChannel.force(true);
+        }
+        Files.move(partial, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        for (var older : sequences(SNAPSHOT)) {
+            if (older < covered) {
+                Files.deleteIfExists(snapshotFile(older));
+            }
+        }
+        for (var older : sequences(SEGMENT)) {
+            if (older < covered) {
+                Files.deleteIfExists(segmentFile(older));
+            }
+        }
+        log.info("Snapshot of {} books written to {}", records.length, file);
+    }
+
+    @Override
+    public void close() throws IOException {
+        flushLock.lock();
+        try {
+            if (channel != null) {
+                flush();
+                channel.close();
+                channel = null;
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private void open() throws IOException {
+        channel = FileChannel.open(segmentFile(sequence), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+    }
+
+    private void flush() throws IOException {
+        if (failure != null) {
+            throw new IOException("An earlier write to " + directory + " failed", failure);
+        }
+        ByteArrayOutputStream batch;
+        long position;
+        synchronized (this) {
+            batch = pending;
+            position = appended;
+            pending = new ByteArrayOutputStream(BUFFER_SIZE);
+            output = new DataOutputStream(pending);
+        }
+        try {
+            var buffer = ByteBuffer.wrap(batch.toByteArray());
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            if (fsync) {
+                channel.force(false);
+            }
+        } catch (IOException exception) {
+            failure = exception;
+            throw exception;
+        }
+        durable = position;
+    }
+
+    private long replay(Path file, Consumer<BookRecord> put, LongConsumer delete, LongConsumer sequence) throws IOException {
+        var crc = new CRC32();
+        long entries = 0;
+        try (var input = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), BUFFER_SIZE))) {
+            while (true) {
+                int length;
+                try {
+                    length = input.readInt();
+                } catch (EOFException end) {
+                    return entries;
+                }
+                if (length <= 0 || length > MAX_ENTRY_SIZE) {
+                    log.warn("Corrupted entry {} in {}, ignoring the rest of the file", entries, file);
+                    return entries;
+                }
+                var checksum = input.readInt();
+                var bytes = new byte[length];
+                input.readFully(bytes);
+                crc.reset();
+                crc.update(bytes, 0, length);
+                if ((int) crc.getValue() != checksum) {
+                    log.warn("Corrupted entry {} in {}, ignoring the rest of the file", entries, file);
+                    return entries;
+                }
+                var entryInput = new DataInputStream(new ByteArrayInputStream(bytes));
+                var type = entryInput.readByte();
+                if (type == PUT) {
+                    put.accept(BookRecord.readFrom(entryInput));
+                } else if (type == DELETE) {
+                    delete.accept(entryInput.readLong());
+                } else {
+                    sequence.accept(entryInput.readLong());
+                }
+                entries++;
+            }
+        } catch (EOFException torn) {
+            log.warn("Torn entry {} at the end of {}, ignoring it", entries, file);
+            return entries;
+        }
+    }
+
+    private List<Long> sequences(Pattern pattern) throws IOException {
+        try (var files = Files.list(directory)) {
+            return files.map(file -> pattern.matcher(file.getFileName().toString()))
+                    .filter(Matcher::matches)
+                    .map(matcher -> Long.parseLong(matcher.group(1)))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private Path segmentFile(long segment) {
+        return directory.resolve(String.format("wal-%012d.log", segment));
+    }
+
+    private Path snapshotFile(long covered) {
+        return directory.resolve(String.format("snapshot-%012d.bin", covered));
+    }
+
+    private static class Entries {
+
+        private final ByteArrayOutputStream entry = new ByteArrayOutputStream(256);
+        private final DataOutputStream entryOutput = new DataOutputStream(entry);
+        private final CRC32 crc = new CRC32();
+
+        private void put(BookRecord record, DataOutputStream target) throws IOException {
+            entry.reset();
+            entryOutput.writeByte(PUT);
+            record.writeTo(entryOutput);
+            append(target);
+        }
+
+        private void delete(long id, DataOutputStream target) throws IOException {
+            entry.reset();
+            entryOutput.writeByte(DELETE);
+            entryOutput.writeLong(id);
+            append(target);
+        }
+
+        private void sequence(long lastId, DataOutputStream target) throws IOException {
+            entry.reset();
+            entryOutput.writeByte(SEQUENCE);
+            entryOutput.writeLong(lastId);
+            append(target);
+        }
+
+        private void append(DataOutputStream target) throws IOException {
+            var bytes = entry.toByteArray();
+            crc.reset();
+            crc.update(bytes, 0, bytes.length);
+            target.writeInt(bytes.length);
+            target.writeInt((int) crc.getValue());
+            target.write(bytes);
+        }
+    }
+}
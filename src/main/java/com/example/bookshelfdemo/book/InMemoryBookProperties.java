@@ -0,0 +1,18 @@
+package com.example.bookshelfdemo.book;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+@Component
+@Profile("memory")
+@ConfigurationProperties("bookshelf.memory")
+@Getter
+@Setter
+class InMemoryBookProperties {
+
+    private String directory = "bookshelf-data";
+    private boolean fsync = true;
+}
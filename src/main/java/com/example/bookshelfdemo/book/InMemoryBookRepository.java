@@ -0,0 +1,663 @@
+package com.example.bookshelfdemo.book;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Repository;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.StampedLock;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+@Slf4j
+@Primary
+@Repository
+@Profile("memory")
+class InMemoryBookRepository implements BookRepository {
+
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final String ID = "id";
+    private static final Map<String, Comparator<BookRecord>> ORDERS = Map.of(
+            ID, Comparator.comparingLong(BookRecord::getId),
+            "isbn", Comparator.comparing(BookRecord::getIsbn),
+            "title", Comparator.comparing(BookRecord::getTitle),
+            "author", Comparator.comparing(BookRecord::getAuthor),
+            "numberOfPages", Comparator.comparingInt(BookRecord::getNumberOfPages),
+            "rating", Comparator.comparingInt(BookRecord::getRating),
+            VERSION, Comparator.comparingLong(BookRecord::getVersion),
+            LAST_MODIFIED, Comparator.comparingLong(BookRecord::getLastModified));
+
+    private final InMemoryBookLog writeAheadLog;
+    private final Cache cache;
+    private final StampedLock lock = new StampedLock();
+    private final Map<String, BookRecord> byIsbn = new ConcurrentHashMap<>();
+    private final Map<String, AuthorIds> byAuthor = new HashMap<>();
+
+    private long[] ids = new long[INITIAL_CAPACITY];
+    private BookRecord[] records = new BookRecord[INITIAL_CAPACITY];
+    private int size;
+    private long lastId;
+    private long changesSinceSnapshot;
+
+    @Autowired
+    InMemoryBookRepository(InMemoryBookProperties properties, CacheManager cacheManager) {
+        this.writeAheadLog = new InMemoryBookLog(Path.of(properties.getDirectory()), properties.isFsync());
+        this.cache = cacheManager.getCache(BOOKS_CACHE);
+    }
+
+    @PostConstruct
+    void recover() throws IOException {
+        var stamp = lock.writeLock();
+        try {
+            changesSinceSnapshot = writeAheadLog.recover(this::put, this::delete, id -> lastId = Math.max(lastId, id));
+            log.info("Loaded {} books into memory", size);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @PreDestroy
+    void close() throws IOException {
+        snapshot();
+        var stamp = lock.writeLock();
+        try {
+            writeAheadLog.close();
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Scheduled(initialDelayString = "${bookshelf.memory.snapshot-interval}",
+            fixedDelayString = "${bookshelf.memory.snapshot-interval}")
+    public synchronized void snapshot() throws IOException {
+        long covered;
+        long snapshotLastId;
+        BookRecord[] snapshot;
+        var stamp = lock.writeLock();
+        try {
+            if (changesSinceSnapshot == 0) {
+                return;
+            }
+            covered = writeAheadLog.rotate();
+            snapshot = Arrays.copyOf(records, size);
+            snapshotLastId = lastId;
+            changesSinceSnapshot = 0;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+        writeAheadLog.snapshot(covered, snapshot, snapshotLastId);
+    }
+
+    @Override
+    public Optional<Book> findById(Long id) {
+        return Optional.ofNullable(find(id)).map(BookRecord::toBook);
+    }
+
+    @Override
+    public boolean existsById(Long id) {
+        return find(id) != null;
+    }
+
+    @Override
+    public Optional<BookVersion> findVersionById(Long id) {
+        return Optional.ofNullable(find(id)).map(BookRecord::toVersion);
+    }
+
+    @Override
+    public Optional<Book> findByIsbn(String isbn) {
+        return Optional.ofNullable(byIsbn.get(isbn)).map(BookRecord::toBook);
+    }
+
+    @Override
+    public Set<String> findExistingIsbns(Collection<String> isbns) {
+        return isbns.stream().filter(byIsbn::containsKey).collect(Collectors.toSet());
+    }
+
+    @Override
+    public List<Book> findByIsbnIn(Collection<String> isbns) {
+        return isbns.stream()
+                .map(byIsbn::get)
+                .filter(Objects::nonNull)
+                .map(BookRecord::toBook)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public List<Book> findAll() {
+        return toBooks(Arrays.asList(copy()));
+    }
+
+    @Override
+    public List<Book> findAll(Sort sort) {
+        return toBooks(sorted(sort));
+    }
+
+    @Override
+    public Page<Book> findAll(Pageable pageable) {
+        var books = sorted(pageable.getSort());
+        if (pageable.isUnpaged()) {
+            return new PageImpl<>(toBooks(books));
+        }
+        var from = (int) Math.min(pageable.getOffset(), books.size());
+        var to = Math.min(from + pageable.getPageSize(), books.size());
+        return new PageImpl<>(toBooks(books.subList(from, to)), pageable, books.size());
+    }
+
+    @Override
+    public List<Book> findAllById(Iterable<Long> ids) {
+        return StreamSupport.stream(ids.spliterator(), false)
+                .map(this::find)
+                .filter(Objects::nonNull)
+                .map(BookRecord::toBook)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public long count() {
+        var stamp = lock.readLock();
+        try {
+            return size;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public List<Book> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable) {
+        return toBooks(scan(null, null, id, pageable));
+    }
+
+    @Override
+    public List<Book> findByAuthorAndIdGreaterThanOrderByIdAsc(String author, Long id, Pageable pageable) {
+        return toBooks(scan(author, null, id, pageable));
+    }
+
+    @Override
+    public List<Book> findByRatingGreaterThanEqualAndIdGreaterThanOrderByIdAsc(Integer rating, Long id, Pageable pageable) {
+        return toBooks(scan(null, rating, id, pageable));
+    }
+
+    @Override
+    public List<Book> findByAuthorAndRatingGreaterThanEqualAndIdGreaterThanOrderByIdAsc(String author, Integer rating, Long id,
+                                                                                       Pageable pageable) {
+        return toBooks(scan(author, rating, id, pageable));
+    }
+
+    @Override
+    public Stream<Book> streamAll() {
+        return Arrays.stream(copy()).map(BookRecord::toBook);
+    }
+
+    @Override
+    public Stream<Object[]> streamRows(int fetchSize) {
+        return streamAll().map(book -> new Object[]{book.getId(), book.getIsbn(), book.getTitle(), book.getAuthor(),
+                book.getNumberOfPages(), book.getRating()});
+    }
+
+    @Override
+    public List<Map<String, Object>> findFields(List<String> fields, String author, Integer minRating, Long after, int limit) {
+        return scan(author, minRating, after, 0, limit).stream()
+                .map(record -> toRow(record, fields))
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public Optional<Map<String, Object>> findFieldsById(Long id, List<String> fields) {
+        return Optional.ofNullable(find(id)).map(record -> {
+            var row = toRow(record, fields);
+            row.put(VERSION, record.get(VERSION));
+            row.put(LAST_MODIFIED, record.get(LAST_MODIFIED));
+            return row;
+        });
+    }
+
+    @Override
+    public <S extends Book> S save(S book) {
+        return write(() -> {
+            saveBooks(List.of(book));
+            return book;
+        });
+    }
+
+    @Override
+    public <S extends Book> List<S> saveAll(Iterable<S> books) {
+        var list = StreamSupport.stream(books.spliterator(), false).collect(Collectors.toList());
+        return write(() -> {
+            saveBooks(list);
+            return list;
+        });
+    }
+
+    @Override
+    public <S extends Book> S saveAndFlush(S book) {
+        return save(book);
+    }
+
+    @Override
+    public int updateById(Long id, Book book) {
+        return write(() -> update(id, null, book));
+    }
+
+    @Override
+    public int updateByIdAndVersion(Long id, Long version, Book book) {
+        return write(() -> update(id, version, book));
+    }
+
+    @Override
+    public int[] batchUpdate(List<Book> books) {
+        var updateCounts = write(() -> {
+            var counts = new int[books.size()];
+            var updates = new ArrayList<BookRecord>(books.size());
+            for (int i = 0; i < books.size(); i++) {
+                var book = books.get(i);
+                var current = get(book.getId());
+                if (current != null) {
+                    updates.add(record(book.getId(), current.getVersion() + 1, book));
+                    counts[i] = 1;
+                }
+            }
+            checkIsbns(updates);
+            for (var update : updates) {
+                store(update);
+            }
+            return counts;
+        });
+        books.forEach(book -> cache.evict(book.getId()));
+        return updateCounts;
+    }
+
+    @Override
+    public int removeById(Long id) {
+        return write(() -> remove(id, null));
+    }
+
+    @Override
+    public int removeByIdAndVersion(Long id, Long version) {
+        return write(() -> remove(id, version));
+    }
+
+    @Override
+    public int[] batchDelete(List<Long> ids) {
+        var deleteCounts = write(() -> {
+            var counts = new int[ids.size()];
+            for (int i = 0; i < ids.size(); i++) {
+                counts[i] = remove(ids.get(i), null);
+            }
+            return counts;
+        });
+        ids.forEach(cache::evict);
+        return deleteCounts;
+    }
+
+    @Override
+    public void deleteById(Long id) {
+        if (removeById(id) == 0) {
+            throw new EmptyResultDataAccessException("No book with id " + id + " exists", 1);
+        }
+    }
+
+    @Override
+    public void delete(Book book) {
+        if (book.getId() != null) {
+            removeById(book.getId());
+        }
+    }
+
+    @Override
+    public void deleteAll(Iterable<? extends Book> books) {
+        var ids = StreamSupport.stream(books.spliterator(), false)
+                .map(Book::getId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+        batchDelete(ids);
+    }
+
+    @Override
+    public void deleteAll() {
+        write(() -> {
+            for (var id : Arrays.copyOf(ids, size)) {
+                remove(id, null);
+            }
+            return null;
+        });
+    }
+
+    @Override
+    public void deleteAllInBatch() {
+        deleteAll();
+    }
+
+    private BookRecord find(long id) {
+        var stamp = lock.tryOptimisticRead();
+        var record = lookup(id);
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                record = lookup(id);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        return record;
+    }
+
+    private BookRecord lookup(long id) {
+        var count = size;
+        var currentIds = ids;
+        var currentRecords = records;
+        if (count > currentIds.length || count > currentRecords.length) {
+            return null;
+        }
+        var index = Arrays.binarySearch(currentIds, 0, count, id);
+        return index >= 0 ? currentRecords[index] : null;
+    }
+
+    private List<BookRecord> scan(String author, Integer minRating, long after, Pageable pageable) {
+        return pageable.isPaged()
+                ? scan(author, minRating, after, pageable.getOffset(), pageable.getPageSize())
+                : scan(author, minRating, after, 0, Integer.MAX_VALUE);
+    }
+
+    private List<BookRecord> scan(String author, Integer minRating, long after, long offset, int limit) {
+        var page = new ArrayList<BookRecord>(Math.min(limit, 64));
+        var skip = offset;
+        var stamp = lock.readLock();
+        try {
+            if (author == null) {
+                for (int i = firstAfter(ids, size, after); i < size && page.size() < limit; i++) {
+                    if (matches(records[i], minRating) && skip-- <= 0) {
+                        page.add(records[i]);
+                    }
+                }
+                return page;
+            }
+            var authorIds = byAuthor.get(author);
+            if (authorIds == null) {
+                return page;
+            }
+            for (int i = firstAfter(authorIds.values, authorIds.size, after); i < authorIds.size && page.size() < limit; i++) {
+                var record = get(authorIds.values[i]);
+                if (matches(record, minRating) && skip-- <= 0) {
+                    page.add(record);
+                }
+            }
+            return page;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    private BookRecord[] copy() {
+        var stamp = lock.readLock();
+        try {
+            return Arrays.copyOf(records, size);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    private List<BookRecord> sorted(Sort sort) {
+        var books = copy();
+        Comparator<BookRecord> comparator = null;
+        for (var order : sort) {
+            var next = ORDERS.get(order.getProperty());
+            if (next == null) {
+                throw new IllegalArgumentException("No property " + order.getProperty() + " found for type Book");
+            }
+            next = order.isDescending() ? next.reversed() : next;
+            comparator = comparator == null ? next : comparator.thenComparing(next);
+        }
+        if (comparator != null) {
+            Arrays.sort(books, comparator);
+        }
+        return Arrays.asList(books);
+    }
+
+    private <T> T write(WriteOperation<T> operation) {
+        T result;
+        long position;
+        var stamp = lock.writeLock();
+        try {
+            result = operation.run();
+            position = writeAheadLog.position();
+        } catch (IOException exception) {
+            throw new DataAccessResourceFailureException("Writing to the book log failed", exception);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+        try {
+            writeAheadLog.commit(position);
+        } catch (IOException exception) {
+            throw new DataAccessResourceFailureException("Writing to the book log failed", exception);
+        }
+        return result;
+    }
+
+    private void saveBooks(List<? extends Book> books) throws IOException {
+        var saved = new ArrayList<BookRecord>(books.size());
+        var nextId = lastId;
+        for (var book : books) {
+            var current = book.getId() == null ? null : get(book.getId());
+            if (current != null && current.getVersion() != book.getVersion()) {
+                throw new ObjectOptimisticLockingFailureException(Book.class, book.getId());
+            }
+            var id = book.getId() == null ? ++nextId : book.getId();
+            nextId = Math.max(nextId, id);
+            saved.add(record(id, current == null ? 0 : current.getVersion() + 1, book));
+        }
+        checkIsbns(saved);
+        for (int i = 0; i < saved.size(); i++) {
+            var record = saved.get(i);
+            store(record);
+            var book = books.get(i);
+            book.setId(record.getId());
+            book.setVersion(record.getVersion());
+            book.setLastModified(Instant.ofEpochMilli(record.getLastModified()));
+        }
+    }
+
+    private int update(long id, Long version, Book book) throws IOException {
+        var current = get(id);
+        if (current == null || version != null && current.getVersion() != version) {
+            return 0;
+        }
+        var record = record(id, current.getVersion() + 1, book);
+        checkIsbns(List.of(record));
+        store(record);
+        return 1;
+    }
+
+    private int remove(long id, Long version) throws IOException {
+        var current = get(id);
+        if (current == null || version != null && current.getVersion() != version) {
+            return 0;
+        }
+        writeAheadLog.appendDelete(id);
+        delete(id);
+        changesSinceSnapshot++;
+        return 1;
+    }
+
+    private void store(BookRecord record) throws IOException {
+        writeAheadLog.appendPut(record);
+        put(record);
+        changesSinceSnapshot++;
+    }
+
+    private BookRecord record(long id, long version, Book book) {
+        if (book.getIsbn() == null || book.getTitle() == null || book.getAuthor() == null
+                || book.getNumberOfPages() == null || book.getRating() == null) {
+            throw new DataIntegrityViolationException("Book " + book + " has empty columns");
+        }
+        var authorIds = byAuthor.get(book.getAuthor());
+        return BookRecord.of(id, version, book, authorIds != null ? authorIds.author : book.getAuthor());
+    }
+
+    private void checkIsbns(List<BookRecord> updates) {
+        var updatedIds = updates.stream().map(BookRecord::getId).collect(Collectors.toSet());
+        var claimed = new HashMap<String, Long>();
+        for (var update : updates) {
+            var claimedBy = claimed.put(update.getIsbn(), update.getId());
+            var owner = byIsbn.get(update.getIsbn());
+            if (claimedBy != null && claimedBy != update.getId()
+                    || owner != null && owner.getId() != update.getId() && !updatedIds.contains(owner.getId())) {
+                throw new DataIntegrityViolationException("Book with ISBN " + update.getIsbn() + " already exists in " + Book.ISBN_INDEX);
+            }
+        }
+    }
+
+    private BookRecord get(long id) {
+        var index = Arrays.binarySearch(ids, 0, size, id);
+        return index >= 0 ? records[index] : null;
+    }
+
+    private void put(BookRecord record) {
+        var authorIds = byAuthor.computeIfAbsent(record.getAuthor(), AuthorIds::new);
+        if (authorIds.author != record.getAuthor()) {
+            record = record.withAuthor(authorIds.author);
+        }
+        var index = Arrays.binarySearch(ids, 0, size, record.getId());
+        BookRecord previous = null;
+        if (index >= 0) {
+            previous = records[index];
+            records[index] = record;
+        } else {
+            insert(-index - 1, record);
+        }
+        byIsbn.put(record.getIsbn(), record);
+        if (previous != null) {
+            if (!previous.getIsbn().equals(record.getIsbn())) {
+                byIsbn.remove(previous.getIsbn(), previous);
+            }
+            if (!previous.getAuthor().equals(record.getAuthor())) {
+                removeAuthor(previous);
+            }
+        }
+        authorIds.add(record.getId());
+        lastId = Math.max(lastId, record.getId());
+    }
+
+    private void insert(int index, BookRecord record) {
+        if (size == ids.length) {
+            ids = Arrays.copyOf(ids, size * 2);
+            records = Arrays.copyOf(records, size * 2);
+        }
+        System.arraycopy(ids, index, ids, index + 1, size - index);
+        System.arraycopy(records, index, records, index + 1, size - index);
+        ids[index] = record.getId();
+        records[index] = record;
+        size++;
+    }
+
+    private BookRecord delete(long id) {
+        var index = Arrays.binarySearch(ids, 0, size, id);
+        if (index < 0) {
+            return null;
+        }
+        var previous = records[index];
+        System.arraycopy(ids, index + 1, ids, index, size - index - 1);
+        System.arraycopy(records, index + 1, records, index, size - index - 1);
+        records[--size] = null;
+        byIsbn.remove(previous.getIsbn(), previous);
+        removeAuthor(previous);
+        return previous;
+    }
+
+    private void removeAuthor(BookRecord record) {
+        var authorIds = byAuthor.get(record.getAuthor());
+        if (authorIds != null) {
+            authorIds.remove(record.getId());
+            if (authorIds.size == 0) {
+                byAuthor.remove(record.getAuthor());
+            }
+        }
+    }
+
+    private static int firstAfter(long[] values, int count, long after) {
+        var index = Arrays.binarySearch(values, 0, count, after);
+        return index >= 0 ? index + 1 : -index - 1;
+    }
+
+    private static boolean matches(BookRecord record, Integer minRating) {
+        return minRating == null || record.getRating() >= minRating;
+    }
+
+    private static Map<String, Object> toRow(BookRecord record, List<String> fields) {
+        var row = new LinkedHashMap<String, Object>();
+        row.put(ID, record.getId());
+        fields.forEach(field -> row.put(field, record.get(field)));
+        return row;
+    }
+
+    private static List<Book> toBooks(List<BookRecord> records) {
+        return records.stream().map(BookRecord::toBook).collect(Collectors.toList());
+    }
+
+    private interface WriteOperation<T> {
+
+        T run() throws IOException;
+    }
+
+    private static class AuthorIds {
+
+        private final String author;
+        private long[] values = new long[4];
+        private int size;
+
+        private AuthorIds(String author) {
+            this.author = author;
+        }
+
+        private void add(long id) {
+            var index = Arrays.binarySearch(values, 0, size, id);
+            if (index >= 0) {
+                return;
+            }
+            index = -index - 1;
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            System.arraycopy(values, index, values, index + 1, size - index);
+            values[index] = id;
+            size++;
+        }
+
+        private void remove(long id) {
+            var index = Arrays.binarySearch(values, 0, size, id);
+            if (index >= 0) {
+                System.arraycopy(values, index + 1, values, index, size - index - 1);
+                size--;
+            }
+        }
+    }
+}
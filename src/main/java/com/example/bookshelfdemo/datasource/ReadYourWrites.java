@@ -0,0 +1,88 @@
+package com.example.bookshelfdemo.datasource;
+
+import lombok.Value;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseCookie;
+import org.springframework.stereotype.Component;
+
+import javax.servlet.http.HttpServletResponse;
+import java.util.function.Supplier;
+
+@Component
+@Profile("!reactive & !catalogue")
+public class ReadYourWrites {
+
+    static final String COOKIE = "bookshelf-written-at";
+
+    private static final ThreadLocal<Long> WRITTEN_AT = new ThreadLocal<>();
+
+    private final ReplicaProperties properties;
+    private final ObjectProvider<ReplicaRoutingDataSource> replicaRoutingDataSource;
+
+    @Autowired
+    ReadYourWrites(ReplicaProperties properties, ObjectProvider<ReplicaRoutingDataSource> replicaRoutingDataSource) {
+        this.properties = properties;
+        this.replicaRoutingDataSource = replicaRoutingDataSource;
+    }
+
+    public void written(HttpServletResponse response) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        var cookie = ResponseCookie.from(COOKIE, Long.toString(System.currentTimeMillis()))
+                .path("/")
+                .maxAge(properties.getMaxLag())
+                .httpOnly(true)
+                .build();
+        response.addHeader(HttpHeaders.SET_COOKIE, cookie.toString());
+    }
+
+    public boolean isPinned() {
+        return writtenAt() != null;
+    }
+
+    public <T> ReplicatedRead<T> read(Supplier<T> read) {
+        var routing = replicaRoutingDataSource.getIfAvailable();
+        return routing != null ? routing.read(read) : new ReplicatedRead<>(read.get(), Long.MAX_VALUE);
+    }
+
+    public static <T> T fromPrimary(Supplier<T> read) {
+        var writtenAt = WRITTEN_AT.get();
+        WRITTEN_AT.set(Long.MAX_VALUE);
+        try {
+            return read.get();
+        } finally {
+            if (writtenAt == null) {
+                unbind();
+            } else {
+                bind(writtenAt);
+            }
+        }
+    }
+
+    static Long writtenAt() {
+        return WRITTEN_AT.get();
+    }
+
+    static void bind(Long writtenAt) {
+        WRITTEN_AT.set(writtenAt);
+    }
+
+    static void unbind() {
+        WRITTEN_AT.remove();
+    }
+
+    @Value
+    public static class ReplicatedRead<T> {
+
+        T value;
+        long replicatedAt;
+
+        public boolean includesChangesUntil(long time) {
+            return replicatedAt > time;
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.bookshelfdemo.datasource;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.WebUtils;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+@Component
+@Profile("!reactive & !catalogue")
+class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    private final ReplicaProperties properties;
+
+    @Autowired
+    ReadYourWritesFilter(ReplicaProperties properties) {
+        this.properties = properties;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !properties.isEnabled();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        ReadYourWrites.bind(writtenAt(request));
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            ReadYourWrites.unbind();
+        }
+    }
+
+    private Long writtenAt(HttpServletRequest request) {
+        var cookie = WebUtils.getCookie(request, ReadYourWrites.COOKIE);
+        if (cookie == null) {
+            return null;
+        }
+        try {
+            var writtenAt = Long.parseLong(cookie.getValue());
+            return System.currentTimeMillis() - writtenAt <= properties.getMaxLag().toMillis() ? writtenAt : null;
+        } catch (NumberFormatException exception) {
+            return null;
+        }
+    }
+}
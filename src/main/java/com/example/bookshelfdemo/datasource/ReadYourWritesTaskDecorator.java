@@ -0,0 +1,26 @@
+package com.example.bookshelfdemo.datasource;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.stereotype.Component;
+
+@Component
+@Profile("!reactive & !catalogue")
+class ReadYourWritesTaskDecorator implements TaskDecorator {
+
+    @Override
+    public Runnable decorate(Runnable runnable) {
+        var writtenAt = ReadYourWrites.writtenAt();
+        if (writtenAt == null) {
+            return runnable;
+        }
+        return () -> {
+            ReadYourWrites.bind(writtenAt);
+            try {
+                runnable.run();
+            } finally {
+                ReadYourWrites.unbind();
+            }
+        };
+    }
+}
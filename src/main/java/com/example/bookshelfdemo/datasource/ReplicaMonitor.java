@@ -0,0 +1,74 @@
+package com.example.bookshelfdemo.datasource;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+@Slf4j
+@Component
+@Profile("!reactive & !catalogue")
+@ConditionalOnProperty("bookshelf.datasource.replicas[0].url")
+class ReplicaMonitor {
+
+    static final String REPLICA_LAG_GAUGE = "book.datasource.replica.lag";
+
+    private final ReplicaRoutingDataSource replicaRoutingDataSource;
+    private final JdbcTemplate primary;
+    private final Map<String, JdbcTemplate> replicas = new LinkedHashMap<>();
+
+    @Autowired
+    ReplicaMonitor(ReplicaRoutingDataSource replicaRoutingDataSource, MeterRegistry meterRegistry) {
+        this.replicaRoutingDataSource = replicaRoutingDataSource;
+        this.primary = new JdbcTemplate(replicaRoutingDataSource.getPrimary());
+        replicaRoutingDataSource.getReplicas().forEach((name, dataSource) -> {
+            replicas.put(name, new JdbcTemplate(dataSource));
+            TimeGauge.builder(REPLICA_LAG_GAUGE, replicaRoutingDataSource, TimeUnit.MILLISECONDS, routing -> lag(routing, name))
+                    .tag("replica", name)
+                    .register(meterRegistry);
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${bookshelf.datasource.heartbeat-interval}")
+    public void check() {
+        beat();
+        replicas.forEach(this::check);
+    }
+
+    private void beat() {
+        var now = System.currentTimeMillis();
+        try {
+            if (primary.update(ReplicationHeartbeat.UPDATE, now) == 0) {
+                primary.update(ReplicationHeartbeat.INSERT, now);
+            }
+        } catch (DataAccessException exception) {
+            log.warn("Writing the replication heartbeat failed", exception);
+        }
+    }
+
+    private void check(String name, JdbcTemplate replica) {
+        try {
+            replicaRoutingDataSource.replicated(name, replica.queryForObject(ReplicationHeartbeat.SELECT, Long.class));
+        } catch (DataAccessException exception) {
+            if (replicaRoutingDataSource.lag(name) >= 0) {
+                log.warn("Replica {} is unavailable, reading from the primary", name, exception);
+            }
+            replicaRoutingDataSource.unavailable(name);
+        }
+    }
+
+    private static double lag(ReplicaRoutingDataSource routing, String name) {
+        var lag = routing.lag(name);
+        return lag < 0 ? Double.NaN : lag;
+    }
+}
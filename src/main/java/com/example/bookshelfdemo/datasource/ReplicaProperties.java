@@ -0,0 +1,34 @@
+package com.example.bookshelfdemo.datasource;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Component
+@ConfigurationProperties("bookshelf.datasource")
+@Getter
+@Setter
+class ReplicaProperties {
+
+    private List<Replica> replicas = new ArrayList<>();
+    private Duration maxLag = Duration.ofSeconds(5);
+    private Duration heartbeatInterval = Duration.ofSeconds(1);
+
+    boolean isEnabled() {
+        return !replicas.isEmpty();
+    }
+
+    @Getter
+    @Setter
+    static class Replica {
+
+        private String url;
+        private String username;
+        private String password;
+    }
+}
@@ -0,0 +1,118 @@
+package com.example.bookshelfdemo.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements Closeable {
+
+    static final String PRIMARY = "primary";
+
+    private static final long UNKNOWN = -1;
+
+    private final HikariDataSource primary;
+    private final Map<String, HikariDataSource> replicas;
+    private final Map<String, Replica> states = new LinkedHashMap<>();
+    private final long maxLag;
+    private final AtomicInteger next = new AtomicInteger();
+    private final ThreadLocal<long[]> observedReplication = new ThreadLocal<>();
+
+    ReplicaRoutingDataSource(HikariDataSource primary, Map<String, HikariDataSource> replicas, long maxLag) {
+        this.primary = primary;
+        this.replicas = replicas;
+        this.maxLag = maxLag;
+        var targets = new HashMap<Object, Object>(replicas);
+        targets.put(PRIMARY, primary);
+        replicas.keySet().forEach(name -> states.put(name, new Replica(name)));
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    HikariDataSource getPrimary() {
+        return primary;
+    }
+
+    Map<String, HikariDataSource> getReplicas() {
+        return replicas;
+    }
+
+    void replicated(String name, long beat) {
+        states.get(name).replicatedAt = beat;
+    }
+
+    void unavailable(String name) {
+        states.get(name).replicatedAt = UNKNOWN;
+    }
+
+    <T> ReadYourWrites.ReplicatedRead<T> read(Supplier<T> read) {
+        var previous = observedReplication.get();
+        var observed = new long[]{Long.MAX_VALUE};
+        observedReplication.set(observed);
+        T value;
+        try {
+            value = read.get();
+        } finally {
+            if (previous == null) {
+                observedReplication.remove();
+            } else {
+                observedReplication.set(previous);
+            }
+        }
+        return new ReadYourWrites.ReplicatedRead<>(value, observed[0]);
+    }
+
+    long lag(String name) {
+        var replicatedAt = states.get(name).replicatedAt;
+        return replicatedAt == UNKNOWN ? UNKNOWN : Math.max(0, System.currentTimeMillis() - replicatedAt);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return PRIMARY;
+        }
+        var writtenAt = ReadYourWrites.writtenAt();
+        var oldest = System.currentTimeMillis() - maxLag;
+        var candidates = new ArrayList<Replica>(states.size());
+        for (var replica : states.values()) {
+            var replicatedAt = replica.replicatedAt;
+            if (replicatedAt != UNKNOWN && replicatedAt >= oldest && (writtenAt == null || replicatedAt > writtenAt)) {
+                candidates.add(replica);
+            }
+        }
+        if (candidates.isEmpty()) {
+            return PRIMARY;
+        }
+        var replica = candidates.get(Math.floorMod(next.getAndIncrement(), candidates.size()));
+        var observed = observedReplication.get();
+        if (observed != null) {
+            observed[0] = Math.min(observed[0], replica.replicatedAt);
+        }
+        return replica.name;
+    }
+
+    @Override
+    public void close() {
+        replicas.values().forEach(HikariDataSource::close);
+        primary.close();
+    }
+
+    private static final class Replica {
+
+        private final String name;
+        private volatile long replicatedAt = UNKNOWN;
+
+        private Replica(String name) {
+            this.name = name;
+        }
+    }
+}
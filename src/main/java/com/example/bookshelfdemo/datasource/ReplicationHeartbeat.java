@@ -0,0 +1,23 @@
+package com.example.bookshelfdemo.datasource;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.Entity;
+import javax.persistence.Id;
+
+@Entity
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@Getter
+class ReplicationHeartbeat {
+
+    static final int ID = 1;
+    static final String UPDATE = "update replication_heartbeat set beat = ? where id = " + ID;
+    static final String INSERT = "insert into replication_heartbeat (id, beat) values (" + ID + ", ?)";
+    static final String SELECT = "select beat from replication_heartbeat where id = " + ID;
+
+    @Id
+    private Integer id;
+    private long beat;
+}
@@ -0,0 +1,31 @@
+package com.example.bookshelfdemo.metrics;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class SqlStatementCounter implements StatementInspector {
+
+    private static final ThreadLocal<AtomicInteger> STATEMENTS = new ThreadLocal<>();
+
+    @Override
+    public String inspect(String sql) {
+        var statements = STATEMENTS.get();
+        if (statements != null) {
+            statements.incrementAndGet();
+        }
+        return sql;
+    }
+
+    static AtomicInteger current() {
+        return STATEMENTS.get();
+    }
+
+    static void bind(AtomicInteger statements) {
+        STATEMENTS.set(statements);
+    }
+
+    static void unbind() {
+        STATEMENTS.remove();
+    }
+}
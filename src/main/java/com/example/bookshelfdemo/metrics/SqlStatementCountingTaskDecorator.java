@@ -0,0 +1,26 @@
+package com.example.bookshelfdemo.metrics;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.stereotype.Component;
+
+@Component
+@Profile("!reactive & !catalogue")
+class SqlStatementCountingTaskDecorator implements TaskDecorator {
+
+    @Override
+    public Runnable decorate(Runnable runnable) {
+        var statements = SqlStatementCounter.current();
+        if (statements == null) {
+            return runnable;
+        }
+        return () -> {
+            SqlStatementCounter.bind(statements);
+            try {
+                runnable.run();
+            } finally {
+                SqlStatementCounter.unbind();
+            }
+        };
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.bookshelfdemo.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Slf4j
+@Component
+@Profile("!reactive & !catalogue")
+class SqlStatementMetricsFilter extends OncePerRequestFilter {
+
+    static final String SQL_STATEMENTS_SUMMARY = "book.requests.sql.statements";
+
+    private final MeterRegistry meterRegistry;
+
+    @Autowired
+    SqlStatementMetricsFilter(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        var statements = new AtomicInteger();
+        SqlStatementCounter.bind(statements);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            SqlStatementCounter.unbind();
+            if (isAsyncStarted(request)) {
+                request.getAsyncContext().addListener(new RecordOnComplete(request, statements));
+            } else {
+                record(request, statements.get());
+            }
+        }
+    }
+
+    private void record(HttpServletRequest request, int statements) {
+        var uri = uri(request);
+        DistributionSummary.builder(SQL_STATEMENTS_SUMMARY)
+                .tag("method", request.getMethod())
+                .tag("uri", uri)
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry)
+                .record(statements);
+        log.debug("{} {} executed {} SQL statements", request.getMethod(), uri, statements);
+    }
+
+    private static String uri(HttpServletRequest request) {
+        var pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return pattern != null ? pattern.toString() : "UNKNOWN";
+    }
+
+    private class RecordOnComplete implements AsyncListener {
+
+        private final HttpServletRequest request;
+        private final AtomicInteger statements;
+
+        private RecordOnComplete(HttpServletRequest request, AtomicInteger statements) {
+            this.request = request;
+            this.statements = statements;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            record(request, statements.get());
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+        }
+    }
+}
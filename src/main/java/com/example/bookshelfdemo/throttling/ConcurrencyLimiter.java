@@ -0,0 +1,65 @@
+package com.example.bookshelfdemo.throttling;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+class ConcurrencyLimiter {
+
+    private static final double SMOOTHING = 0.2;
+    private static final double MIN_GRADIENT = 0.5;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+    private final int probeInterval;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong samples = new AtomicLong();
+    private final AtomicLong noLoadLatency = new AtomicLong(Long.MAX_VALUE);
+    private volatile double limit;
+
+    ConcurrencyLimiter(ThrottlingProperties.Concurrency properties) {
+        this.minLimit = properties.getMinLimit();
+        this.maxLimit = properties.getMaxLimit();
+        this.tolerance = properties.getTolerance();
+        this.probeInterval = properties.getProbeInterval();
+        this.limit = Math.min(maxLimit, Math.max(minLimit, properties.getInitialLimit()));
+    }
+
+    boolean tryAcquire() {
+        var current = (int) limit;
+        while (true) {
+            var acquired = inFlight.get();
+            if (acquired >= current) {
+                return false;
+            }
+            if (inFlight.compareAndSet(acquired, acquired + 1)) {
+                return true;
+            }
+        }
+    }
+
+    void release(long latency) {
+        var acquired = inFlight.getAndDecrement();
+        var sampled = Math.max(1, latency);
+        if (samples.incrementAndGet() % probeInterval == 0) {
+            noLoadLatency.set(sampled);
+        } else {
+            noLoadLatency.accumulateAndGet(sampled, Math::min);
+        }
+        var gradient = Math.max(MIN_GRADIENT, Math.min(1.0, tolerance * noLoadLatency.get() / sampled));
+        var current = limit;
+        if (gradient == 1.0 && acquired < current / 2) {
+            return;
+        }
+        var estimated = current * gradient + Math.sqrt(current);
+        limit = Math.min(maxLimit, Math.max(minLimit, current * (1 - SMOOTHING) + estimated * SMOOTHING));
+    }
+
+    int getLimit() {
+        return (int) limit;
+    }
+
+    int getInFlight() {
+        return inFlight.get();
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.bookshelfdemo.throttling;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+class RateLimiter {
+
+    private final ThrottlingProperties properties;
+    private final Map<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+    private final Map<String, TokenBucket> overflow = new ConcurrentHashMap<>();
+    private final AtomicBoolean expiring = new AtomicBoolean();
+
+    RateLimiter(ThrottlingProperties properties) {
+        this.properties = properties;
+    }
+
+    long tryAcquire(String key, long now) {
+        var bucket = buckets.get(key);
+        if (bucket == null) {
+            bucket = create(key, now);
+        }
+        return bucket.tryAcquire(now);
+    }
+
+    void expire(long now) {
+        if (!expiring.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            buckets.values().removeIf(bucket -> bucket.isFull(now));
+            overflow.values().removeIf(bucket -> bucket.isFull(now));
+        } finally {
+            expiring.set(false);
+        }
+    }
+
+    int size() {
+        return buckets.size();
+    }
+
+    private TokenBucket create(String key, long now) {
+        var path = key.substring(0, key.indexOf(' '));
+        if (buckets.size() >= properties.getMaxClients()) {
+            return overflow.computeIfAbsent(path, ignored -> bucket(path, now));
+        }
+        return buckets.computeIfAbsent(key, ignored -> bucket(path, now));
+    }
+
+    private TokenBucket bucket(String path, long now) {
+        var rate = properties.rate(path);
+        return new TokenBucket(rate.getPerSecond(), rate.getBurst(), now);
+    }
+}
@@ -0,0 +1,128 @@
+package com.example.bookshelfdemo.throttling;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.servlet.DispatcherType;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+@Component
+@Profile("!reactive & !catalogue")
+@ConditionalOnProperty("bookshelf.throttling.enabled")
+class ThrottlingInterceptor implements AsyncHandlerInterceptor, WebMvcConfigurer {
+
+    static final String THROTTLED_COUNTER = "books.throttled";
+    static final String CONCURRENCY_LIMIT_GAUGE = "books.concurrency.limit";
+    static final String CLIENTS_GAUGE = "books.throttled.clients";
+
+    private static final String UNMATCHED = "/books/**";
+    private static final String STARTED = ThrottlingInterceptor.class.getName() + ".started";
+
+    private final ThrottlingProperties properties;
+    private final RateLimiter rateLimiter;
+    private final ConcurrencyLimiter concurrencyLimiter;
+    private final Counter rateLimited;
+    private final Counter loadShed;
+
+    @Autowired
+    ThrottlingInterceptor(ThrottlingProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.rateLimiter = new RateLimiter(properties);
+        this.concurrencyLimiter = new ConcurrencyLimiter(properties.getConcurrency());
+        this.rateLimited = meterRegistry.counter(THROTTLED_COUNTER, "reason", "rate-limit");
+        this.loadShed = meterRegistry.counter(THROTTLED_COUNTER, "reason", "load-shed");
+        meterRegistry.gauge(CONCURRENCY_LIMIT_GAUGE, concurrencyLimiter, ConcurrencyLimiter::getLimit);
+        meterRegistry.gauge(CLIENTS_GAUGE, rateLimiter, RateLimiter::size);
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(this).addPathPatterns("/books*", "/books/**");
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws IOException {
+        if (request.getDispatcherType() != DispatcherType.REQUEST) {
+            return true;
+        }
+        var route = route(request, handler);
+        var started = System.nanoTime();
+        var wait = rateLimiter.tryAcquire(key(request.getMethod(), route, client(request)), started);
+        if (wait > 0) {
+            rateLimited.increment();
+            reject(response, HttpStatus.TOO_MANY_REQUESTS, TimeUnit.NANOSECONDS.toSeconds(wait) + 1);
+            return false;
+        }
+        if (isExcluded(request, route)) {
+            return true;
+        }
+        if (!concurrencyLimiter.tryAcquire()) {
+            loadShed.increment();
+            reject(response, HttpStatus.SERVICE_UNAVAILABLE, 1);
+            return false;
+        }
+        request.setAttribute(STARTED, started);
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        var started = (Long) request.getAttribute(STARTED);
+        if (started != null) {
+            request.removeAttribute(STARTED);
+            concurrencyLimiter.release(System.nanoTime() - started);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${bookshelf.throttling.expire-interval}")
+    void expireIdleClients() {
+        rateLimiter.expire(System.nanoTime());
+    }
+
+    static String key(String method, String route, String client) {
+        return route + ' ' + method + ' ' + client;
+    }
+
+    private static String route(HttpServletRequest request, Object handler) {
+        var pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return handler instanceof HandlerMethod && pattern != null ? pattern.toString() : UNMATCHED;
+    }
+
+    @SuppressWarnings("unchecked")
+    private boolean isExcluded(HttpServletRequest request, String route) {
+        var concurrency = properties.getConcurrency();
+        if (concurrency.getExcludedEndpoints().contains(route)) {
+            return true;
+        }
+        var produced = (Collection<MediaType>) request.getAttribute(HandlerMapping.PRODUCIBLE_MEDIA_TYPES_ATTRIBUTE);
+        return produced != null && produced.stream().anyMatch(concurrency.getExcludedMediaTypes()::contains);
+    }
+
+    private String client(HttpServletRequest request) {
+        var header = properties.getClientHeader();
+        var client = header != null ? request.getHeader(header) : null;
+        return client != null ? client : request.getRemoteAddr();
+    }
+
+    private static void reject(HttpServletResponse response, HttpStatus status, long retryAfter) throws IOException {
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(Math.max(1, retryAfter)));
+        response.sendError(status.value());
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.bookshelfdemo.throttling;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+@Component
+@ConfigurationProperties("bookshelf.throttling")
+@Getter
+@Setter
+class ThrottlingProperties {
+
+    private boolean enabled;
+    private String clientHeader;
+    private int maxClients = 10_000;
+    private Rate defaults = new Rate();
+    private Map<String, Rate> endpoints = new HashMap<>();
+    private Concurrency concurrency = new Concurrency();
+
+    Rate rate(String path) {
+        return endpoints.getOrDefault(path, defaults);
+    }
+
+    @Getter
+    @Setter
+    static class Rate {
+
+        private double perSecond = 100;
+        private int burst = 200;
+    }
+
+    @Getter
+    @Setter
+    static class Concurrency {
+
+        private int initialLimit = 50;
+        private int minLimit = 10;
+        private int maxLimit = 500;
+        private double tolerance = 2.0;
+        private int probeInterval = 1000;
+        private Set<String> excludedEndpoints = Set.of("/books:import", "/books:export");
+        private Set<MediaType> excludedMediaTypes = Set.of(MediaType.TEXT_EVENT_STREAM, MediaType.valueOf("application/x-ndjson"));
+    }
+}
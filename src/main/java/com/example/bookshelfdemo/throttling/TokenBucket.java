@@ -0,0 +1,39 @@
+package com.example.bookshelfdemo.throttling;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+final class TokenBucket {
+
+    private final long interval;
+    private final long capacity;
+    private final AtomicLong emptyAt;
+
+    TokenBucket(double perSecond, int burst, long now) {
+        this.interval = Math.max(1, (long) (TimeUnit.SECONDS.toNanos(1) / perSecond));
+        this.capacity = interval * burst;
+        this.emptyAt = new AtomicLong(now);
+    }
+
+    long tryAcquire(long now) {
+        var refreshed = false;
+        while (true) {
+            var current = emptyAt.get();
+            var next = Math.max(current, now) + interval;
+            var wait = next - now - capacity;
+            if (wait > 0) {
+                if (refreshed) {
+                    return wait;
+                }
+                now = System.nanoTime();
+                refreshed = true;
+            } else if (emptyAt.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+
+    boolean isFull(long now) {
+        return emptyAt.get() <= now;
+    }
+}
@@ -0,0 +1,259 @@
+package com.example.bookshelfdemo.book;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import org.apache.commons.io.FileUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles({"test", "reactive"})
+class ReactiveBookControllerTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private ReactiveBookRepository bookRepository;
+
+    @Autowired
+    private ConnectionFactory connectionFactory;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private static Stream<Arguments> invalidBookRequestAndResponseParams() {
+        return Stream.of(
+                Arguments.of("save/book_incorrect_isbn.json", "error/incorrect_isbn.json"),
+                Arguments.of("save/book_rating_to_high.json", "error/incorrect_rating.json"),
+                Arguments.of("save/book_rating_to_low.json", "error/incorrect_rating.json"),
+                Arguments.of("save/book_no_rating.json", "error/no_rating.json"),
+                Arguments.of("save/book_no_pages.json", "error/no_pages.json"),
+                Arguments.of("save/book_pages_to_low.json", "error/pages_to_low.json"),
+                Arguments.of("save/book_no_author.json", "error/no_author.json"),
+                Arguments.of("save/book_no_title.json", "error/no_title.json")
+        );
+    }
+
+    @AfterEach
+    void cleanUp() {
+        Flux.usingWhen(connectionFactory.create(),
+                connection -> connection.createStatement("delete from book").execute(),
+                Connection::close, Connection::close)
+                .blockLast();
+    }
+
+    @ParameterizedTest
+    @MethodSource("invalidBookRequestAndResponseParams")
+    void saveBook_InvalidBook_BadRequestWithErrors(String requestPath, String responsePath) throws Exception {
+        //when
+        var response = webTestClient.post()
+                .uri("/books")
+                .contentType(MediaType.APPLICATION_JSON)
+                .syncBody(readJson(requestPath))
+                .exchange();
+
+        //then
+        response.expectStatus().isBadRequest()
+                .expectBody().json(readJson(responsePath));
+    }
+
+    @Test
+    void saveBook_CorrectBook_BookPersisted() throws Exception {
+        //when
+        var saved = webTestClient.post()
+                .uri("/books")
+                .contentType(MediaType.APPLICATION_JSON)
+                .syncBody(readJson("save/correct_book_with_x.json"))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(Book.class)
+                .returnResult()
+                .getResponseBody();
+
+        //then
+        assertThat(saved.getId()).isNotNull();
+        assertThat(bookRepository.findById(saved.getId()).block()).isEqualTo(saved);
+        assertThat(saved.getIsbn()).isEqualTo("978316148410X");
+    }
+
+    @Test
+    void saveBook_DuplicatedIsbn_ConflictReturned() throws Exception {
+        // given
+        bookRepository.save(new Book("9781617290459", "A", "X", 12, 3)).block();
+
+        //when
+        var response = webTestClient.post()
+                .uri("/books")
+                .contentType(MediaType.APPLICATION_JSON)
+                .syncBody(readJson("save/correct_book.json"))
+                .exchange();
+
+        //then
+        response.expectStatus().isEqualTo(HttpStatus.CONFLICT);
+    }
+
+    @Test
+    void findById_NoBook_NotFoundReturned() throws Exception {
+        //when
+        var response = webTestClient.get().uri("/books/1").exchange();
+
+        //then
+        response.expectStatus().isNotFound()
+                .expectBody().json(readJson("error/book_not_found.json"));
+    }
+
+    @Test
+    void findByIsbn_IsbnWithDashes_BookReturned() {
+        // given
+        var book = bookRepository.save(new Book("9781617290459", "A", "X", 12, 3)).block();
+
+        //when
+        var response = webTestClient.get().uri("/books/isbn/978-1-61729-045-9").exchange();
+
+        //then
+        response.expectStatus().isOk()
+                .expectBody(Book.class).isEqualTo(book);
+    }
+
+    @Test
+    void findBooks_FullPage_NextPageLinkReturned() {
+        // given
+        var first = bookRepository.save(new Book("9781617290459", "A", "X", 12, 3)).block();
+        var second = bookRepository.save(new Book("9781617290473", "B", "X", 12, 4)).block();
+        bookRepository.save(new Book("9780306406157", "C", "RRR", 12, 5)).block();
+
+        //when
+        var response = webTestClient.get().uri("/books?author=X&limit=2").exchange();
+
+        //then
+        response.expectStatus().isOk()
+                .expectHeader().valueMatches(HttpHeaders.LINK, ".*/books\\?author=X&limit=2&after=" + second.getId() + ">; rel=\"next\"")
+                .expectBodyList(Book.class).isEqualTo(List.of(first, second));
+    }
+
+    @Test
+    void findBooks_MinRatingAfterCursor_FilteredPageWithoutLink() {
+        // given
+        var first = bookRepository.save(new Book("9781617290459", "A", "X", 12, 3)).block();
+        var second = bookRepository.save(new Book("9781617290473", "B", "X", 12, 4)).block();
+        var third = bookRepository.save(new Book("9780306406157", "C", "RRR", 12, 5)).block();
+
+        //when
+        var response = webTestClient.get().uri("/books?minRating=4&after=" + first.getId()).exchange();
+
+        //then
+        response.expectStatus().isOk()
+                .expectHeader().doesNotExist(HttpHeaders.LINK)
+                .expectBodyList(Book.class).isEqualTo(List.of(second, third));
+    }
+
+    @Test
+    void findBooks_LimitTooHigh_BadRequestReturned() {
+        //when
+        var response = webTestClient.get().uri("/books?limit=1001").exchange();
+
+        //then
+        response.expectStatus().isBadRequest();
+    }
+
+    @Test
+    void streamBooks_NdjsonAccepted_OneBookPerLine() {
+        // given
+        var first = bookRepository.save(new Book("9781617290459", "A", "X", 12, 3)).block();
+        var second = bookRepository.save(new Book("9781617290473", "B", "RRR", 12, 3)).block();
+
+        //when
+        var response = webTestClient.get()
+                .uri("/books")
+                .accept(MediaType.valueOf(BookStreamer.APPLICATION_NDJSON_VALUE))
+                .exchange();
+
+        //then
+        var body = response.expectStatus().isOk()
+                .expectHeader().contentType(BookStreamer.APPLICATION_NDJSON_VALUE)
+                .expectBody(String.class)
+                .returnResult()
+                .getResponseBody();
+        var books = body.lines().map(this::readBook).collect(Collectors.toList());
+        assertThat(books).containsExactly(first, second);
+    }
+
+    @Test
+    void updateBook_ExistingBook_BookUpdated() throws Exception {
+        // given
+        var book = bookRepository.save(new Book("9781617290473", "A", "X", 12, 3)).block();
+
+        //when
+        var response = webTestClient.put()
+                .uri("/books/" + book.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .syncBody(readJson("update/book.json"))
+                .exchange();
+
+        //then
+        response.expectStatus().isOk();
+        assertThat(bookRepository.findById(book.getId()).block().getTitle()).isEqualTo("Lord of the Rings");
+    }
+
+    @Test
+    void updateBook_NoBook_NotFoundReturned() throws Exception {
+        //when
+        var response = webTestClient.put()
+                .uri("/books/1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .syncBody(readJson("update/book.json"))
+                .exchange();
+
+        //then
+        response.expectStatus().isNotFound();
+    }
+
+    @Test
+    void deleteBook_ExistingBook_BookRemoved() {
+        // given
+        var book = bookRepository.save(new Book("9781617290459", "A", "X", 12, 3)).block();
+
+        //when
+        var response = webTestClient.delete().uri("/books/" + book.getId()).exchange();
+
+        //then
+        response.expectStatus().isOk();
+        assertThat(bookRepository.findById(book.getId()).block()).isNull();
+        webTestClient.delete().uri("/books/" + book.getId()).exchange().expectStatus().isNotFound();
+    }
+
+    private Book readBook(String json) {
+        try {
+            return objectMapper.readValue(json, Book.class);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private String readJson(String fileName) throws Exception {
+        return FileUtils.readFileToString(new File(getClass().getClassLoader().getResource(fileName).getFile()), Charset.defaultCharset());
+    }
+}
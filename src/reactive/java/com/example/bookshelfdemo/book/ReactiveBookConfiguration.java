@@ -0,0 +1,59 @@
+package com.example.bookshelfdemo.book;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.codec.CodecCustomizer;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+
+import java.time.Duration;
+import java.util.List;
+
+@Configuration
+@Profile("reactive")
+class ReactiveBookConfiguration {
+
+    private static final MediaType APPLICATION_NDJSON = MediaType.valueOf(BookStreamer.APPLICATION_NDJSON_VALUE);
+
+    private final ObjectMapper objectMapper;
+
+    @Autowired
+    ReactiveBookConfiguration(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    @Bean(destroyMethod = "dispose")
+    ConnectionPool connectionFactory(@Value("${bookshelf.r2dbc.url}") String url,
+                                     @Value("${bookshelf.r2dbc.pool.initial-size}") int initialSize,
+                                     @Value("${bookshelf.r2dbc.pool.max-size}") int maxSize,
+                                     @Value("${bookshelf.r2dbc.pool.max-idle-time}") Duration maxIdleTime) {
+        return new ConnectionPool(ConnectionPoolConfiguration.builder(ConnectionFactories.get(url))
+                .initialSize(initialSize)
+                .maxSize(maxSize)
+                .maxIdleTime(maxIdleTime)
+                .build());
+    }
+
+    @Bean
+    NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+
+    @Bean
+    CodecCustomizer ndjsonCodecCustomizer() {
+        return configurer -> {
+            var encoder = new Jackson2JsonEncoder(objectMapper,
+                    MediaType.APPLICATION_JSON, new MediaType("application", "*+json"), APPLICATION_NDJSON);
+            encoder.setStreamingMediaTypes(List.of(APPLICATION_NDJSON, MediaType.APPLICATION_STREAM_JSON));
+            configurer.defaultCodecs().jackson2JsonEncoder(encoder);
+        };
+    }
+}
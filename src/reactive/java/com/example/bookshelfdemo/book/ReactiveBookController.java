@@ -0,0 +1,94 @@
+package com.example.bookshelfdemo.book;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import javax.validation.Valid;
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
+import java.util.List;
+
+@RestController
+@Validated
+@Profile("reactive")
+public class ReactiveBookController {
+
+    private static final int MAX_PAGE_SIZE = 1000;
+
+    private final ReactiveBookRepository bookRepository;
+
+    @Autowired
+    ReactiveBookController(ReactiveBookRepository bookRepository) {
+        this.bookRepository = bookRepository;
+    }
+
+    @GetMapping("/books")
+    public Mono<ResponseEntity<List<Book>>> findAll(@RequestParam(required = false) String author,
+                                                    @RequestParam(required = false) @Min(1) @Max(5) Integer minRating,
+                                                    @RequestParam(defaultValue = "0") Long after,
+                                                    @RequestParam(defaultValue = "20") @Min(1) @Max(MAX_PAGE_SIZE) int limit,
+                                                    ServerHttpRequest request) {
+        return bookRepository.findPage(author, minRating, after, limit)
+                .collectList()
+                .map(books -> {
+                    var response = ResponseEntity.ok();
+                    if (books.size() == limit) {
+                        response.header(HttpHeaders.LINK, nextPageLink(request, books.get(books.size() - 1).getId()));
+                    }
+                    return response.body(books);
+                });
+    }
+
+    @GetMapping(value = "/books", produces = BookStreamer.APPLICATION_NDJSON_VALUE)
+    public Flux<Book> streamAll() {
+        return bookRepository.findAll();
+    }
+
+    @GetMapping("/books/isbn/{isbn}")
+    public Mono<Book> findByIsbn(@PathVariable String isbn) {
+        return bookRepository.findByIsbn(ISBNParser.parse(isbn))
+                .switchIfEmpty(Mono.defer(() -> Mono.error(new BookNotFoundException(isbn))));
+    }
+
+    @GetMapping("/books/{id}")
+    public Mono<Book> findById(@PathVariable Long id) {
+        return bookRepository.findById(id)
+                .switchIfEmpty(Mono.defer(() -> Mono.error(new BookNotFoundException(id))));
+    }
+
+    @PostMapping("/books")
+    public Mono<Book> save(@RequestBody @Valid Book book) {
+        book.setIsbn(ISBNParser.parse(book.getIsbn()));
+        return bookRepository.save(book);
+    }
+
+    @PutMapping("/books/{id}")
+    public Mono<Book> update(@RequestBody @Valid Book book, @PathVariable Long id) {
+        book.setId(id);
+        book.setIsbn(ISBNParser.parse(book.getIsbn()));
+        return bookRepository.updateById(id, book)
+                .flatMap(updated -> updated == 0 ? Mono.error(new BookNotFoundException(id)) : Mono.just(book));
+    }
+
+    @DeleteMapping("/books/{id}")
+    public Mono<Void> delete(@PathVariable Long id) {
+        return bookRepository.removeById(id)
+                .flatMap(removed -> removed == 0 ? Mono.error(new BookNotFoundException(id)) : Mono.empty());
+    }
+
+    private static String nextPageLink(ServerHttpRequest request, Long after) {
+        var next = UriComponentsBuilder.fromHttpRequest(request)
+                .replaceQueryParam("after", after)
+                .toUriString();
+        return String.format("<%s>; rel=\"next\"", next);
+    }
+
+}
@@ -0,0 +1,130 @@
+package com.example.bookshelfdemo.book;
+
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.Result;
+import io.r2dbc.spi.Row;
+import io.r2dbc.spi.RowMetadata;
+import io.r2dbc.spi.Statement;
+import org.reactivestreams.Publisher;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import javax.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+@Repository
+@Profile("reactive")
+class ReactiveBookRepository {
+
+    private static final List<String> SCHEMA = List.of(
+            "create table if not exists book (id bigint auto_increment primary key, isbn varchar(255) not null, " +
+                    "title varchar(255), author varchar(255), number_of_pages integer, rating integer)",
+            "create unique index if not exists ux_book_isbn on book (isbn)",
+            "create index if not exists ix_book_author_id on book (author, id)",
+            "create index if not exists ix_book_rating_id on book (rating, id)");
+    private static final String SELECT_BOOK = "select id, isbn, title, author, number_of_pages, rating from book";
+    private static final String INSERT_BOOK =
+            "insert into book (isbn, title, author, number_of_pages, rating) values ($1, $2, $3, $4, $5)";
+    private static final String UPDATE_BOOK =
+            "update book set isbn = $1, title = $2, author = $3, number_of_pages = $4, rating = $5 where id = $6";
+    private static final String DELETE_BOOK = "delete from book where id = $1";
+
+    private final ConnectionFactory connectionFactory;
+
+    @Autowired
+    ReactiveBookRepository(ConnectionFactory connectionFactory) {
+        this.connectionFactory = connectionFactory;
+    }
+
+    @PostConstruct
+    void createSchema() {
+        withConnection(connection -> Flux.fromIterable(SCHEMA)
+                .concatMap(sql -> Flux.from(connection.createStatement(sql).execute()))
+                .concatMap(Result::getRowsUpdated))
+                .blockLast();
+    }
+
+    Mono<Book> findById(Long id) {
+        return query(SELECT_BOOK + " where id = $1", id).next();
+    }
+
+    Mono<Book> findByIsbn(String isbn) {
+        return query(SELECT_BOOK + " where isbn = $1", isbn).next();
+    }
+
+    Flux<Book> findPage(String author, Integer minRating, Long after, int limit) {
+        var sql = new StringBuilder(SELECT_BOOK).append(" where id > $1");
+        var parameters = new ArrayList<Object>();
+        parameters.add(after);
+        if (author != null) {
+            parameters.add(author);
+            sql.append(" and author = $").append(parameters.size());
+        }
+        if (minRating != null) {
+            parameters.add(minRating);
+            sql.append(" and rating >= $").append(parameters.size());
+        }
+        parameters.add(limit);
+        sql.append(" order by id limit $").append(parameters.size());
+        return query(sql.toString(), parameters.toArray());
+    }
+
+    Flux<Book> findAll() {
+        return query(SELECT_BOOK + " order by id");
+    }
+
+    Mono<Book> save(Book book) {
+        return withConnection(connection -> bind(connection.createStatement(INSERT_BOOK),
+                book.getIsbn(), book.getTitle(), book.getAuthor(), book.getNumberOfPages(), book.getRating())
+                .returnGeneratedValues("id")
+                .execute())
+                .concatMap(result -> result.map((row, metadata) -> row.get(0, Long.class)))
+                .next()
+                .map(id -> {
+                    book.setId(id);
+                    return book;
+                });
+    }
+
+    Mono<Integer> updateById(Long id, Book book) {
+        return update(UPDATE_BOOK,
+                book.getIsbn(), book.getTitle(), book.getAuthor(), book.getNumberOfPages(), book.getRating(), id);
+    }
+
+    Mono<Integer> removeById(Long id) {
+        return update(DELETE_BOOK, id);
+    }
+
+    private Flux<Book> query(String sql, Object... parameters) {
+        return withConnection(connection -> bind(connection.createStatement(sql), parameters).execute())
+                .concatMap(result -> result.map(ReactiveBookRepository::toBook));
+    }
+
+    private Mono<Integer> update(String sql, Object... parameters) {
+        return withConnection(connection -> Flux.from(bind(connection.createStatement(sql), parameters).execute())
+                .concatMap(Result::getRowsUpdated))
+                .reduce(0, Integer::sum);
+    }
+
+    private <T> Flux<T> withConnection(Function<Connection, Publisher<T>> action) {
+        return Flux.usingWhen(connectionFactory.create(), action, Connection::close, Connection::close);
+    }
+
+    private static Statement bind(Statement statement, Object... parameters) {
+        for (int i = 0; i < parameters.length; i++) {
+            statement.bind(i, parameters[i]);
+        }
+        return statement;
+    }
+
+    private static Book toBook(Row row, RowMetadata metadata) {
+        return new Book(row.get("id", Long.class), row.get("isbn", String.class), row.get("title", String.class),
+                row.get("author", String.class), row.get("number_of_pages", Integer.class), row.get("rating", Integer.class));
+    }
+}
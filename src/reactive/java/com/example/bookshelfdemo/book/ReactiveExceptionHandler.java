@@ -0,0 +1,55 @@
+package com.example.bookshelfdemo.book;
+
+import io.r2dbc.spi.R2dbcDataIntegrityViolationException;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.support.DefaultMessageSourceResolvable;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.support.WebExchangeBindException;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+
+import javax.validation.ConstraintViolationException;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+@ControllerAdvice(assignableTypes = ReactiveBookController.class)
+@Profile("reactive")
+public class ReactiveExceptionHandler {
+
+    @ExceptionHandler(WebExchangeBindException.class)
+    public ResponseEntity<Object> webExchangeBindException(WebExchangeBindException exception) {
+        Map<String, Object> body = new HashMap<>();
+        body.put("timestamp", LocalDateTime.now());
+        body.put("httpStatus", HttpStatus.BAD_REQUEST.value());
+        body.put("errors", extractErrors(exception));
+        return ResponseEntity.badRequest().body(body);
+    }
+
+    private List<String> extractErrors(WebExchangeBindException exception) {
+        return exception.getFieldErrors()
+                .stream()
+                .map(DefaultMessageSourceResolvable::getDefaultMessage)
+                .collect(Collectors.toList());
+    }
+
+    @ExceptionHandler(ConstraintViolationException.class)
+    public Mono<Void> constraintViolationException(ConstraintViolationException exception) {
+        return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST, exception.getMessage()));
+    }
+
+    @ExceptionHandler(R2dbcDataIntegrityViolationException.class)
+    public Mono<Void> dataIntegrityViolationException(R2dbcDataIntegrityViolationException exception) {
+        return Mono.error(new ResponseStatusException(HttpStatus.CONFLICT, exception.getMessage()));
+    }
+
+    @ExceptionHandler(BookNotFoundException.class)
+    public Mono<Void> bookNotFoundException(BookNotFoundException exception) {
+        return Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND, exception.getMessage()));
+    }
+}
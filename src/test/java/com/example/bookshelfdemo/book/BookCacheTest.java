@@ -0,0 +1,194 @@
+package com.example.bookshelfdemo.book;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class BookCacheTest {
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @AfterEach
+    void cleanUp() {
+        bookRepository.deleteAllInBatch();
+        booksCache().clear();
+    }
+
+    @Test
+    void findById_CalledTwice_SecondCallServedFromCache() {
+        // given
+        var book = bookRepository.save(new Book("9781617290459", "A", "X", 12, 3));
+        booksCache().clear();
+
+        // when
+        var first = bookRepository.findById(book.getId());
+        var second = bookRepository.findById(book.getId());
+
+        // then
+        assertThat(first).isPresent();
+        assertThat(second.get()).isSameAs(first.get());
+        assertThat(booksCache().get(book.getId())).isNotNull();
+    }
+
+    @Test
+    void findById_NoEntity_EmptyResultNotCached() {
+        // when
+        var result = bookRepository.findById(5L);
+
+        // then
+        assertThat(result).isEmpty();
+        assertThat(booksCache().get(5L)).isNull();
+    }
+
+    @Test
+    void save_ExistingEntity_CachedEntryReplaced() {
+        // given
+        var book = bookRepository.save(new Book("9781617290459", "A", "X", 12, 3));
+        bookRepository.findById(book.getId());
+
+        // when
+        bookRepository.save(new Book(book.getId(), "9781617290459", "B", "X", 12, 5));
+
+        // then
+        assertThat(bookRepository.findById(book.getId()).get().getTitle()).isEqualTo("B");
+    }
+
+    @Test
+    void deleteById_CachedEntity_EntryEvicted() {
+        // given
+        var book = bookRepository.save(new Book("9781617290459", "A", "X", 12, 3));
+        bookRepository.findById(book.getId());
+
+        // when
+        bookRepository.deleteById(book.getId());
+
+        // then
+        assertThat(booksCache().get(book.getId())).isNull();
+        assertThat(bookRepository.findById(book.getId())).isEmpty();
+    }
+
+    @Test
+    void updateById_CachedEntity_EntryEvicted() {
+        // given
+        var book = bookRepository.save(new Book("9781617290459", "A", "X", 12, 3));
+        bookRepository.findById(book.getId());
+
+        // when
+        bookRepository.updateById(book.getId(), new Book(book.getId(), "9781617290459", "B", "X", 12, 5));
+
+        // then
+        assertThat(booksCache().get(book.getId())).isNull();
+        assertThat(bookRepository.findById(book.getId()).get().getTitle()).isEqualTo("B");
+    }
+
+    @Test
+    void removeById_CachedEntity_EntryEvicted() {
+        // given
+        var book = bookRepository.save(new Book("9781617290459", "A", "X", 12, 3));
+        bookRepository.findById(book.getId());
+
+        // when
+        bookRepository.removeById(book.getId());
+
+        // then
+        assertThat(booksCache().get(book.getId())).isNull();
+        assertThat(bookRepository.findById(book.getId())).isEmpty();
+    }
+
+    @Test
+    void batchUpdate_CachedEntity_EntryEvicted() {
+        // given
+        var book = bookRepository.save(new Book("9781617290459", "A", "X", 12, 3));
+        bookRepository.findById(book.getId());
+
+        // when
+        bookRepository.batchUpdate(List.of(new Book(book.getId(), "9781617290459", "B", "X", 12, 5)));
+
+        // then
+        assertThat(booksCache().get(book.getId())).isNull();
+        assertThat(bookRepository.findById(book.getId()).get().getTitle()).isEqualTo("B");
+    }
+
+    @Test
+    void batchUpdateAndBatchDelete_OtherCachedEntity_EntryKept() {
+        // given
+        var book = bookRepository.save(new Book("9781617290459", "A", "X", 12, 3));
+        var other = bookRepository.save(new Book("9783161484100", "C", "Y", 12, 3));
+        bookRepository.findById(other.getId());
+
+        // when
+        bookRepository.batchUpdate(List.of(new Book(book.getId(), "9781617290459", "B", "X", 12, 5)));
+        bookRepository.batchDelete(List.of(book.getId()));
+
+        // then
+        assertThat(booksCache().get(other.getId())).isNotNull();
+    }
+
+    @Test
+    void updateById_StaleEntryCachedBeforeCommit_EntryEvictedAfterCommit() {
+        // given
+        var book = bookRepository.save(new Book("9781617290459", "A", "X", 12, 3));
+
+        // when
+        new TransactionTemplate(transactionManager).execute(status -> {
+            bookRepository.updateById(book.getId(), new Book(book.getId(), "9781617290459", "B", "X", 12, 5));
+            CompletableFuture.runAsync(() -> booksCache().put(book.getId(), book)).join();
+            return null;
+        });
+
+        // then
+        assertThat(booksCache().get(book.getId())).isNull();
+        assertThat(bookRepository.findById(book.getId()).get().getTitle()).isEqualTo("B");
+    }
+
+    @Test
+    void save_TransactionRolledBack_NothingCached() {
+        // when
+        var book = new TransactionTemplate(transactionManager).execute(status -> {
+            var saved = bookRepository.save(new Book("9781617290459", "A", "X", 12, 3));
+            status.setRollbackOnly();
+            return saved;
+        });
+
+        // then
+        assertThat(booksCache().get(book.getId())).isNull();
+        assertThat(bookRepository.findById(book.getId())).isEmpty();
+    }
+
+    @Test
+    void saveAll_CachedEntity_EntryKept() {
+        // given
+        var book = bookRepository.save(new Book("9781617290459", "A", "X", 12, 3));
+        bookRepository.findById(book.getId());
+
+        // when
+        bookRepository.saveAll(List.of(new Book("9783161484100", "B", "Y", 100, 4)));
+
+        // then
+        assertThat(booksCache().get(book.getId())).isNotNull();
+    }
+
+    private Cache booksCache() {
+        return cacheManager.getCache(BookRepository.BOOKS_CACHE);
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.bookshelfdemo.book;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.commons.io.FileUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "bookshelf.catalogue.file=target/catalogue-test/books.snapshot",
+        "bookshelf.catalogue.refresh-interval=PT1H"
+})
+@ActiveProfiles("catalogue")
+class BookCatalogueControllerTest {
+
+    private static final Path FILE = Path.of("target/catalogue-test/books.snapshot");
+    private static final Book JAVA_8_IN_ACTION = new Book(1L, "9781617290473", "Java 8 in Action", "Raoul-Gabriel Urma", 424, 5);
+    private static final Book EFFECTIVE_JAVA = new Book(2L, "9783161484100", "Effective Java", "Joshua Bloch", 412, 5);
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private BookCatalogue bookCatalogue;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @BeforeAll
+    static void writeSnapshot() throws IOException {
+        FileUtils.deleteDirectory(new File("target/catalogue-test"));
+        Files.createDirectories(FILE.getParent());
+        BookSnapshot.write(Stream.of(JAVA_8_IN_ACTION, EFFECTIVE_JAVA), new ObjectMapper(), FILE);
+    }
+
+    @AfterEach
+    void restoreSnapshot() throws IOException {
+        BookSnapshot.write(Stream.of(JAVA_8_IN_ACTION, EFFECTIVE_JAVA), objectMapper, FILE);
+        bookCatalogue.refresh();
+    }
+
+    @Test
+    void findById_BookInSnapshot_JsonAndETagReturned() throws Exception {
+        //when
+        var response = restTemplate.getForEntity("/books/2", String.class);
+
+        //then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getHeaders().getETag()).isEqualTo("\"0-json\"");
+        assertThat(objectMapper.readValue(response.getBody(), Book.class)).isEqualTo(EFFECTIVE_JAVA);
+    }
+
+    @Test
+    void findById_MatchingIfNoneMatch_NotModifiedReturned() {
+        // given
+        var headers = new HttpHeaders();
+        headers.setIfNoneMatch("\"0\"");
+
+        //when
+        var response = restTemplate.exchange("/books/1", HttpMethod.GET, new HttpEntity<>(headers), String.class);
+
+        //then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+    }
+
+    @Test
+    void findByIsbn_IsbnWithDashes_BookReturned() throws Exception {
+        //when
+        var response = restTemplate.getForEntity("/books/isbn/978-1-61729-047-3", String.class);
+
+        //then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(objectMapper.readValue(response.getBody(), Book.class)).isEqualTo(JAVA_8_IN_ACTION);
+    }
+
+    @Test
+    void findById_BookNotInSnapshot_NotFoundReturned() {
+        //when
+        var response = restTemplate.getForEntity("/books/3", String.class);
+
+        //then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+    }
+
+    @Test
+    void refresh_SnapshotReplaced_NewSnapshotServed() throws Exception {
+        // given
+        var added = new Book(3L, "9781617290459", "Spring in Action", "Craig Walls", 520, 4);
+        BookSnapshot.write(Stream.of(EFFECTIVE_JAVA, added), objectMapper, FILE);
+
+        //when
+        bookCatalogue.refresh();
+
+        //then
+        var response = restTemplate.getForEntity("/books/3", String.class);
+        assertThat(objectMapper.readValue(response.getBody(), Book.class)).isEqualTo(added);
+        assertThat(restTemplate.getForEntity("/books/1", String.class).getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+    }
+}
@@ -0,0 +1,277 @@
+package com.example.bookshelfdemo.book;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.Mockito.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "bookshelf.changes.stream-timeout=PT1S")
+@ActiveProfiles("test")
+class BookChangesTest {
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private BookChangeRepository bookChangeRepository;
+
+    @Autowired
+    private BookChangePublisher bookChangePublisher;
+
+    @Autowired
+    private BookChangeBus bookChangeBus;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private long start;
+
+    @BeforeEach
+    void setUp() {
+        bookChangePublisher.publish();
+        start = bookChangeRepository.findLastPosition();
+    }
+
+    @AfterEach
+    void cleanUp() {
+        bookRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void saveUpdateDelete_ChangesPublishedInOrder() {
+        // given
+        var published = new CopyOnWriteArrayList<BookChange>();
+        var unsubscribe = bookChangeBus.subscribe(published::addAll);
+
+        //when
+        var saved = restTemplate.postForEntity("/books", new Book("9781617290459", "A", "X", 12, 3), Book.class).getBody();
+        restTemplate.put("/books/" + saved.getId(), new Book("9781617290459", "B", "X", 12, 4));
+        restTemplate.delete("/books/" + saved.getId());
+        bookChangePublisher.publish();
+        unsubscribe.run();
+
+        //then
+        assertThat(published).extracting(BookChange::getType)
+                .containsExactly(BookChange.Type.CREATED, BookChange.Type.UPDATED, BookChange.Type.DELETED);
+        assertThat(published).extracting(BookChange::getBookId).containsOnly(saved.getId());
+        assertThat(published).extracting(BookChange::getTitle).containsExactly("A", "B", null);
+        assertThat(published).extracting(BookChange::getPosition).containsExactly(start + 1, start + 2, start + 3);
+    }
+
+    @Test
+    void update_UnknownBook_NoChangeRecorded() {
+        // given
+        var recorded = bookChangeRepository.count();
+
+        //when
+        var response = restTemplate.exchange("/books/999", HttpMethod.PUT,
+                new HttpEntity<>(new Book("9781617290459", "B", "X", 12, 4)), String.class);
+
+        //then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+        assertThat(bookChangeRepository.count()).isEqualTo(recorded);
+    }
+
+    @Test
+    void update_IsbnTakenByAnotherBook_ConflictReturnedAndNoChangeRecorded() {
+        // given
+        restTemplate.postForEntity("/books", new Book("9781617290459", "A", "X", 12, 3), Book.class);
+        var other = restTemplate.postForEntity("/books", new Book("9783161484100", "B", "Y", 100, 4), Book.class).getBody();
+        var recorded = bookChangeRepository.count();
+
+        //when
+        var response = restTemplate.exchange("/books/" + other.getId(), HttpMethod.PUT,
+                new HttpEntity<>(new Book("9781617290459", "B", "Y", 100, 4)), String.class);
+
+        //then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.CONFLICT);
+        assertThat(response.getBody()).contains("ISBN 9781617290459 already exists");
+        assertThat(bookChangeRepository.count()).isEqualTo(recorded);
+        assertThat(bookRepository.findAllById(List.of(other.getId()))).extracting(Book::getIsbn).containsExactly("9783161484100");
+    }
+
+    @Test
+    void deleteAll_SomeBooksMissing_OnlyDeletedBooksRecorded() {
+        // given
+        var saved = restTemplate.postForEntity("/books", new Book("9781617290459", "A", "X", 12, 3), Book.class).getBody();
+
+        //when
+        restTemplate.exchange("/books:batch", HttpMethod.DELETE, new HttpEntity<>(List.of(saved.getId(), 999L)), String.class);
+        bookChangePublisher.publish();
+
+        //then
+        assertThat(bookChangeRepository.findByPositionGreaterThanOrderByPositionAsc(start, PageRequest.of(0, 10)))
+                .extracting(BookChange::getType, BookChange::getBookId)
+                .containsExactly(tuple(BookChange.Type.CREATED, saved.getId()), tuple(BookChange.Type.DELETED, saved.getId()));
+    }
+
+    @Test
+    void publishAt_PositionTakenByAnotherPublisher_PositionKept() {
+        // given
+        var saved = restTemplate.postForEntity("/books", new Book("9781617290459", "A", "X", 12, 3), Book.class).getBody();
+        bookChangePublisher.publish();
+        var change = changesOf(saved.getId()).get(0);
+
+        //when
+        var updated = bookChangeRepository.publishAt(change.getId(), change.getPosition() + 1000);
+
+        //then
+        assertThat(updated).isZero();
+        assertThat(changesOf(saved.getId())).extracting(BookChange::getPosition).containsExactly(change.getPosition());
+    }
+
+    @Test
+    void changes_Since_LaterChangesStreamed() throws IOException {
+        // given
+        restTemplate.postForEntity("/books", new Book("9781617290459", "A", "X", 12, 3), Book.class);
+        var second = restTemplate.postForEntity("/books", new Book("9783161484100", "B", "Y", 100, 4), Book.class).getBody();
+        var third = restTemplate.postForEntity("/books", new Book("9781617290473", "C", "Z", 200, 5), Book.class).getBody();
+        bookChangePublisher.publish();
+        var since = start + 1;
+
+        //when
+        var stream = restTemplate.getForObject("/books/changes?since={since}", String.class, since);
+
+        //then
+        var changes = changes(stream);
+        assertThat(changes).extracting(change -> change.get("bookId").asLong())
+                .containsExactly(second.getId(), third.getId());
+        assertThat(lastEventId(stream)).isEqualTo(Long.toString(since + 2));
+    }
+
+    @Test
+    void changes_LastEventId_StreamResumed() throws IOException {
+        // given
+        restTemplate.postForEntity("/books", new Book("9781617290459", "A", "X", 12, 3), Book.class);
+        var second = restTemplate.postForEntity("/books", new Book("9783161484100", "B", "Y", 100, 4), Book.class).getBody();
+        bookChangePublisher.publish();
+        var headers = new HttpHeaders();
+        headers.set("Last-Event-ID", Long.toString(start + 1));
+
+        //when
+        var stream = restTemplate.exchange("/books/changes", HttpMethod.GET, new HttpEntity<>(headers), String.class).getBody();
+
+        //then
+        assertThat(changes(stream)).extracting(change -> change.get("bookId").asLong()).containsExactly(second.getId());
+    }
+
+    @Test
+    void changes_ChangePublishedWhileStreaming_DeliveredOnce() throws Exception {
+        // given
+        var stream = CompletableFuture.supplyAsync(() ->
+                restTemplate.getForObject("/books/changes?since={since}", String.class, start));
+
+        //when
+        var saved = restTemplate.postForEntity("/books", new Book("9781617290459", "A", "X", 12, 3), Book.class).getBody();
+        bookChangePublisher.publish();
+
+        //then
+        assertThat(changes(stream.get())).extracting(change -> change.get("bookId").asLong())
+                .containsExactly(saved.getId());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void accept_SubscriberQueueFull_SubscriberDroppedWithoutBlockingPublisher() throws Exception {
+        // given
+        var repository = mock(BookChangeRepository.class);
+        var bus = mock(BookChangeBus.class);
+        var unsubscribe = mock(Runnable.class);
+        var replaying = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+        when(bus.subscribe(any())).thenReturn(unsubscribe);
+        when(repository.findByPositionGreaterThanOrderByPositionAsc(anyLong(), any())).thenAnswer(invocation -> {
+            replaying.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return List.of();
+        });
+        var stream = new BookChangeStream(repository, bus, 10, Duration.ofMinutes(1), 2, 1, 1);
+        stream.open(0L);
+        ArgumentCaptor<Consumer<List<BookChange>>> subscriber = ArgumentCaptor.forClass(Consumer.class);
+        verify(bus).subscribe(subscriber.capture());
+        assertThat(replaying.await(5, TimeUnit.SECONDS)).isTrue();
+
+        //when
+        for (int i = 0; i < 3; i++) {
+            subscriber.getValue().accept(List.of(BookChange.deleted(1L)));
+        }
+
+        //then
+        verify(unsubscribe).run();
+        release.countDown();
+        stream.destroy();
+    }
+
+    @Test
+    void open_MaxStreamsOpen_Rejected() {
+        // given
+        var bus = mock(BookChangeBus.class);
+        when(bus.subscribe(any())).thenReturn(mock(Runnable.class));
+        var stream = new BookChangeStream(mock(BookChangeRepository.class), bus, 10, Duration.ofMinutes(1), 2, 1, 1);
+        stream.open(0L);
+
+        //when
+        var thrown = catchThrowable(() -> stream.open(0L));
+
+        //then
+        assertThat(thrown).isInstanceOf(BookEndpointOverloadedException.class);
+        stream.destroy();
+    }
+
+    private List<BookChange> changesOf(Long bookId) {
+        return bookChangeRepository.findByPositionGreaterThanOrderByPositionAsc(start, PageRequest.of(0, 1000)).stream()
+                .filter(change -> bookId.equals(change.getBookId()))
+                .collect(Collectors.toList());
+    }
+
+    private List<JsonNode> changes(String stream) throws IOException {
+        var changes = new ArrayList<JsonNode>();
+        for (var line : stream.split("\n")) {
+            if (line.startsWith("data:")) {
+                objectMapper.readTree(line.substring("data:".length())).forEach(changes::add);
+            }
+        }
+        return changes;
+    }
+
+    private static String lastEventId(String stream) {
+        String id = null;
+        for (var line : stream.split("\n")) {
+            if (line.startsWith("id:")) {
+                id = line.substring("id:".length());
+            }
+        }
+        return id;
+    }
+}
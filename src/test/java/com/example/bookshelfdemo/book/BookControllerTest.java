@@ -1,6 +1,10 @@
 package com.example.bookshelfdemo.book;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
 import org.apache.commons.io.FileUtils;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
@@ -11,17 +15,32 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.cache.CacheManager;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.http.*;
 import org.springframework.test.context.ActiveProfiles;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
 import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
@@ -34,10 +53,25 @@ class BookControllerTest {
     @MockBean
     private BookRepository bookRepository;
 
+    @Autowired
+    private BookSearchIndex bookSearchIndex;
+
+    @Autowired
+    private BookStatistics bookStatistics;
+
+    @Autowired
+    private BookShelfVersion bookShelfVersion;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
     private static Stream<Arguments> saveBookRequestStatusAndResponseParams() {
         return Stream.of(
-                Arguments.of("save/correct_book.json", HttpStatus.OK, null, 1),
-                Arguments.of("save/correct_book_with_x.json", HttpStatus.OK, null, 1),
+                Arguments.of("save/correct_book.json", HttpStatus.OK, "save/saved_book.json", 1),
+                Arguments.of("save/correct_book_with_x.json", HttpStatus.OK, "save/saved_book_with_x.json", 1),
                 Arguments.of("save/book_incorrect_isbn.json", HttpStatus.BAD_REQUEST, "error/incorrect_isbn.json", 0),
                 Arguments.of("save/book_rating_to_high.json", HttpStatus.BAD_REQUEST, "error/incorrect_rating.json", 0),
                 Arguments.of("save/book_rating_to_low.json", HttpStatus.BAD_REQUEST, "error/incorrect_rating.json", 0),
@@ -56,10 +90,23 @@ class BookControllerTest {
         );
     }
 
+    @BeforeEach
+    void resetSearchIndex() {
+        bookSearchIndex.rebuild();
+        bookStatistics.rebuild();
+        bookShelfVersion.changed();
+        cacheManager.getCache(BookRepository.BOOKS_CACHE).clear();
+    }
+
     @ParameterizedTest
     @MethodSource("saveBookRequestStatusAndResponseParams")
     void saveBook_WithGivenRequest_ExpectStatusAndResponse(String requestPath, HttpStatus status, String responsePath, int numberOfSaveCalls) throws Exception {
         // given
+        when(bookRepository.save(any(Book.class))).thenAnswer(invocation -> {
+            Book book = invocation.getArgument(0);
+            book.setId(1L);
+            return book;
+        });
         var requestBody = readJson(requestPath);
         var responseBody = responsePath != null ? readJson(responsePath) : null;
         HttpHeaders headers = new HttpHeaders();
@@ -79,7 +126,7 @@ class BookControllerTest {
     @MethodSource("findAllBooksStatusAndResponseParams")
     void findBooks_WithBooksSavedBefore_ExpectStatusAndResponse(List<Book> books, HttpStatus status, String responsePath) throws Exception {
         // given
-        when(bookRepository.findAll()).thenReturn(books);
+        when(bookRepository.findByIdGreaterThanOrderByIdAsc(eq(0L), any(Pageable.class))).thenReturn(books);
         var responseBody = responsePath != null ? readJson(responsePath) : null;
 
         //when
@@ -88,12 +135,291 @@ class BookControllerTest {
         //then
         assertThat(response.getStatusCode()).isEqualTo(status);
         JSONAssert.assertEquals(responseBody, response.getBody(), JSONCompareMode.LENIENT);
+        assertThat(response.getHeaders().containsKey(HttpHeaders.LINK)).isFalse();
+    }
+
+    @Test
+    void findBooks_FullPage_NextPageLinkReturned() throws Exception {
+        // given
+        var books = List.of(new Book(1L, "9781617290459", "A", "X", 12, 3), new Book(2L, "9781617290473", "B", "RRR", 12, 3));
+        when(bookRepository.findByIdGreaterThanOrderByIdAsc(0L, PageRequest.of(0, 2))).thenReturn(books);
+
+        //when
+        var response = restTemplate.getForEntity("/books?limit=2", String.class);
+
+        //then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        JSONAssert.assertEquals(readJson("findAll/books.json"), response.getBody(), JSONCompareMode.LENIENT);
+        assertThat(response.getHeaders().getFirst(HttpHeaders.LINK)).endsWith("/books?limit=2&after=2>; rel=\"next\"");
+    }
+
+    @Test
+    void findBooks_Fields_OnlyRequestedFieldsSelectedAndNextPageLinkReturned() throws Exception {
+        // given
+        var rows = List.<Map<String, Object>>of(Map.of("id", 1, "title", "A", "rating", 3), Map.of("id", 2, "title", "B", "rating", 3));
+        when(bookRepository.findFields(List.of("title", "rating"), null, null, 0L, 2)).thenReturn(rows);
+
+        //when
+        var response = restTemplate.getForEntity("/books?limit=2&fields=title,rating", String.class);
+
+        //then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        JSONAssert.assertEquals(readJson("findAll/books_fields.json"), response.getBody(), JSONCompareMode.STRICT);
+        assertThat(response.getHeaders().getFirst(HttpHeaders.LINK)).endsWith("/books?limit=2&fields=title,rating&after=2>; rel=\"next\"");
+        verify(bookRepository, times(0)).findByIdGreaterThanOrderByIdAsc(any(), any());
+    }
+
+    @Test
+    void findBooks_UnknownField_BadRequestReturned() {
+        //when
+        var response = restTemplate.getForEntity("/books?fields=title,version", String.class);
+
+        //then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        verify(bookRepository, times(0)).findFields(any(), any(), any(), any(), anyInt());
+    }
+
+    @Test
+    void findBooks_RepeatedRequest_ServedFromResponseCacheGzipped() throws Exception {
+        // given
+        var books = List.of(new Book(1L, "9781617290459", "A", "X", 12, 3), new Book(2L, "9781617290473", "B", "RRR", 12, 3));
+        when(bookRepository.findByIdGreaterThanOrderByIdAsc(0L, PageRequest.of(0, 2))).thenReturn(books);
+        var first = restTemplate.getForEntity("/books?limit=2", String.class);
+        var headers = new HttpHeaders();
+        headers.set(HttpHeaders.ACCEPT_ENCODING, "gzip");
+
+        //when
+        var response = restTemplate.exchange("/books?limit=2", HttpMethod.GET, new HttpEntity<>(headers), byte[].class);
+
+        //then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+        assertThat(response.getHeaders().getFirst(HttpHeaders.VARY)).isEqualTo("Accept, Accept-Encoding");
+        assertThat(response.getHeaders().getFirst(HttpHeaders.LINK)).isEqualTo(first.getHeaders().getFirst(HttpHeaders.LINK));
+        assertThat(response.getHeaders().getETag()).isEqualTo(first.getHeaders().getETag());
+        try (var body = new GZIPInputStream(new ByteArrayInputStream(response.getBody()))) {
+            JSONAssert.assertEquals(first.getBody(), new String(body.readAllBytes(), StandardCharsets.UTF_8), JSONCompareMode.STRICT);
+        }
+        verify(bookRepository, times(1)).findByIdGreaterThanOrderByIdAsc(any(), any());
+    }
+
+    @Test
+    void findBooks_ShelfChangedAfterCaching_PageQueriedAgain() {
+        // given
+        when(bookRepository.findByIdGreaterThanOrderByIdAsc(0L, PageRequest.of(0, 20)))
+                .thenReturn(List.of(new Book(1L, "9781617290459", "A", "X", 12, 3)));
+        restTemplate.getForEntity("/books", String.class);
+        when(bookRepository.removeById(1L)).thenReturn(1);
+        restTemplate.delete("/books/1");
+        when(bookRepository.findByIdGreaterThanOrderByIdAsc(0L, PageRequest.of(0, 20))).thenReturn(List.of());
+
+        //when
+        var response = restTemplate.getForEntity("/books", String.class);
+
+        //then
+        assertThat(response.getBody()).isEqualTo("[]");
+        verify(bookRepository, times(2)).findByIdGreaterThanOrderByIdAsc(any(), any());
+    }
+
+    @Test
+    void findBooks_AcceptSmileRepeated_NotCached() {
+        // given
+        var headers = new HttpHeaders();
+        headers.setAccept(List.of(MediaType.valueOf(BookWireFormatConfiguration.APPLICATION_SMILE_VALUE)));
+        restTemplate.exchange("/books", HttpMethod.GET, new HttpEntity<>(headers), byte[].class);
+
+        //when
+        restTemplate.exchange("/books", HttpMethod.GET, new HttpEntity<>(headers), byte[].class);
+
+        //then
+        verify(bookRepository, times(2)).findByIdGreaterThanOrderByIdAsc(any(), any());
+    }
+
+    @Test
+    void findBooks_LimitTooHigh_BadRequestReturned() {
+        //when
+        var response = restTemplate.getForEntity("/books?limit=1001", String.class);
+
+        //then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        verify(bookRepository, times(0)).findByIdGreaterThanOrderByIdAsc(any(), any());
+    }
+
+    @Test
+    void streamBooks_NdjsonAccepted_BooksWrittenLineByLine() {
+        // given
+        when(bookRepository.streamAll()).thenReturn(Stream.of(new Book(1L, "9781617290459", "A", "X", 12, 3), new Book(2L, "9781617290473", "B", "RRR", 12, 3)));
+        var headers = new HttpHeaders();
+        headers.setAccept(List.of(MediaType.valueOf("application/x-ndjson")));
+
+        //when
+        var response = restTemplate.exchange("/books", HttpMethod.GET, new HttpEntity<>(headers), String.class);
+
+        //then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getHeaders().getContentType()).isEqualTo(MediaType.valueOf("application/x-ndjson"));
+        assertThat(response.getBody()).isEqualTo(
+                "{\"id\":1,\"isbn\":\"9781617290459\",\"title\":\"A\",\"author\":\"X\",\"numberOfPages\":12,\"rating\":3}\n" +
+                "{\"id\":2,\"isbn\":\"9781617290473\",\"title\":\"B\",\"author\":\"RRR\",\"numberOfPages\":12,\"rating\":3}\n");
+        verify(bookRepository, times(0)).findAll();
+    }
+
+    @Test
+    void searchBooks_IndexedBooks_RankedBooksReturned() throws Exception {
+        // given
+        var book = new Book(1L, "9781617290459", "A", "X", 12, 3);
+        var book2 = new Book(2L, "9781617290473", "B", "RRR", 12, 3);
+        bookSearchIndex.index(book);
+        bookSearchIndex.index(book2);
+        when(bookRepository.findAllById(List.of(2L))).thenReturn(List.of(book2));
+
+        //when
+        var response = restTemplate.getForEntity("/books/search?q=rrr", String.class);
+
+        //then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        JSONAssert.assertEquals("[" + objectMapper.writeValueAsString(book2) + "]", response.getBody(), JSONCompareMode.STRICT);
+    }
+
+    @Test
+    void saveBook_BookIndexedForSearch() throws Exception {
+        // given
+        when(bookRepository.save(any(Book.class))).thenAnswer(invocation -> {
+            Book book = invocation.getArgument(0);
+            book.setId(7L);
+            return book;
+        });
+        var headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+
+        //when
+        restTemplate.postForEntity("/books", new HttpEntity<>(readJson("save/correct_book.json"), headers), String.class);
+
+        //then
+        assertThat(bookSearchIndex.search("tolkien", 0, 10)).containsExactly(7L);
+        when(bookRepository.removeById(7L)).thenReturn(1);
+        restTemplate.delete("/books/7");
+        assertThat(bookSearchIndex.search("tolkien", 0, 10)).isEmpty();
+    }
+
+    @Test
+    void findBooks_ByAuthor_AuthorPageReturned() throws Exception {
+        // given
+        var books = List.of(new Book(2L, "9781617290473", "B", "RRR", 12, 3));
+        when(bookRepository.findByAuthorAndIdGreaterThanOrderByIdAsc("RRR", 1L, PageRequest.of(0, 20))).thenReturn(books);
+
+        //when
+        var response = restTemplate.getForEntity("/books?author=RRR&after=1", String.class);
+
+        //then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        JSONAssert.assertEquals("[" + objectMapper.writeValueAsString(books.get(0)) + "]", response.getBody(), JSONCompareMode.STRICT);
+    }
+
+    @Test
+    void findBooks_ByMinRating_RatingPageReturned() throws Exception {
+        // given
+        when(bookRepository.findByRatingGreaterThanEqualAndIdGreaterThanOrderByIdAsc(3, 0L, PageRequest.of(0, 20)))
+                .thenReturn(List.of(new Book(1L, "9781617290459", "A", "X", 12, 3), new Book(2L, "9781617290473", "B", "RRR", 12, 3)));
+
+        //when
+        var response = restTemplate.getForEntity("/books?minRating=3", String.class);
+
+        //then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        JSONAssert.assertEquals(readJson("findAll/books.json"), response.getBody(), JSONCompareMode.LENIENT);
+    }
+
+    @Test
+    void findBooks_ByAuthorAndMinRating_MatchingPageReturned() throws Exception {
+        // given
+        when(bookRepository.findByAuthorAndRatingGreaterThanEqualAndIdGreaterThanOrderByIdAsc("X", 4, 0L, PageRequest.of(0, 20)))
+                .thenReturn(Collections.emptyList());
+
+        //when
+        var response = restTemplate.getForEntity("/books?author=X&minRating=4", String.class);
+
+        //then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        JSONAssert.assertEquals(readJson("findAll/no_books.json"), response.getBody(), JSONCompareMode.LENIENT);
+        verify(bookRepository, times(1)).findByAuthorAndRatingGreaterThanEqualAndIdGreaterThanOrderByIdAsc("X", 4, 0L, PageRequest.of(0, 20));
+    }
+
+    @Test
+    void findBooks_MinRatingOutOfRange_BadRequestReturned() {
+        //when
+        var response = restTemplate.getForEntity("/books?minRating=6", String.class);
+
+        //then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+
+    @Test
+    void findBookByIsbn_EntityExist_BookReturned() throws Exception {
+        // given
+        var book = new Book(1L, "9781617290459", "A", "X", 12, 3);
+        when(bookRepository.findByIsbn("9781617290459")).thenReturn(Optional.of(book));
+
+        //when
+        var response = restTemplate.getForEntity("/books/isbn/978-1-61729-045-9", String.class);
+
+        //then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        JSONAssert.assertEquals(readJson("findById/book.json"), response.getBody(), JSONCompareMode.LENIENT);
+    }
+
+    @Test
+    void findBookByIsbn_EntityNotExist_BookNotFoundThrownAnd404Returned() throws Exception {
+        // given
+        when(bookRepository.findByIsbn("9781617290459")).thenReturn(Optional.empty());
+
+        //when
+        var response = restTemplate.getForEntity("/books/isbn/978-1-61729-045-9", String.class);
+
+        //then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+        JSONAssert.assertEquals(readJson("error/book_by_isbn_not_found.json"), response.getBody(), JSONCompareMode.LENIENT);
+    }
+
+    @Test
+    void saveBook_ClientSuppliedId_IdIgnored() throws Exception {
+        // given
+        when(bookRepository.save(any(Book.class))).thenAnswer(invocation -> {
+            Book book = invocation.getArgument(0);
+            assertThat(book.getId()).isNull();
+            book.setId(1L);
+            return book;
+        });
+        var headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        var request = new HttpEntity<>(readJson("save/correct_book.json").replace("{", "{\"id\": 42,"), headers);
+
+        //when
+        var response = restTemplate.postForEntity("/books", request, Book.class);
+
+        //then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody().getId()).isEqualTo(1L);
+    }
+
+    @Test
+    void saveBook_IsbnAlreadyExists_ConflictReturned() throws Exception {
+        // given
+        when(bookRepository.save(any(Book.class))).thenThrow(new DataIntegrityViolationException("ux_book_isbn"));
+        var headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+
+        //when
+        var response = restTemplate.postForEntity("/books", new HttpEntity<>(readJson("save/correct_book.json"), headers), String.class);
+
+        //then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.CONFLICT);
     }
 
     @Test
     void findBookById_EntityNotExist_BookNotFoundThrownAnd404Returned() throws Exception {
         // given
-        when(bookRepository.findById(1L)).thenReturn(Optional.empty());
+        when(bookRepository.findAllById(List.of(1L))).thenReturn(List.of());
 
         //when
         var response = restTemplate.getForEntity("/books/1", String.class);
@@ -101,14 +427,14 @@ class BookControllerTest {
         //then
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
         JSONAssert.assertEquals(readJson("error/book_not_found.json"), response.getBody(), JSONCompareMode.LENIENT);
-        verify(bookRepository, times(1)).findById(1L);
+        verify(bookRepository, times(1)).findAllById(List.of(1L));
     }
 
     @Test
     void findBookById_EntityExist_BookReturned() throws Exception {
         // given
         var book = new Book(1L, "9781617290459", "A", "X", 12, 3);
-        when(bookRepository.findById(1L)).thenReturn(Optional.of(book));
+        when(bookRepository.findAllById(List.of(1L))).thenReturn(List.of(book));
 
         //when
         var response = restTemplate.getForEntity("/books/1", String.class);
@@ -116,13 +442,375 @@ class BookControllerTest {
         //then
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
         JSONAssert.assertEquals(readJson("findById/book.json"), response.getBody(), JSONCompareMode.LENIENT);
-        verify(bookRepository, times(1)).findById(1L);
+        verify(bookRepository, times(1)).findAllById(List.of(1L));
+    }
+
+    @Test
+    void findBookById_BlockingMode_HandlerRunOnRequestThread() {
+        // given
+        var threads = new CopyOnWriteArrayList<String>();
+        when(bookRepository.findAllById(List.of(1L))).thenAnswer(invocation -> {
+            threads.add(Thread.currentThread().getName());
+            return List.of(new Book(1L, "9781617290459", "A", "X", 12, 3));
+        });
+
+        //when
+        var response = restTemplate.getForEntity("/books/1", Book.class);
+
+        //then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(threads).hasSize(1).allMatch(thread -> thread.startsWith("http-nio-"));
+    }
+
+    @Test
+    void findBookById_MatchingIfNoneMatch_NotModifiedReturnedWithoutLoadingBook() {
+        // given
+        when(bookRepository.findVersionById(1L)).thenReturn(Optional.of(new BookVersion(3L, Instant.parse("2019-07-01T10:00:00Z"))));
+        var headers = new HttpHeaders();
+        headers.setIfNoneMatch("\"3\"");
+
+        //when
+        var response = restTemplate.exchange("/books/1", HttpMethod.GET, new HttpEntity<>(headers), String.class);
+
+        //then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(response.getHeaders().getETag()).isEqualTo("\"3\"");
+        assertThat(response.getHeaders().getLastModified()).isEqualTo(Instant.parse("2019-07-01T10:00:00Z").toEpochMilli());
+        assertThat(response.getBody()).isNull();
+        verify(bookRepository, times(0)).findAllById(any());
+    }
+
+    @Test
+    void findBookById_StaleIfNoneMatch_BookReturnedWithETag() throws Exception {
+        // given
+        var book = new Book(1L, "9781617290459", "A", "X", 12, 3);
+        book.setVersion(4L);
+        when(bookRepository.findVersionById(1L)).thenReturn(Optional.of(new BookVersion(4L, null)));
+        when(bookRepository.findAllById(List.of(1L))).thenReturn(List.of(book));
+        var headers = new HttpHeaders();
+        headers.setIfNoneMatch("\"3\"");
+
+        //when
+        var response = restTemplate.exchange("/books/1", HttpMethod.GET, new HttpEntity<>(headers), String.class);
+
+        //then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getHeaders().get(HttpHeaders.ETAG)).containsExactly("\"4-json\"");
+        assertThat(response.getHeaders().getVary()).contains(HttpHeaders.ACCEPT);
+        JSONAssert.assertEquals(readJson("findById/book.json"), response.getBody(), JSONCompareMode.LENIENT);
+    }
+
+    @Test
+    void findBookById_AcceptSmile_SmileVariantETagReturned() {
+        // given
+        var book = new Book(1L, "9781617290459", "A", "X", 12, 3);
+        book.setVersion(4L);
+        when(bookRepository.findAllById(List.of(1L))).thenReturn(List.of(book));
+        var headers = new HttpHeaders();
+        headers.setAccept(List.of(MediaType.valueOf(BookWireFormatConfiguration.APPLICATION_SMILE_VALUE)));
+
+        //when
+        var response = restTemplate.exchange("/books/1", HttpMethod.GET, new HttpEntity<>(headers), byte[].class);
+
+        //then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getHeaders().getETag()).isEqualTo("\"4-smile\"");
+    }
+
+    @Test
+    void findBookById_MatchingVariantIfNoneMatch_NotModifiedReturnedWithThatVariant() {
+        // given
+        when(bookRepository.findVersionById(1L)).thenReturn(Optional.of(new BookVersion(3L, null)));
+        var headers = new HttpHeaders();
+        headers.setIfNoneMatch("\"3-cbor\"");
+
+        //when
+        var response = restTemplate.exchange("/books/1", HttpMethod.GET, new HttpEntity<>(headers), String.class);
+
+        //then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(response.getHeaders().getETag()).isEqualTo("\"3-cbor\"");
+        assertThat(response.getHeaders().getVary()).contains(HttpHeaders.ACCEPT);
+    }
+
+    @Test
+    void findAllBooks_MatchingShelfETag_NotModifiedReturnedWithoutQuery() {
+        // given
+        var etag = restTemplate.getForEntity("/books", String.class).getHeaders().getETag();
+        var headers = new HttpHeaders();
+        headers.setIfNoneMatch(etag);
+
+        //when
+        var response = restTemplate.exchange("/books", HttpMethod.GET, new HttpEntity<>(headers), String.class);
+
+        //then
+        assertThat(etag).startsWith("W/");
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(response.getHeaders().getETag()).isEqualTo(etag);
+        assertThat(response.getHeaders().getVary()).containsExactly(HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING);
+        verify(bookRepository, times(1)).findByIdGreaterThanOrderByIdAsc(eq(0L), any(Pageable.class));
+    }
+
+    @Test
+    void stats_MatchingShelfETag_NotModifiedReturnedWithVary() {
+        // given
+        var etag = restTemplate.getForEntity("/books/stats", String.class).getHeaders().getETag();
+        var headers = new HttpHeaders();
+        headers.setIfNoneMatch(etag);
+
+        //when
+        var response = restTemplate.exchange("/books/stats", HttpMethod.GET, new HttpEntity<>(headers), String.class);
+
+        //then
+        assertThat(etag).startsWith("W/");
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(response.getHeaders().getVary()).containsExactly(HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING);
+    }
+
+    @Test
+    void findAllBooks_ShelfChanged_NewETagReturned() {
+        // given
+        var etag = restTemplate.getForEntity("/books", String.class).getHeaders().getETag();
+        when(bookRepository.removeById(1L)).thenReturn(1);
+        restTemplate.delete("/books/1");
+        var headers = new HttpHeaders();
+        headers.setIfNoneMatch(etag);
+
+        //when
+        var response = restTemplate.exchange("/books", HttpMethod.GET, new HttpEntity<>(headers), String.class);
+
+        //then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getHeaders().getETag()).isNotEqualTo(etag);
+    }
+
+    @Test
+    void updateBook_StaleIfMatch_PreconditionFailedReturned() throws Exception {
+        // given
+        when(bookRepository.findVersionById(1L)).thenReturn(Optional.of(new BookVersion(4L, null)));
+        var headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.setIfMatch("\"3\"");
+        var request = new HttpEntity<>(readJson("update/book.json"), headers);
+
+        //when
+        var response = restTemplate.exchange("/books/1", HttpMethod.PUT, request, String.class);
+
+        //then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.PRECONDITION_FAILED);
+        verify(bookRepository, times(0)).updateByIdAndVersion(any(), any(), any());
+        verify(bookRepository, times(0)).updateById(any(), any());
+    }
+
+    @Test
+    void updateBook_MatchingIfMatch_BookUpdatedAndNewETagReturned() throws Exception {
+        // given
+        var bookForUpdate = new Book(1L, "9783161484100", "Lord of the Rings", "J.R.R. Tolkien", 11 ,5);
+        when(bookRepository.findVersionById(1L)).thenReturn(Optional.of(new BookVersion(3L, null)));
+        when(bookRepository.updateByIdAndVersion(1L, 3L, bookForUpdate)).thenReturn(1);
+        var headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.setIfMatch("\"3\"");
+        var request = new HttpEntity<>(readJson("update/book.json"), headers);
+
+        //when
+        var response = restTemplate.exchange("/books/1", HttpMethod.PUT, request, String.class);
+
+        //then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getHeaders().getETag()).isEqualTo("\"4-json\"");
+        assertThat(response.getHeaders().getLastModified()).isPositive();
+    }
+
+    @Test
+    void updateBook_IfMatchWithVariant_VariantIgnoredAndBookUpdated() throws Exception {
+        // given
+        var bookForUpdate = new Book(1L, "9783161484100", "Lord of the Rings", "J.R.R. Tolkien", 11 ,5);
+        when(bookRepository.findVersionById(1L)).thenReturn(Optional.of(new BookVersion(3L, null)));
+        when(bookRepository.updateByIdAndVersion(1L, 3L, bookForUpdate)).thenReturn(1);
+        var headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.setIfMatch("\"3-smile\"");
+        var request = new HttpEntity<>(readJson("update/book.json"), headers);
+
+        //when
+        var response = restTemplate.exchange("/books/1", HttpMethod.PUT, request, String.class);
+
+        //then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getHeaders().getETag()).isEqualTo("\"4-json\"");
+    }
+
+    @Test
+    void updateBook_WithoutIfMatch_BookUpdatedWithoutReadingItBack() throws Exception {
+        // given
+        var bookForUpdate = new Book(1L, "9783161484100", "Lord of the Rings", "J.R.R. Tolkien", 11 ,5);
+        when(bookRepository.updateById(1L, bookForUpdate)).thenReturn(1);
+        var before = Instant.now().getEpochSecond() * 1000;
+        var headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        var request = new HttpEntity<>(readJson("update/book.json"), headers);
+
+        //when
+        var response = restTemplate.exchange("/books/1", HttpMethod.PUT, request, String.class);
+
+        //then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getHeaders().getETag()).isNull();
+        assertThat(response.getHeaders().getLastModified()).isGreaterThanOrEqualTo(before);
+        verify(bookRepository, times(1)).updateById(1L, bookForUpdate);
+        verify(bookRepository, times(0)).findVersionById(any());
+        verify(bookRepository, times(0)).findByIsbn(any());
+    }
+
+    @Test
+    void updateBook_ConcurrentModification_PreconditionFailedReturned() throws Exception {
+        // given
+        when(bookRepository.findVersionById(1L)).thenReturn(Optional.of(new BookVersion(3L, null)));
+        when(bookRepository.updateByIdAndVersion(eq(1L), eq(3L), any(Book.class))).thenReturn(0);
+        var headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.setIfMatch("\"3\"");
+        var request = new HttpEntity<>(readJson("update/book.json"), headers);
+
+        //when
+        var response = restTemplate.exchange("/books/1", HttpMethod.PUT, request, String.class);
+
+        //then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.PRECONDITION_FAILED);
+    }
+
+    @Test
+    void deleteBook_StaleIfMatch_PreconditionFailedReturned() {
+        // given
+        when(bookRepository.findVersionById(1L)).thenReturn(Optional.of(new BookVersion(4L, null)));
+        var headers = new HttpHeaders();
+        headers.setIfMatch("\"3\"");
+
+        //when
+        var response = restTemplate.exchange("/books/1", HttpMethod.DELETE, new HttpEntity<>(headers), String.class);
+
+        //then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.PRECONDITION_FAILED);
+        verify(bookRepository, times(0)).removeByIdAndVersion(any(), any());
+        verify(bookRepository, times(0)).removeById(any());
+    }
+
+    @Test
+    void findBookById_Fields_OnlyRequestedFieldsReturnedWithETag() throws Exception {
+        // given
+        var row = new LinkedHashMap<String, Object>(Map.of("id", 1, "title", "A", "version", 2L));
+        when(bookRepository.findFieldsById(1L, List.of("title"))).thenReturn(Optional.of(row));
+
+        //when
+        var response = restTemplate.getForEntity("/books/1?fields=title", String.class);
+
+        //then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getHeaders().getETag()).isEqualTo("\"2-json\"");
+        JSONAssert.assertEquals("{\"id\":1,\"title\":\"A\"}", response.getBody(), JSONCompareMode.STRICT);
+        verify(bookRepository, times(0)).findAllById(any());
+    }
+
+    @Test
+    void stats_BookSavedAndDeleted_AggregatesUpdatedWithoutQueries() throws Exception {
+        // given
+        when(bookRepository.save(any(Book.class))).thenAnswer(invocation -> {
+            Book book = invocation.getArgument(0);
+            book.setId(7L);
+            return book;
+        });
+        var headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        restTemplate.postForEntity("/books", new HttpEntity<>(readJson("save/correct_book.json"), headers), String.class);
+
+        //when
+        var afterSave = restTemplate.getForEntity("/books/stats", BookStats.class);
+        when(bookRepository.removeById(7L)).thenReturn(1);
+        restTemplate.delete("/books/7");
+        var afterDelete = restTemplate.getForEntity("/books/stats", BookStats.class);
+
+        //then
+        assertThat(afterSave.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(afterSave.getBody().getBooks()).isEqualTo(1);
+        assertThat(afterSave.getBody().getTopAuthors()).hasSize(1);
+        assertThat(afterDelete.getBody().getBooks()).isZero();
+        assertThat(afterDelete.getHeaders().getETag()).isNotEqualTo(afterSave.getHeaders().getETag());
+        verify(bookRepository, times(0)).count();
+    }
+
+    @Test
+    void findBooks_AcceptSmile_SmileEncodedBooksReturned() throws Exception {
+        // given
+        var books = List.of(new Book(1L, "9781617290459", "A", "X", 12, 3), new Book(2L, "9781617290473", "B", "RRR", 12, 3));
+        when(bookRepository.findByIdGreaterThanOrderByIdAsc(eq(0L), any(Pageable.class))).thenReturn(books);
+        var headers = new HttpHeaders();
+        headers.setAccept(List.of(MediaType.valueOf(BookWireFormatConfiguration.APPLICATION_SMILE_VALUE)));
+
+        //when
+        var response = restTemplate.exchange("/books", HttpMethod.GET, new HttpEntity<>(headers), byte[].class);
+
+        //then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getHeaders().getContentType().isCompatibleWith(MediaType.valueOf(BookWireFormatConfiguration.APPLICATION_SMILE_VALUE))).isTrue();
+        assertThat(new ObjectMapper(new SmileFactory()).readValue(response.getBody(), Book[].class)).containsExactlyElementsOf(books);
+    }
+
+    @Test
+    void findBookById_AnyAccept_JsonReturned() {
+        // given
+        when(bookRepository.findAllById(List.of(1L))).thenReturn(List.of(new Book(1L, "9781617290459", "A", "X", 12, 3)));
+        var headers = new HttpHeaders();
+        headers.setAccept(List.of(MediaType.ALL));
+
+        //when
+        var response = restTemplate.exchange("/books/1", HttpMethod.GET, new HttpEntity<>(headers), String.class);
+
+        //then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getHeaders().getContentType()).isEqualTo(MediaType.APPLICATION_JSON_UTF8);
+    }
+
+    @Test
+    void saveBook_CborRequestAndAccept_CborEncodedBookReturned() throws Exception {
+        // given
+        var cborMapper = new ObjectMapper(new CBORFactory());
+        when(bookRepository.save(any(Book.class))).thenAnswer(invocation -> {
+            Book book = invocation.getArgument(0);
+            book.setId(7L);
+            return book;
+        });
+        var headers = new HttpHeaders();
+        headers.setContentType(MediaType.valueOf(BookWireFormatConfiguration.APPLICATION_CBOR_VALUE));
+        headers.setAccept(List.of(MediaType.valueOf(BookWireFormatConfiguration.APPLICATION_CBOR_VALUE)));
+        var body = cborMapper.writeValueAsBytes(new Book("978-3-16-148410-0", "Lord of the Rings", "J.R.R. Tolkien", 1200, 5));
+
+        //when
+        var response = restTemplate.exchange("/books", HttpMethod.POST, new HttpEntity<>(body, headers), byte[].class);
+
+        //then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(cborMapper.readValue(response.getBody(), Book.class))
+                .isEqualTo(new Book(7L, "9783161484100", "Lord of the Rings", "J.R.R. Tolkien", 1200, 5));
+    }
+
+    @Test
+    void objectMapper_SmileAndCborConvertersRegistered_ApplicationMapperStaysJson() throws Exception {
+        // given
+        var book = new Book(1L, "9781617290459", "A", "X", 12, 3);
+
+        //when
+        var json = objectMapper.writeValueAsString(book);
+
+        //then
+        assertThat(objectMapper.getFactory().getFormatName()).isEqualTo("JSON");
+        assertThat(objectMapper.readValue(json, Book.class)).isEqualTo(book);
     }
 
     @Test
     void deleteBook_EntityNotExist_BookNotFoundThrownAnd404Returned() throws Exception {
         // given
-        when(bookRepository.findById(1L)).thenReturn(Optional.empty());
+        when(bookRepository.removeById(1L)).thenReturn(0);
         var request = new HttpEntity<>(null);
 
         //when
@@ -131,14 +819,13 @@ class BookControllerTest {
         //then
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
         JSONAssert.assertEquals(readJson("error/book_not_found.json"), response.getBody(), JSONCompareMode.LENIENT);
-        verify(bookRepository, times(0)).deleteById(any());
+        verify(bookRepository, times(1)).removeById(1L);
     }
 
     @Test
-    void deleteBook_EntityExist_BookDeleted() {
+    void deleteBook_EntityExist_BookDeletedWithoutLoadingIt() {
         // given
-        var book = new Book(1L, "9781617290459", "A", "X", 12, 3);
-        when(bookRepository.findById(1L)).thenReturn(Optional.of(book));
+        when(bookRepository.removeById(1L)).thenReturn(1);
         var request = new HttpEntity<>(null);
 
         //when
@@ -146,13 +833,14 @@ class BookControllerTest {
 
         //then
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
-        verify(bookRepository, times(1)).delete(book);
+        verify(bookRepository, times(1)).removeById(1L);
+        verify(bookRepository, times(0)).findAllById(any());
     }
 
     @Test
     void updateBook_EntityNotExist_BookNotFoundThrownAnd404Returned() throws Exception {
         // given
-        when(bookRepository.findById(1L)).thenReturn(Optional.empty());
+        when(bookRepository.updateById(eq(1L), any(Book.class))).thenReturn(0);
         var headers = new HttpHeaders();
         headers.add("Content-Type", MediaType.APPLICATION_JSON_VALUE);
         var request = new HttpEntity<>(readJson("update/book.json"), headers);
@@ -167,12 +855,28 @@ class BookControllerTest {
     }
 
     @Test
-    void updateBook_EntityExist_BookUpdated() throws Exception {
+    void updateBook_IsbnTakenByAnotherBook_ConflictReturned() throws Exception {
+        // given
+        when(bookRepository.updateById(eq(1L), any(Book.class)))
+                .thenThrow(new DataIntegrityViolationException("Unique index or primary key violation: \"UX_BOOK_ISBN ON PUBLIC.BOOK(ISBN)\""));
+        var headers = new HttpHeaders();
+        headers.add("Content-Type", MediaType.APPLICATION_JSON_VALUE);
+        var request = new HttpEntity<>(readJson("update/book.json"), headers);
+
+        //when
+        var response = restTemplate.exchange("/books/1", HttpMethod.PUT, request, String.class);
+
+        //then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.CONFLICT);
+        assertThat(response.getBody()).contains("ISBN 9783161484100 already exists");
+        verify(bookRepository, times(0)).findByIsbn(any());
+    }
+
+    @Test
+    void updateBook_EntityExist_BookUpdatedWithoutLoadingIt() throws Exception {
         // given
-        var book = new Book(1L, "9781617290459", "A", "X", 12, 3);
-        when(bookRepository.findById(1L)).thenReturn(Optional.of(book));
         var bookForUpdate = new Book(1L, "9783161484100", "Lord of the Rings", "J.R.R. Tolkien", 11 ,5);
-        when(bookRepository.save(bookForUpdate)).thenReturn(bookForUpdate);
+        when(bookRepository.updateById(1L, bookForUpdate)).thenReturn(1);
         var headers = new HttpHeaders();
         headers.add("Content-Type", MediaType.APPLICATION_JSON_VALUE);
         var request = new HttpEntity<>(readJson("update/book.json"), headers);
@@ -182,10 +886,123 @@ class BookControllerTest {
 
         //then
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
-        verify(bookRepository, times(1)).save(any(Book.class));
+        verify(bookRepository, times(1)).updateById(1L, bookForUpdate);
+        verify(bookRepository, times(0)).findAllById(any());
+        verify(bookRepository, times(0)).save(any());
         JSONAssert.assertEquals(readJson("update/book.json"), response.getBody(), JSONCompareMode.LENIENT);
     }
 
+    @Test
+    void saveBooksBatch_ValidAndInvalidBooks_ValidSavedInOneCallAndPerItemResultsReturned() throws Exception {
+        // given
+        when(bookRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<Book> books = invocation.getArgument(0);
+            books.get(0).setId(1L);
+            return books;
+        });
+        var headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        var request = new HttpEntity<>(readJson("batch/save_books.json"), headers);
+
+        //when
+        var response = restTemplate.postForEntity("/books:batch", request, String.class);
+
+        //then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        JSONAssert.assertEquals(readJson("batch/save_results.json"), response.getBody(), JSONCompareMode.STRICT_ORDER);
+        verify(bookRepository, times(1)).saveAll(List.of(new Book(1L, "978316148410X", "Lord of the Rings", "J.R.R. Tolkien", 120, 5)));
+    }
+
+    @Test
+    void saveBooksBatch_DuplicatedIsbns_OnlyFirstNewIsbnSaved() throws Exception {
+        // given
+        when(bookRepository.findExistingIsbns(Set.of("978316148410X", "9781617290459"))).thenReturn(Set.of("9781617290459"));
+        when(bookRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<Book> books = invocation.getArgument(0);
+            books.get(0).setId(1L);
+            return books;
+        });
+        var headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        var request = new HttpEntity<>(readJson("batch/save_duplicated_isbn_books.json"), headers);
+
+        //when
+        var response = restTemplate.postForEntity("/books:batch", request, String.class);
+
+        //then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        JSONAssert.assertEquals(readJson("batch/save_duplicated_isbn_results.json"), response.getBody(), JSONCompareMode.STRICT_ORDER);
+        verify(bookRepository, times(1)).saveAll(List.of(new Book(1L, "978316148410X", "Lord of the Rings", "J.R.R. Tolkien", 120, 5)));
+    }
+
+    @Test
+    void updateBooksBatch_ExistingAndMissingBooks_PerItemResultsReturned() throws Exception {
+        // given
+        when(bookRepository.batchUpdate(anyList())).thenReturn(new int[]{1, 0});
+        var headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        var request = new HttpEntity<>(readJson("batch/update_books.json"), headers);
+
+        //when
+        var response = restTemplate.exchange("/books:batch", HttpMethod.PUT, request, String.class);
+
+        //then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        JSONAssert.assertEquals(readJson("batch/update_results.json"), response.getBody(), JSONCompareMode.STRICT_ORDER);
+        verify(bookRepository, times(1)).batchUpdate(anyList());
+        verify(bookRepository, times(0)).findAllById(any());
+    }
+
+    @Test
+    void updateBooksBatch_IsbnTakenByAnotherBook_ConflictReturnedForThatItem() throws Exception {
+        // given
+        when(bookRepository.findByIsbnIn(anyCollection())).thenReturn(List.of(new Book(5L, "9781617290459", "C", "Y", 12, 3)));
+        when(bookRepository.batchUpdate(anyList())).thenReturn(new int[]{1});
+        var headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        var request = new HttpEntity<>(readJson("batch/update_books.json"), headers);
+
+        //when
+        var response = restTemplate.exchange("/books:batch", HttpMethod.PUT, request, String.class);
+
+        //then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        JSONAssert.assertEquals(readJson("batch/update_taken_isbn_results.json"), response.getBody(), JSONCompareMode.STRICT_ORDER);
+        verify(bookRepository, times(1)).batchUpdate(List.of(new Book(1L, "9783161484100", "Lord of the Rings", "J.R.R. Tolkien", 11, 5)));
+    }
+
+    @Test
+    void deleteBooksBatch_ExistingAndMissingBooks_PerItemResultsReturned() throws Exception {
+        // given
+        when(bookRepository.batchDelete(List.of(1L, 2L))).thenReturn(new int[]{1, 0});
+        var headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        var request = new HttpEntity<>("[1, 2]", headers);
+
+        //when
+        var response = restTemplate.exchange("/books:batch", HttpMethod.DELETE, request, String.class);
+
+        //then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        JSONAssert.assertEquals(readJson("batch/delete_results.json"), response.getBody(), JSONCompareMode.STRICT_ORDER);
+    }
+
+    @Test
+    void deleteBooksBatch_TooManyIds_BadRequestReturned() {
+        // given
+        var ids = LongStream.rangeClosed(1, 1001).boxed().collect(Collectors.toList());
+        var headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        var request = new HttpEntity<>(ids, headers);
+
+        //when
+        var response = restTemplate.exchange("/books:batch", HttpMethod.DELETE, request, String.class);
+
+        //then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        verify(bookRepository, times(0)).batchDelete(any());
+    }
+
     private String readJson(String fileName) throws Exception {
         return FileUtils.readFileToString(new File(getClass().getClassLoader().getResource(fileName).getFile()), Charset.defaultCharset());
     }
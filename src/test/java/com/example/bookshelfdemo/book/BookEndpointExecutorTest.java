@@ -0,0 +1,128 @@
+package com.example.bookshelfdemo.book;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "server.tomcat.max-threads=2",
+        "server.tomcat.min-spare-threads=2",
+        "bookshelf.execution.mode=bounded-async",
+        "bookshelf.execution.endpoints.search.concurrency=2",
+        "bookshelf.execution.endpoints.search.queue-capacity=0"
+})
+@ActiveProfiles("test")
+class BookEndpointExecutorTest {
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private ObjectProvider<TaskDecorator> taskDecorators;
+
+    @MockBean
+    private BookRepository bookRepository;
+
+    @Test
+    void search_SlowDatabase_OtherEndpointsServedAndExcessSearchRejected() throws Exception {
+        // given
+        var started = new CountDownLatch(2);
+        var release = new CountDownLatch(1);
+        when(bookRepository.findAllById(List.of(1L))).thenReturn(List.of(new Book(1L, "9781617290459", "A", "X", 12, 3)));
+        when(bookRepository.findAllById(List.of())).thenAnswer(invocation -> {
+            started.countDown();
+            release.await(10, TimeUnit.SECONDS);
+            return List.of();
+        });
+        var slowSearches = IntStream.range(0, 2)
+                .mapToObj(i -> CompletableFuture.supplyAsync(() -> restTemplate.getForEntity("/books/search?q=x", String.class)))
+                .collect(Collectors.toList());
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+        //when
+        var rejectedSearch = restTemplate.getForEntity("/books/search?q=x", String.class);
+        var book = restTemplate.getForEntity("/books/1", String.class);
+
+        //then
+        assertThat(rejectedSearch.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+        assertThat(rejectedSearch.getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isEqualTo("1");
+        assertThat(book.getStatusCode()).isEqualTo(HttpStatus.OK);
+        release.countDown();
+        assertThat(slowSearches.stream().map(CompletableFuture::join).map(ResponseEntity::getStatusCode))
+                .containsOnly(HttpStatus.OK);
+    }
+
+    @Test
+    void search_SlowSearchFinished_PermitsReleased() {
+        // given
+        when(bookRepository.findAllById(any())).thenReturn(List.of());
+
+        //when
+        var responses = IntStream.range(0, 5)
+                .mapToObj(i -> restTemplate.getForEntity("/books/search?q=x", String.class))
+                .collect(Collectors.toList());
+
+        //then
+        assertThat(responses.stream().map(ResponseEntity::getStatusCode)).containsOnly(HttpStatus.OK);
+    }
+
+    @Test
+    void findById_BoundedAsyncMode_HandlerRunOnEndpointExecutor() {
+        // given
+        var threads = new CopyOnWriteArrayList<String>();
+        when(bookRepository.findAllById(List.of(1L))).thenAnswer(invocation -> {
+            threads.add(Thread.currentThread().getName());
+            return List.of(new Book(1L, "9781617290459", "A", "X", 12, 3));
+        });
+
+        //when
+        var response = restTemplate.getForEntity("/books/1", Book.class);
+
+        //then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody().getTitle()).isEqualTo("A");
+        assertThat(threads).allMatch(thread -> thread.startsWith("books-findById-"));
+    }
+
+    @Test
+    void checkConnections_MoreHandlersThanPooledConnections_Rejected() {
+        // given
+        var properties = new BookExecutionProperties();
+        properties.setMode(BookExecutionProperties.Mode.BOUNDED_ASYNC);
+        var dataSource = new HikariDataSource();
+        dataSource.setMaximumPoolSize(3);
+        var dataSources = new StaticListableBeanFactory(Map.of("dataSource", dataSource)).getBeanProvider(DataSource.class);
+        var executor = new BookEndpointExecutor(properties, taskDecorators, dataSources);
+
+        //when
+        var thrown = catchThrowable(() -> executor.checkConnections(List.of("findAll", "search")));
+
+        //then
+        assertThat(thrown).isInstanceOf(IllegalStateException.class).hasMessageContaining("pool has only 3 connections");
+    }
+}
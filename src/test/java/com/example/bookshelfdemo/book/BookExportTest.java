@@ -0,0 +1,121 @@
+package com.example.bookshelfdemo.book;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.commons.io.FileUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = "bookshelf.export.fetch-size=2")
+@ActiveProfiles("test")
+class BookExportTest {
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private BookExporter bookExporter;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private List<Book> books;
+
+    @BeforeEach
+    void setUp() {
+        books = bookRepository.saveAll(List.of(
+                new Book("9781617290473", "Java 8 in Action", "Raoul-Gabriel Urma", 424, 5),
+                new Book("9780306406157", "Spring, \"Boot\" in Action", "Craig Walls", 264, 4),
+                new Book("9783161484100", "Effective Java", "Joshua Bloch", 412, 5)));
+    }
+
+    @AfterEach
+    void cleanUp() {
+        bookRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void exportBooks_DefaultFormat_GzippedNdjsonOfAllBooksReturned() throws Exception {
+        //when
+        var response = restTemplate.getForEntity("/books:export", byte[].class);
+
+        //then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getHeaders().getContentType().toString()).isEqualTo("application/gzip");
+        assertThat(response.getHeaders().getFirst(HttpHeaders.CONTENT_DISPOSITION)).contains("books.ndjson.gz");
+        var lines = gunzip(new ByteArrayInputStream(response.getBody())).split("\n");
+        assertThat(lines).hasSize(3);
+        for (int i = 0; i < lines.length; i++) {
+            assertThat(objectMapper.readValue(lines[i], Book.class)).isEqualTo(books.get(i));
+        }
+    }
+
+    @Test
+    void exportBooks_CsvFormat_GzippedCsvWithHeaderReturned() throws Exception {
+        //when
+        var response = restTemplate.getForEntity("/books:export?format=csv", byte[].class);
+
+        //then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getHeaders().getFirst(HttpHeaders.CONTENT_DISPOSITION)).contains("books.csv.gz");
+        var lines = gunzip(new ByteArrayInputStream(response.getBody())).split("\n");
+        assertThat(lines).containsExactly(
+                "id,isbn,title,author,numberOfPages,rating",
+                books.get(0).getId() + ",9781617290473,\"Java 8 in Action\",\"Raoul-Gabriel Urma\",424,5",
+                books.get(1).getId() + ",9780306406157,\"Spring, \"\"Boot\"\" in Action\",\"Craig Walls\",264,4",
+                books.get(2).getId() + ",9783161484100,\"Effective Java\",\"Joshua Bloch\",412,5");
+    }
+
+    @Test
+    void exportBooks_UnknownFormat_BadRequestReturned() {
+        //when
+        var response = restTemplate.getForEntity("/books:export?format=xml", String.class);
+
+        //then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+
+    @Test
+    void run_ExportFile_CompressedFileWrittenAndPartialFileRemoved() throws Exception {
+        // given
+        var directory = Files.createTempDirectory("book-export");
+        var file = directory.resolve("books.ndjson.gz");
+        var properties = new BookExportProperties();
+        properties.setFile(file.toString());
+
+        //when
+        new BookExportRunner(bookExporter, properties).run(null);
+
+        //then
+        try (var input = Files.newInputStream(file)) {
+            assertThat(gunzip(input).split("\n")).hasSize(3);
+        }
+        assertThat(directory.resolve("books.ndjson.gz.partial")).doesNotExist();
+        FileUtils.deleteDirectory(directory.toFile());
+    }
+
+    private static String gunzip(InputStream input) throws IOException {
+        try (var gzip = new GZIPInputStream(input)) {
+            return new String(gzip.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
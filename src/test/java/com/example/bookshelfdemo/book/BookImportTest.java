@@ -0,0 +1,172 @@
+package com.example.bookshelfdemo.book;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.commons.io.FileUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.skyscreamer.jsonassert.JSONAssert;
+import org.skyscreamer.jsonassert.JSONCompareMode;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "bookshelf.import.chunk-size=100",
+        "bookshelf.import.parallelism=4"
+})
+@ActiveProfiles("test")
+class BookImportTest {
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private BookSearchIndex bookSearchIndex;
+
+    @Autowired
+    private BookImporter bookImporter;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @AfterEach
+    void cleanUp() {
+        bookRepository.deleteAllInBatch();
+        bookSearchIndex.rebuild();
+    }
+
+    @Test
+    void importBooks_CsvWithInvalidDuplicatedAndMalformedLines_ValidImportedAndErrorsReportedPerLine() throws Exception {
+        //when
+        var response = restTemplate.postForEntity("/books:import", request(readFile("import/books.csv"), "text/csv"), String.class);
+
+        //then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        JSONAssert.assertEquals(readFile("import/books_csv_report.json"), response.getBody(), JSONCompareMode.LENIENT);
+        assertThat(bookRepository.findByIsbn("9781617290473").get().getTitle()).isEqualTo("Java 8 in Action");
+        assertThat(bookRepository.count()).isEqualTo(2);
+        assertThat(bookSearchIndex.search("action", 0, 10)).hasSize(2);
+    }
+
+    @Test
+    void importBooks_NdjsonAfterCheckpoint_CommittedLinesSkipped() throws Exception {
+        //when
+        var response = restTemplate.postForEntity("/books:import?after=2",
+                request(readFile("import/books.ndjson"), BookStreamer.APPLICATION_NDJSON_VALUE), BookImportReport.class);
+
+        //then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody().getLines()).isEqualTo(2);
+        assertThat(response.getBody().getImported()).isEqualTo(1);
+        assertThat(response.getBody().getLastCommittedLine()).isEqualTo(4);
+        assertThat(response.getBody().getErrors()).extracting(BookBatchResult::getIndex).containsExactly(3);
+        assertThat(bookRepository.findAll()).extracting(Book::getIsbn).containsExactly("9780306406157");
+    }
+
+    @Test
+    void importBooks_ManyChunksOnParallelWorkers_AllBooksImportedInOrder() {
+        // given
+        var body = IntStream.rangeClosed(1, 5000)
+                .mapToObj(i -> String.format("{\"isbn\":\"%s\",\"title\":\"T%d\",\"author\":\"A\",\"numberOfPages\":1,\"rating\":1}", isbn(i), i))
+                .collect(Collectors.joining("\n"));
+
+        //when
+        var response = restTemplate.postForEntity("/books:import",
+                request(body, BookStreamer.APPLICATION_NDJSON_VALUE), BookImportReport.class);
+
+        //then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody().getImported()).isEqualTo(5000);
+        assertThat(response.getBody().getLastCommittedLine()).isEqualTo(5000);
+        assertThat(bookRepository.count()).isEqualTo(5000);
+        var books = bookRepository.findAll();
+        assertThat(books.get(0).getTitle()).isEqualTo("T1");
+        assertThat(books.get(4999).getTitle()).isEqualTo("T5000");
+    }
+
+    @Test
+    void importBooks_CsvWithLineBreakInQuotedField_RecordImportedAndReaderStopped() {
+        // given
+        var body = "isbn,title,author,numberOfPages,rating\n"
+                + "9781617290459,\"Spring\nin \"\"Action\"\"\",Craig Walls,520,5\n"
+                + "978-1-61729-047-3,Java 8 in Action,Raoul-Gabriel Urma,424,4\n";
+
+        //when
+        var report = bookImporter.importBooks(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)),
+                BookImportFormat.CSV, 0, BookImportListener.NONE);
+
+        //then
+        assertThat(report.getImported()).isEqualTo(2);
+        assertThat(report.getLastCommittedLine()).isEqualTo(3);
+        assertThat(bookRepository.findByIsbn("9781617290459").get().getTitle()).isEqualTo("Spring\nin \"Action\"");
+        assertThat(Thread.getAllStackTraces().keySet()).extracting(Thread::getName).doesNotContain("book-import-reader");
+    }
+
+    @Test
+    void importBooks_UnsupportedContentType_UnsupportedMediaTypeReturned() {
+        //when
+        var response = restTemplate.postForEntity("/books:import", request("[]", MediaType.APPLICATION_JSON_VALUE), String.class);
+
+        //then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.UNSUPPORTED_MEDIA_TYPE);
+    }
+
+    @Test
+    void run_CheckpointPresent_ResumesAndRemovesCheckpointWhenCompleted() throws Exception {
+        // given
+        var directory = Files.createTempDirectory("book-import");
+        var file = directory.resolve("books.ndjson");
+        Files.writeString(file, readFile("import/books.ndjson"));
+        Files.writeString(directory.resolve("books.ndjson.checkpoint"), "1");
+        var properties = new BookImportProperties();
+        properties.setFile(file.toString());
+
+        //when
+        new BookImportRunner(bookImporter, properties, objectMapper).run(null);
+
+        //then
+        assertThat(bookRepository.findAll()).extracting(Book::getIsbn).containsExactlyInAnyOrder("9781617290473", "9780306406157");
+        assertThat(directory.resolve("books.ndjson.checkpoint")).doesNotExist();
+        var errors = Files.readAllLines(directory.resolve("books.ndjson.errors.ndjson"));
+        assertThat(errors).hasSize(1);
+        assertThat(objectMapper.readTree(errors.get(0)).get("index").asInt()).isEqualTo(3);
+        FileUtils.deleteDirectory(directory.toFile());
+    }
+
+    private HttpEntity<String> request(String body, String contentType) {
+        var headers = new HttpHeaders();
+        headers.setContentType(MediaType.valueOf(contentType));
+        return new HttpEntity<>(body, headers);
+    }
+
+    private static String isbn(int number) {
+        var digits = String.format("978%09d", number);
+        int sum = 0;
+        for (int i = 0; i < digits.length(); i++) {
+            sum += (digits.charAt(i) - '0') * (i % 2 == 0 ? 1 : 3);
+        }
+        return digits + (10 - sum % 10) % 10;
+    }
+
+    private String readFile(String fileName) throws Exception {
+        return FileUtils.readFileToString(new File(getClass().getClassLoader().getResource(fileName).getFile()), Charset.defaultCharset());
+    }
+}
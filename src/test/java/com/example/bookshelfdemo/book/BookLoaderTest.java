@@ -0,0 +1,238 @@
+package com.example.bookshelfdemo.book;
+
+import com.example.bookshelfdemo.datasource.ReadYourWrites;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongFunction;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class BookLoaderTest {
+
+    private final BookRepository bookRepository = mock(BookRepository.class);
+    private final ReadYourWrites readYourWrites = mock(ReadYourWrites.class);
+    private final CacheManager cacheManager = new ConcurrentMapCacheManager(BookRepository.BOOKS_CACHE);
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    @BeforeEach
+    void setUp() {
+        when(readYourWrites.read(any())).thenAnswer(invocation ->
+                new ReadYourWrites.ReplicatedRead<>(invocation.<Supplier<?>>getArgument(0).get(), Long.MAX_VALUE));
+    }
+
+    @AfterEach
+    void cleanUp() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void findById_ThunderingHerdOnOneId_SingleQuery() throws Exception {
+        // given
+        var bookLoader = bookLoader(Duration.ZERO, 100);
+        var queried = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+        when(bookRepository.findAllById(List.of(1L))).thenAnswer(invocation -> {
+            queried.countDown();
+            release.await();
+            return List.of(book(1L));
+        });
+        var first = executor.submit(() -> bookLoader.findById(1L));
+        assertThat(queried.await(10, TimeUnit.SECONDS)).isTrue();
+
+        //when
+        var herd = submitConcurrently(199, i -> bookLoader.findById(1L));
+        release.countDown();
+
+        //then
+        assertThat(first.get()).contains(book(1L));
+        for (var lookup : herd) {
+            assertThat(lookup.get()).contains(book(1L));
+        }
+        verify(bookRepository, times(1)).findAllById(List.of(1L));
+        verify(bookRepository, never()).findById(anyLong());
+    }
+
+    @Test
+    void findById_ThunderingHerdOnManyIds_OneBatchedQueryPerWindow() throws Exception {
+        // given
+        var bookLoader = bookLoader(Duration.ofMillis(200), 100);
+        var queriedIds = new ArrayList<List<Long>>();
+        when(bookRepository.findAllById(any())).thenAnswer(invocation -> {
+            Iterable<Long> ids = invocation.getArgument(0);
+            var batch = StreamSupport.stream(ids.spliterator(), false).collect(Collectors.toList());
+            queriedIds.add(batch);
+            return batch.stream().map(BookLoaderTest::book).collect(Collectors.toList());
+        });
+
+        //when
+        var results = concurrently(300, i -> bookLoader.findById(i % 10 + 1L));
+
+        //then
+        assertThat(results).allSatisfy(book -> assertThat(book).isPresent());
+        assertThat(queriedIds).hasSize(1);
+        assertThat(queriedIds.get(0)).containsExactlyInAnyOrder(1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L, 9L, 10L);
+        verify(bookRepository, never()).findById(anyLong());
+    }
+
+    @Test
+    void findById_MoreIdsThanMaxBatchSize_SplitIntoBatches() throws Exception {
+        // given
+        var bookLoader = bookLoader(Duration.ofMillis(200), 5);
+        when(bookRepository.findAllById(any())).thenAnswer(invocation -> {
+            Iterable<Long> ids = invocation.getArgument(0);
+            return StreamSupport.stream(ids.spliterator(), false).map(BookLoaderTest::book).collect(Collectors.toList());
+        });
+
+        //when
+        var results = concurrently(10, i -> bookLoader.findById(i + 1L));
+
+        //then
+        assertThat(results).allSatisfy(book -> assertThat(book).isPresent());
+        verify(bookRepository, times(2)).findAllById(any());
+    }
+
+    @Test
+    void findById_BatchedLookups_FoundBooksCachedAndMissingEmpty() throws Exception {
+        // given
+        var bookLoader = bookLoader(Duration.ofMillis(200), 100);
+        when(bookRepository.findAllById(any())).thenReturn(List.of(book(1L)));
+
+        //when
+        var results = concurrently(2, i -> bookLoader.findById(i + 1L));
+        var cached = bookLoader.findById(1L);
+
+        //then
+        assertThat(results).containsExactly(Optional.of(book(1L)), Optional.empty());
+        assertThat(cached).contains(book(1L));
+        verify(bookRepository, times(1)).findAllById(any());
+    }
+
+    @Test
+    void findById_QueryFailed_FailurePropagatedToAllWaitersAndNextLookupQueriesAgain() throws Exception {
+        // given
+        var bookLoader = bookLoader(Duration.ZERO, 100);
+        var queried = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+        when(bookRepository.findAllById(List.of(1L))).thenAnswer(invocation -> {
+            queried.countDown();
+            release.await();
+            throw new DataAccessResourceFailureException("down");
+        });
+        var first = executor.submit(() -> bookLoader.findById(1L));
+        assertThat(queried.await(10, TimeUnit.SECONDS)).isTrue();
+
+        //when
+        var herd = submitConcurrently(19, i -> bookLoader.findById(1L));
+        release.countDown();
+
+        //then
+        assertThat(catchExecution(first)).isInstanceOf(DataAccessResourceFailureException.class);
+        for (var lookup : herd) {
+            assertThat(catchExecution(lookup)).isInstanceOf(DataAccessResourceFailureException.class);
+        }
+        doAnswer(invocation -> List.of(book(1L))).when(bookRepository).findAllById(List.of(1L));
+        assertThat(executor.submit(() -> bookLoader.findById(1L)).get()).contains(book(1L));
+    }
+
+    @Test
+    void findById_ReplicaBehindLastWrite_FoundBookNotCached() throws Exception {
+        // given
+        var bookLoader = bookLoader(Duration.ZERO, 100);
+        doAnswer(invocation -> new ReadYourWrites.ReplicatedRead<>(invocation.<Supplier<?>>getArgument(0).get(), 0L))
+                .when(readYourWrites).read(any());
+        when(bookRepository.findAllById(List.of(1L))).thenReturn(List.of(book(1L)));
+
+        //when
+        var result = CompletableFuture.supplyAsync(() -> bookLoader.findById(1L), executor).get();
+
+        //then
+        assertThat(result).contains(book(1L));
+        assertThat(cacheManager.getCache(BookRepository.BOOKS_CACHE).get(1L)).isNull();
+    }
+
+    @Test
+    void findById_PinnedToPrimary_QueriedWithoutCoalescingOrCaching() throws Exception {
+        // given
+        var bookLoader = bookLoader(Duration.ofHours(1), 100);
+        when(readYourWrites.isPinned()).thenReturn(true);
+        when(bookRepository.findAllById(List.of(1L))).thenReturn(List.of(book(1L)));
+
+        //when
+        var result = CompletableFuture.supplyAsync(() -> bookLoader.findById(1L), executor).get();
+
+        //then
+        assertThat(result).contains(book(1L));
+        verify(bookRepository, times(1)).findAllById(List.of(1L));
+        verify(bookRepository, never()).findById(1L);
+        assertThat(cacheManager.getCache(BookRepository.BOOKS_CACHE).get(1L)).isNull();
+    }
+
+    private BookLoader bookLoader(Duration batchWindow, int maxBatchSize) {
+        return new BookLoader(bookRepository, cacheManager, readYourWrites, new BookShelfVersion(), batchWindow, maxBatchSize);
+    }
+
+    private List<Optional<Book>> concurrently(int threads, LongFunction<Optional<Book>> lookup) throws Exception {
+        var results = new ArrayList<Optional<Book>>();
+        for (var future : submitConcurrently(threads, lookup)) {
+            results.add(future.get());
+        }
+        return results;
+    }
+
+    private List<Future<Optional<Book>>> submitConcurrently(int threads, LongFunction<Optional<Book>> lookup) throws InterruptedException {
+        var ready = new CountDownLatch(threads);
+        var start = new CountDownLatch(1);
+        var lookups = new ArrayList<Future<Optional<Book>>>();
+        for (int i = 0; i < threads; i++) {
+            long index = i;
+            lookups.add(executor.submit(() -> {
+                ready.countDown();
+                start.await();
+                return lookup.apply(index);
+            }));
+        }
+        ready.await();
+        start.countDown();
+        return lookups;
+    }
+
+    private static Throwable catchExecution(Future<?> future) throws InterruptedException {
+        try {
+            future.get();
+            return null;
+        } catch (ExecutionException exception) {
+            return exception.getCause();
+        }
+    }
+
+    private static Book book(Long id) {
+        return new Book(id, "9781617290459", "Title " + id, "X", 12, 3);
+    }
+}
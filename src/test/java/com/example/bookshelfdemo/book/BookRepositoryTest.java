@@ -7,11 +7,18 @@ import org.springframework.boot.jdbc.EmbeddedDatabaseConnection;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
 
 @ExtendWith(SpringExtension.class)
 @DataJpaTest
@@ -88,6 +95,107 @@ class BookRepositoryTest {
         assertThat(result).containsExactly(book, book2);
     }
 
+    @Test
+    void findByIdGreaterThan_EntitiesAfterCursorReturnedInIdOrder() {
+        // given
+        var book = entityManager.persist(new Book("9781617290459", "A", "X", 12, 3));
+        var book2 = entityManager.persist(new Book("9783161484100", "B", "R", 111, 3));
+        var book3 = entityManager.persist(new Book("9781617290473", "C", "R", 50, 4));
+
+        // when
+        var firstPage = bookRepository.findByIdGreaterThanOrderByIdAsc(0L, PageRequest.of(0, 2));
+        var secondPage = bookRepository.findByIdGreaterThanOrderByIdAsc(book2.getId(), PageRequest.of(0, 2));
+
+        // then
+        assertThat(firstPage).containsExactly(book, book2);
+        assertThat(secondPage).containsExactly(book3);
+    }
+
+    @Test
+    void findByAuthorAndIdGreaterThan_AuthorEntitiesAfterCursorReturned() {
+        // given
+        var book = entityManager.persist(new Book("9781617290459", "A", "X", 12, 3));
+        entityManager.persist(new Book("9783161484100", "B", "R", 111, 3));
+        var book3 = entityManager.persist(new Book("9781617290473", "C", "X", 50, 4));
+
+        // when
+        var result = bookRepository.findByAuthorAndIdGreaterThanOrderByIdAsc("X", 0L, PageRequest.of(0, 10));
+        var afterFirst = bookRepository.findByAuthorAndIdGreaterThanOrderByIdAsc("X", book.getId(), PageRequest.of(0, 10));
+
+        // then
+        assertThat(result).containsExactly(book, book3);
+        assertThat(afterFirst).containsExactly(book3);
+    }
+
+    @Test
+    void findByRatingGreaterThanEqualAndIdGreaterThan_HighRatedEntitiesReturned() {
+        // given
+        entityManager.persist(new Book("9781617290459", "A", "X", 12, 3));
+        var book2 = entityManager.persist(new Book("9783161484100", "B", "R", 111, 4));
+        var book3 = entityManager.persist(new Book("9781617290473", "C", "X", 50, 5));
+
+        // when
+        var result = bookRepository.findByRatingGreaterThanEqualAndIdGreaterThanOrderByIdAsc(4, 0L, PageRequest.of(0, 10));
+        var byAuthor = bookRepository.findByAuthorAndRatingGreaterThanEqualAndIdGreaterThanOrderByIdAsc("X", 4, 0L, PageRequest.of(0, 10));
+
+        // then
+        assertThat(result).containsExactly(book2, book3);
+        assertThat(byAuthor).containsExactly(book3);
+    }
+
+    @Test
+    void findByIsbn_EntityReturned() {
+        // given
+        var book = entityManager.persist(new Book("9781617290459", "A", "X", 12, 3));
+
+        // when
+        var result = bookRepository.findByIsbn("9781617290459");
+
+        // then
+        assertThat(result).contains(book);
+        assertThat(bookRepository.findByIsbn("9783161484100")).isEmpty();
+    }
+
+    @Test
+    void findExistingIsbns_OnlyPersistedIsbnsReturned() {
+        // given
+        entityManager.persist(new Book("9781617290459", "A", "X", 12, 3));
+
+        // when
+        var result = bookRepository.findExistingIsbns(List.of("9781617290459", "9783161484100"));
+
+        // then
+        assertThat(result).containsExactly("9781617290459");
+    }
+
+    @Test
+    void saveAndFlush_DuplicatedIsbn_DataIntegrityViolationThrown() {
+        // given
+        entityManager.persistAndFlush(new Book("9781617290459", "A", "X", 12, 3));
+
+        // when
+        var thrown = catchThrowable(() -> bookRepository.saveAndFlush(new Book("9781617290459", "B", "R", 111, 3)));
+
+        // then
+        assertThat(thrown).isInstanceOf(DataIntegrityViolationException.class);
+    }
+
+    @Test
+    void streamAll_EntitiesStreamedInIdOrder() {
+        // given
+        var book = entityManager.persist(new Book("9781617290459", "A", "X", 12, 3));
+        var book2 = entityManager.persist(new Book("9783161484100", "B", "R", 111, 3));
+
+        // when
+        List<Book> result;
+        try (var books = bookRepository.streamAll()) {
+            result = books.collect(Collectors.toList());
+        }
+
+        // then
+        assertThat(result).containsExactly(book, book2);
+    }
+
     @Test
     void findById_NoEntity_EmptyOptionalReturned() {
         // when
@@ -111,6 +219,198 @@ class BookRepositoryTest {
         assertThat(result.get()).isEqualTo(book);
     }
 
+    @Test
+    void saveAll_IdsTakenFromSequence() {
+        // given
+        var books = List.of(new Book("9781617290459", "A", "X", 12, 3), new Book("9783161484100", "B", "R", 111, 3));
+
+        // when
+        var result = bookRepository.saveAll(books);
+        entityManager.flush();
+
+        // then
+        assertThat(result).extracting(Book::getId).doesNotContainNull().doesNotHaveDuplicates();
+    }
+
+    @Test
+    void batchUpdate_ExistingAndMissingEntity_UpdateCountsReturned() {
+        // given
+        var book = entityManager.persistAndFlush(new Book("9781617290459", "A", "X", 12, 3));
+        var update = new Book(book.getId(), "9783161484100", "B", "R", 111, 5);
+        var missing = new Book(book.getId() + 1, "9783161484100", "C", "R", 111, 5);
+
+        // when
+        var result = bookRepository.batchUpdate(List.of(update, missing));
+        entityManager.clear();
+
+        // then
+        assertThat(result).containsExactly(1, 0);
+        assertThat(entityManager.find(Book.class, book.getId())).isEqualTo(update);
+    }
+
+    @Test
+    void batchDelete_ExistingAndMissingEntity_DeleteCountsReturned() {
+        // given
+        var book = entityManager.persistAndFlush(new Book("9781617290459", "A", "X", 12, 3));
+
+        // when
+        var result = bookRepository.batchDelete(List.of(book.getId(), book.getId() + 1));
+        entityManager.clear();
+
+        // then
+        assertThat(result).containsExactly(1, 0);
+        assertThat(entityManager.find(Book.class, book.getId())).isNull();
+    }
+
+    @Test
+    void updateById_ExistingEntity_OneRowUpdated() {
+        // given
+        var book = entityManager.persistAndFlush(new Book("9781617290459", "A", "X", 12, 3));
+        var update = new Book(book.getId(), "9783161484100", "B", "R", 111, 5);
+
+        // when
+        var result = bookRepository.updateById(book.getId(), update);
+        entityManager.clear();
+
+        // then
+        assertThat(result).isEqualTo(1);
+        assertThat(entityManager.find(Book.class, book.getId())).isEqualTo(update);
+    }
+
+    @Test
+    void updateById_NoEntity_NoRowUpdated() {
+        // when
+        var result = bookRepository.updateById(5L, new Book(5L, "9783161484100", "B", "R", 111, 5));
+
+        // then
+        assertThat(result).isZero();
+    }
+
+    @Test
+    void updateById_ExistingEntity_VersionIncremented() {
+        // given
+        var book = entityManager.persistAndFlush(new Book("9781617290459", "A", "X", 12, 3));
+
+        // when
+        bookRepository.updateById(book.getId(), new Book(book.getId(), "9781617290459", "B", "X", 12, 3));
+        entityManager.clear();
+
+        // then
+        var version = bookRepository.findVersionById(book.getId()).get();
+        assertThat(version.getVersion()).isEqualTo(book.getVersion() + 1);
+        assertThat(version.getLastModified()).isAfterOrEqualTo(book.getLastModified());
+    }
+
+    @Test
+    void updateByIdAndVersion_StaleVersion_NoRowUpdated() {
+        // given
+        var book = entityManager.persistAndFlush(new Book("9781617290459", "A", "X", 12, 3));
+        bookRepository.updateById(book.getId(), new Book(book.getId(), "9781617290459", "B", "X", 12, 3));
+
+        // when
+        var result = bookRepository.updateByIdAndVersion(book.getId(), book.getVersion(),
+                new Book(book.getId(), "9781617290459", "C", "X", 12, 3));
+        entityManager.clear();
+
+        // then
+        assertThat(result).isZero();
+        assertThat(entityManager.find(Book.class, book.getId()).getTitle()).isEqualTo("B");
+    }
+
+    @Test
+    void updateByIdAndVersion_CurrentVersion_OneRowUpdated() {
+        // given
+        var book = entityManager.persistAndFlush(new Book("9781617290459", "A", "X", 12, 3));
+
+        // when
+        var result = bookRepository.updateByIdAndVersion(book.getId(), book.getVersion(),
+                new Book(book.getId(), "9781617290459", "C", "X", 12, 3));
+        entityManager.clear();
+
+        // then
+        assertThat(result).isEqualTo(1);
+        assertThat(entityManager.find(Book.class, book.getId()).getTitle()).isEqualTo("C");
+    }
+
+    @Test
+    void removeByIdAndVersion_StaleVersion_NoRowDeleted() {
+        // given
+        var book = entityManager.persistAndFlush(new Book("9781617290459", "A", "X", 12, 3));
+        bookRepository.updateById(book.getId(), new Book(book.getId(), "9781617290459", "B", "X", 12, 3));
+
+        // when
+        var result = bookRepository.removeByIdAndVersion(book.getId(), book.getVersion());
+
+        // then
+        assertThat(result).isZero();
+        assertThat(bookRepository.findVersionById(book.getId())).isPresent();
+    }
+
+    @Test
+    void findVersionById_NoEntity_EmptyReturned() {
+        // when
+        var result = bookRepository.findVersionById(5L);
+
+        // then
+        assertThat(result).isEmpty();
+    }
+
+    @Test
+    void findFields_FilteredPage_OnlyRequestedColumnsOfMatchingBooksReturned() {
+        // given
+        var first = entityManager.persist(new Book("9781617290459", "A", "X", 12, 3));
+        entityManager.persist(new Book("9781617290473", "B", "Y", 12, 4));
+        var third = entityManager.persist(new Book("9783161484100", "C", "X", 12, 5));
+        entityManager.flush();
+        entityManager.clear();
+
+        // when
+        var result = bookRepository.findFields(List.of("title", "rating"), "X", 3, 0L, 20);
+
+        // then
+        assertThat(result).containsExactly(
+                Map.of("id", first.getId(), "title", "A", "rating", 3),
+                Map.of("id", third.getId(), "title", "C", "rating", 5));
+        assertThat(result.get(0).keySet()).containsExactly("id", "title", "rating");
+    }
+
+    @Test
+    void findFieldsById_ExistingEntity_RequestedColumnsAndVersionReturned() {
+        // given
+        var book = entityManager.persistAndFlush(new Book("9781617290459", "A", "X", 12, 3));
+        entityManager.clear();
+
+        // when
+        var result = bookRepository.findFieldsById(book.getId(), List.of("isbn")).get();
+
+        // then
+        assertThat(result).containsEntry("id", book.getId()).containsEntry("isbn", "9781617290459")
+                .containsEntry("version", book.getVersion()).containsKey("lastModified").hasSize(4);
+    }
+
+    @Test
+    void removeById_ExistingEntity_OneRowDeleted() {
+        // given
+        var book = entityManager.persistAndFlush(new Book("9781617290459", "A", "X", 12, 3));
+        entityManager.clear();
+
+        // when
+        var result = bookRepository.removeById(book.getId());
+
+        // then
+        assertThat(result).isEqualTo(1);
+        assertThat(entityManager.find(Book.class, book.getId())).isNull();
+    }
+
+    @Test
+    void removeById_NoEntity_NoRowDeleted() {
+        // when
+        var result = bookRepository.removeById(5L);
+
+        // then
+        assertThat(result).isZero();
+    }
+
     @Test
     void delete_EntityDeleted() {
         // given
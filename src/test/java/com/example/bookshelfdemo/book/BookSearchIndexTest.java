@@ -0,0 +1,120 @@
+package com.example.bookshelfdemo.book;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.persistence.EntityManager;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+class BookSearchIndexTest {
+
+    private BookSearchIndex bookSearchIndex;
+
+    @BeforeEach
+    void setUp() {
+        bookSearchIndex = new BookSearchIndex(null, null);
+        bookSearchIndex.index(new Book(1L, "9781617290459", "Spring in Action", "Craig Walls", 12, 3));
+        bookSearchIndex.index(new Book(2L, "9783161484100", "The Lord of the Rings", "J.R.R. Tolkien", 1200, 5));
+        bookSearchIndex.index(new Book(3L, "9781617290473", "Tolkien: a Biography", "Humphrey Carpenter", 300, 4));
+    }
+
+    @Test
+    void tokenize_MixedCaseAndPunctuation_LowerCaseTermsReturned() {
+        // when
+        var result = BookSearchIndex.tokenize("J.R.R. Tolkien, The Hobbit!");
+
+        // then
+        assertThat(result).containsExactly("j", "r", "r", "tolkien", "the", "hobbit");
+    }
+
+    @Test
+    void search_TermInTitleAndAuthor_TitleMatchRankedFirst() {
+        // when
+        var result = bookSearchIndex.search("TOLKIEN", 0, 10);
+
+        // then
+        assertThat(result).containsExactly(3L, 2L);
+    }
+
+    @Test
+    void search_MoreTermsMatched_RankedHigher() {
+        // when
+        var result = bookSearchIndex.search("lord tolkien", 0, 10);
+
+        // then
+        assertThat(result).containsExactly(2L, 3L);
+    }
+
+    @Test
+    void search_NoMatch_EmptyResult() {
+        // when
+        var result = bookSearchIndex.search("hobbit", 0, 10);
+
+        // then
+        assertThat(result).isEmpty();
+    }
+
+    @Test
+    void search_OffsetAndLimit_PageOfRankedResultsReturned() {
+        // when
+        var firstPage = bookSearchIndex.search("tolkien", 0, 1);
+        var secondPage = bookSearchIndex.search("tolkien", 1, 1);
+        var thirdPage = bookSearchIndex.search("tolkien", 2, 1);
+
+        // then
+        assertThat(firstPage).containsExactly(3L);
+        assertThat(secondPage).containsExactly(2L);
+        assertThat(thirdPage).isEmpty();
+    }
+
+    @Test
+    void index_ExistingBook_OldTermsReplaced() {
+        // when
+        bookSearchIndex.index(new Book(1L, "9781617290459", "Spring Boot in Action", "Craig Walls", 12, 3));
+
+        // then
+        assertThat(bookSearchIndex.search("boot", 0, 10)).containsExactly(1L);
+        assertThat(bookSearchIndex.search("craig", 0, 10)).containsExactly(1L);
+        bookSearchIndex.index(new Book(1L, "9781617290459", "Spring Boot in Action", "Mark Heckler", 12, 3));
+        assertThat(bookSearchIndex.search("craig", 0, 10)).isEmpty();
+    }
+
+    @Test
+    void remove_IndexedBook_NoLongerFound() {
+        // when
+        bookSearchIndex.remove(2L);
+
+        // then
+        assertThat(bookSearchIndex.search("tolkien", 0, 10)).containsExactly(3L);
+    }
+
+    @Test
+    void rebuild_BooksWrittenWhileStreaming_WritesKeptAfterSwap() {
+        // given
+        var bookRepository = mock(BookRepository.class);
+        var searchIndex = new BookSearchIndex(bookRepository, mock(EntityManager.class));
+        searchIndex.index(new Book(9L, "9780306406157", "Tolkien: a Biography", "Humphrey Carpenter", 400, 4));
+        when(bookRepository.streamAll()).thenReturn(Stream.of(
+                new Book(1L, "9781617290459", "Spring in Action", "Craig Walls", 100, 3),
+                new Book(2L, "9783161484100", "The Lord of the Rings", "J.R.R. Tolkien", 1200, 5))
+                .peek(book -> {
+                    if (book.getId() == 1L) {
+                        assertThat(searchIndex.search("tolkien", 0, 10)).containsExactly(9L);
+                        searchIndex.index(new Book(2L, "9783161484100", "The Hobbit", "J.R.R. Tolkien", 300, 4));
+                        searchIndex.index(new Book(3L, "9781617290473", "Spring Boot in Action", "Craig Walls", 300, 4));
+                    }
+                }));
+
+        // when
+        searchIndex.rebuild();
+
+        // then
+        assertThat(searchIndex.search("lord", 0, 10)).isEmpty();
+        assertThat(searchIndex.search("hobbit", 0, 10)).containsExactly(2L);
+        assertThat(searchIndex.search("spring", 0, 10)).containsExactlyInAnyOrder(1L, 3L);
+        assertThat(searchIndex.search("biography", 0, 10)).isEmpty();
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.bookshelfdemo.book;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.commons.io.FileUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+class BookSnapshotTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private Path directory;
+    private Path file;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        directory = Files.createTempDirectory("bookshelf-snapshot");
+        file = directory.resolve("books.snapshot");
+    }
+
+    @AfterEach
+    void cleanUp() throws IOException {
+        FileUtils.deleteDirectory(directory.toFile());
+    }
+
+    @Test
+    void write_BooksOrderedById_RecordsFoundByIdAndIsbn() throws IOException {
+        // given
+        var first = book(3L, "9783161484100", "Effective Java", "Joshua Bloch", 5);
+        var second = book(7L, "9781617290459", "Żółta książka", "Łukasz", 3);
+        var third = book(12L, "9781617290473", "Java 8 in Action", "Raoul-Gabriel Urma", 4);
+
+        // when
+        var written = BookSnapshot.write(Stream.of(first, second, third), objectMapper, file);
+        var snapshot = BookSnapshot.open(file);
+
+        // then
+        assertThat(written).isEqualTo(3);
+        assertThat(snapshot.size()).isEqualTo(3);
+        assertThat(snapshot.getBook(snapshot.indexOf(7L))).isEqualTo(second);
+        assertThat(snapshot.getBook(snapshot.indexOfIsbn("9781617290473"))).isEqualTo(third);
+        assertThat(snapshot.getVersion(snapshot.indexOf(3L))).isEqualTo(BookVersion.of(first));
+        assertThat(snapshot.indexOf(8L)).isEqualTo(-1);
+        assertThat(snapshot.indexOfIsbn("9781617290466")).isEqualTo(-1);
+    }
+
+    @Test
+    void getJson_Record_SameBytesAsJackson() throws IOException {
+        // given
+        var book = book(1L, "9781617290459", "Żółta książka", "Łukasz", 3);
+        BookSnapshot.write(Stream.of(book), objectMapper, file);
+        var snapshot = BookSnapshot.open(file);
+
+        // when
+        var json = snapshot.getJson(0);
+
+        // then
+        assertThat(toArray(json)).isEqualTo(objectMapper.writeValueAsBytes(book));
+    }
+
+    @Test
+    void write_MoreBooksThanInitialCapacity_EveryBookFoundByIsbnAndNoTemporaryFilesLeft() throws IOException {
+        // given
+        var books = LongStream.rangeClosed(1, 5000)
+                .mapToObj(id -> book(id, String.format("978%010d", id * 7919 % 5003), "T" + id, "A", 3))
+                .collect(Collectors.toList());
+
+        // when
+        BookSnapshot.write(books.stream(), objectMapper, file);
+        var snapshot = BookSnapshot.open(file);
+
+        // then
+        assertThat(snapshot.size()).isEqualTo(5000);
+        for (var book : books) {
+            assertThat(snapshot.getBook(snapshot.indexOfIsbn(book.getIsbn()))).isEqualTo(book);
+        }
+        try (var files = Files.list(directory)) {
+            assertThat(files).containsExactly(file);
+        }
+    }
+
+    @Test
+    void write_BooksNotOrderedById_IllegalArgumentExceptionThrown() {
+        //when
+        var thrown = catchThrowable(() -> BookSnapshot.write(Stream.of(
+                book(2L, "9781617290459", "A", "X", 3),
+                book(1L, "9783161484100", "B", "Y", 4)), objectMapper, file));
+
+        //then
+        assertThat(thrown).isInstanceOf(IllegalArgumentException.class);
+        assertThat(file).doesNotExist();
+    }
+
+    @Test
+    void open_TruncatedFile_IOExceptionThrown() throws IOException {
+        // given
+        BookSnapshot.write(Stream.of(book(1L, "9781617290459", "A", "X", 3)), objectMapper, file);
+        var content = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(content, content.length - 1));
+
+        //when
+        var thrown = catchThrowable(() -> BookSnapshot.open(file));
+
+        //then
+        assertThat(thrown).isInstanceOf(IOException.class).hasMessageContaining("Truncated");
+    }
+
+    private static Book book(Long id, String isbn, String title, String author, int rating) {
+        var book = new Book(id, isbn, title, author, 100, rating);
+        book.setVersion(id + 1);
+        book.setLastModified(Instant.ofEpochMilli(1_500_000_000_000L + id));
+        return book;
+    }
+
+    private static byte[] toArray(ByteBuffer buffer) {
+        var bytes = new byte[buffer.remaining()];
+        buffer.duplicate().get(bytes);
+        return bytes;
+    }
+}
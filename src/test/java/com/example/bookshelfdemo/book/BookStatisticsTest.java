@@ -0,0 +1,116 @@
+package com.example.bookshelfdemo.book;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.persistence.EntityManager;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.Mockito.*;
+
+class BookStatisticsTest {
+
+    private BookStatistics bookStatistics;
+
+    @BeforeEach
+    void setUp() {
+        bookStatistics = new BookStatistics(null, null, 2);
+        bookStatistics.index(new Book(1L, "9781617290459", "Spring in Action", "Craig Walls", 100, 3));
+        bookStatistics.index(new Book(2L, "9783161484100", "The Lord of the Rings", "J.R.R. Tolkien", 1200, 5));
+        bookStatistics.index(new Book(3L, "9781617290473", "The Hobbit", "J.R.R. Tolkien", 300, 4));
+        bookStatistics.index(new Book(4L, "9780306406157", "Tolkien: a Biography", "Humphrey Carpenter", 400, 4));
+    }
+
+    @Test
+    void stats_IndexedBooks_AggregatesReturned() {
+        // when
+        var result = bookStatistics.stats();
+
+        // then
+        assertThat(result.getBooks()).isEqualTo(4);
+        assertThat(result.getTotalPages()).isEqualTo(2000);
+        assertThat(result.getAveragePages()).isEqualTo(500);
+        assertThat(result.getAverageRating()).isEqualTo(4);
+        assertThat(result.getRatings()).isEqualTo(Map.of(1, 0L, 2, 0L, 3, 1L, 4, 2L, 5, 1L));
+        assertThat(result.getTopAuthors())
+                .extracting(BookStats.AuthorCount::getAuthor, BookStats.AuthorCount::getBooks)
+                .containsExactly(tuple("J.R.R. Tolkien", 2L), tuple("Craig Walls", 1L));
+    }
+
+    @Test
+    void index_ExistingBook_PreviousContributionReplaced() {
+        // when
+        bookStatistics.index(new Book(2L, "9783161484100", "The Lord of the Rings", "Tolkien", 1000, 1));
+
+        // then
+        var result = bookStatistics.stats();
+        assertThat(result.getBooks()).isEqualTo(4);
+        assertThat(result.getTotalPages()).isEqualTo(1800);
+        assertThat(result.getRatings()).containsEntry(5, 0L).containsEntry(1, 1L);
+        assertThat(result.getTopAuthors()).extracting(BookStats.AuthorCount::getAuthor)
+                .containsExactly("Craig Walls", "Humphrey Carpenter");
+    }
+
+    @Test
+    void remove_IndexedBook_ContributionSubtracted() {
+        // when
+        bookStatistics.remove(1L);
+
+        // then
+        var result = bookStatistics.stats();
+        assertThat(result.getBooks()).isEqualTo(3);
+        assertThat(result.getTotalPages()).isEqualTo(1900);
+        assertThat(result.getRatings()).containsEntry(3, 0L);
+        assertThat(result.getTopAuthors()).extracting(BookStats.AuthorCount::getAuthor)
+                .containsExactly("J.R.R. Tolkien", "Humphrey Carpenter");
+    }
+
+    @Test
+    void remove_UnknownBook_NothingChanged() {
+        // when
+        bookStatistics.remove(5L);
+
+        // then
+        assertThat(bookStatistics.stats().getBooks()).isEqualTo(4);
+    }
+
+    @Test
+    void stats_NoChangesSinceLastCall_SameSnapshotReturned() {
+        // given
+        var first = bookStatistics.stats();
+
+        // when
+        var second = bookStatistics.stats();
+
+        // then
+        assertThat(second).isSameAs(first);
+    }
+
+    @Test
+    void rebuild_BooksWrittenWhileStreaming_WritesKeptAfterSwap() {
+        // given
+        var bookRepository = mock(BookRepository.class);
+        var statistics = new BookStatistics(bookRepository, mock(EntityManager.class), 2);
+        when(bookRepository.streamAll()).thenReturn(Stream.of(
+                new Book(1L, "9781617290459", "Spring in Action", "Craig Walls", 100, 3),
+                new Book(2L, "9783161484100", "The Lord of the Rings", "J.R.R. Tolkien", 1200, 5))
+                .peek(book -> {
+                    if (book.getId() == 1L) {
+                        statistics.remove(2L);
+                        statistics.index(new Book(3L, "9781617290473", "The Hobbit", "J.R.R. Tolkien", 300, 4));
+                    }
+                }));
+
+        // when
+        statistics.rebuild();
+
+        // then
+        var result = statistics.stats();
+        assertThat(result.getBooks()).isEqualTo(2);
+        assertThat(result.getTotalPages()).isEqualTo(400);
+        assertThat(result.getRatings()).containsEntry(5, 0L).containsEntry(4, 1L);
+    }
+}
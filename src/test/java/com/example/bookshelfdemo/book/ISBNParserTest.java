@@ -2,7 +2,13 @@ package com.example.bookshelfdemo.book;
 
 
 
+import org.hibernate.validator.constraints.ISBN;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import javax.validation.Validation;
+import java.util.Random;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -32,4 +38,69 @@ class ISBNParserTest {
         assertThat(result).isEqualTo("913131125412X");
     }
 
+    @Test
+    void parse_AlreadyNormalized_SameInstanceReturned() {
+        // given
+        var input = "9781617290459";
+
+        // when
+        var result = ISBNParser.parse(input);
+
+        // then
+        assertThat(result).isSameAs(input);
+    }
+
+    @Test
+    void parse_LowerCaseXAndSpaces_Removed() {
+        // given
+        var input = " 978 3 16 148410 x";
+
+        // when
+        var result = ISBNParser.parse(input);
+
+        // then
+        assertThat(result).isEqualTo("978316148410");
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"9781617290459", "978-1-61729-045-9", "978-3-16-148410-X", "ISBN 978-1-61729-047-3"})
+    void isValid_ValidIsbn13_True(String isbn) {
+        assertThat(ISBNParser.isValid(isbn)).isTrue();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"9781617A459", "9781617290458", "0-306-40615-2", "97816172904590", "978161729045", ""})
+    void isValid_InvalidIsbn13_False(String isbn) {
+        assertThat(ISBNParser.isValid(isbn)).isFalse();
+    }
+
+    @Test
+    void isValid_SameResultAsHibernateValidatorIsbnConstraint() {
+        // given
+        var validator = Validation.buildDefaultValidatorFactory().getValidator();
+        var random = new Random(7);
+        var alphabet = "0123456789X-x ";
+
+        for (int i = 0; i < 20_000; i++) {
+            var isbn = new StringBuilder();
+            var length = 10 + random.nextInt(8);
+            for (int j = 0; j < length; j++) {
+                isbn.append(i % 2 == 0 ? alphabet.charAt(random.nextInt(alphabet.length())) : (char) ('0' + random.nextInt(10)));
+            }
+
+            // when
+            var result = ISBNParser.isValid(isbn);
+
+            // then
+            var expected = validator.validateValue(HibernateIsbn.class, "isbn", isbn.toString()).isEmpty();
+            assertThat(result).as(isbn.toString()).isEqualTo(expected);
+        }
+    }
+
+    private static class HibernateIsbn {
+
+        @ISBN
+        private String isbn;
+    }
+
 }
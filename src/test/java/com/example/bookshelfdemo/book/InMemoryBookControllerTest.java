@@ -0,0 +1,134 @@
+package com.example.bookshelfdemo.book;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.commons.io.FileUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "bookshelf.memory.directory=target/bookshelf-memory-test",
+        "bookshelf.memory.fsync=false"
+})
+@ActiveProfiles({"test", "memory"})
+class InMemoryBookControllerTest {
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private BookChangeRepository bookChangeRepository;
+
+    @BeforeAll
+    static void clearDirectory() throws IOException {
+        FileUtils.deleteDirectory(new File("target/bookshelf-memory-test"));
+    }
+
+    @AfterEach
+    void cleanUp() {
+        bookRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void bookRepository_MemoryProfile_InMemoryStoreUsed() {
+        //then
+        assertThat(bookRepository).isInstanceOf(InMemoryBookRepository.class);
+    }
+
+    @Test
+    void saveFindUpdateDelete_MemoryProfile_ConditionalRequestContractKept() throws Exception {
+        //when
+        var saved = restTemplate.postForEntity("/books", new Book("9781617290459", "A", "X", 12, 3), Book.class);
+        var id = saved.getBody().getId();
+        var found = restTemplate.getForEntity("/books/{id}", String.class, id);
+        var page = restTemplate.getForEntity("/books?author=X", Book[].class);
+        var updated = restTemplate.exchange("/books/{id}", HttpMethod.PUT,
+                new HttpEntity<>(new Book(id, "9781617290459", "B", "X", 12, 5), ifMatch(saved.getHeaders().getETag())), Book.class, id);
+        var staleDelete = restTemplate.exchange("/books/{id}", HttpMethod.DELETE, new HttpEntity<>(ifMatch("\"0\"")),
+                Void.class, id);
+        var deleted = restTemplate.exchange("/books/{id}", HttpMethod.DELETE, null, Void.class, id);
+        var missing = restTemplate.getForEntity("/books/{id}", String.class, id);
+
+        //then
+        assertThat(saved.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(saved.getHeaders().getETag()).isEqualTo("\"0-json\"");
+        assertThat(objectMapper.readValue(found.getBody(), Book.class)).isEqualTo(saved.getBody());
+        assertThat(page.getBody()).containsExactly(saved.getBody());
+        assertThat(updated.getHeaders().getETag()).isEqualTo("\"1-json\"");
+        assertThat(staleDelete.getStatusCode()).isEqualTo(HttpStatus.PRECONDITION_FAILED);
+        assertThat(deleted.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(missing.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+    }
+
+    @Test
+    void saveBook_DuplicatedIsbn_ConflictReturned() {
+        // given
+        restTemplate.postForEntity("/books", new Book("9781617290459", "A", "X", 12, 3), Book.class);
+
+        //when
+        var response = restTemplate.postForEntity("/books", new Book("9781617290459", "B", "R", 111, 3), String.class);
+
+        //then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.CONFLICT);
+    }
+
+    @Test
+    void exportBooks_MemoryProfile_BooksFromInMemoryStoreExported() throws Exception {
+        // given
+        var books = bookRepository.saveAll(List.of(
+                new Book("9781617290459", "A", "X", 12, 3),
+                new Book("9783161484100", "B", "R", 111, 5)));
+
+        //when
+        var response = restTemplate.getForEntity("/books:export", byte[].class);
+
+        //then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        String lines;
+        try (var gzip = new GZIPInputStream(new ByteArrayInputStream(response.getBody()))) {
+            lines = new String(gzip.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        assertThat(lines.split("\n")).hasSize(2);
+        assertThat(objectMapper.readValue(lines.split("\n")[1], Book.class)).isEqualTo(books.get(1));
+    }
+
+    @Test
+    void saveBook_MemoryProfile_ChangeRecordedInDatabaseNextToTheStore() {
+        //when
+        var saved = restTemplate.postForEntity("/books", new Book("9781617290459", "A", "X", 12, 3), Book.class);
+
+        //then
+        assertThat(saved.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(bookChangeRepository.count()).isPositive();
+        assertThat(new File("target/bookshelf-memory-test", InMemoryBookDataSourceConfiguration.CHANGES_DATABASE + ".mv.db")).exists();
+    }
+
+    private static HttpHeaders ifMatch(String eTag) {
+        var headers = new HttpHeaders();
+        headers.setIfMatch(eTag);
+        return headers;
+    }
+}
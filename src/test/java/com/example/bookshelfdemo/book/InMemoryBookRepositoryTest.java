@@ -0,0 +1,271 @@
+package com.example.bookshelfdemo.book;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+class InMemoryBookRepositoryTest {
+
+    private Path directory;
+    private InMemoryBookRepository bookRepository;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        directory = Files.createTempDirectory("bookshelf-memory");
+        bookRepository = open();
+    }
+
+    @AfterEach
+    void cleanUp() throws IOException {
+        bookRepository.close();
+        FileUtils.deleteDirectory(directory.toFile());
+    }
+
+    @Test
+    void save_NewBook_IdAndVersionAssigned() {
+        // when
+        var book = bookRepository.save(new Book("9781617290459", "A", "X", 12, 3));
+
+        // then
+        assertThat(book.getId()).isEqualTo(1L);
+        assertThat(book.getVersion()).isZero();
+        assertThat(book.getLastModified()).isNotNull();
+        assertThat(bookRepository.findById(1L)).contains(book);
+    }
+
+    @Test
+    void findByIdGreaterThan_EntitiesAfterCursorReturnedInIdOrder() {
+        // given
+        var book3 = bookRepository.save(new Book(30L, "9781617290473", "C", "R", 50, 4));
+        var book = bookRepository.save(new Book(10L, "9781617290459", "A", "X", 12, 3));
+        var book2 = bookRepository.save(new Book(20L, "9783161484100", "B", "R", 111, 3));
+
+        // when
+        var firstPage = bookRepository.findByIdGreaterThanOrderByIdAsc(0L, PageRequest.of(0, 2));
+        var secondPage = bookRepository.findByIdGreaterThanOrderByIdAsc(book2.getId(), PageRequest.of(0, 2));
+
+        // then
+        assertThat(firstPage).containsExactly(book, book2);
+        assertThat(secondPage).containsExactly(book3);
+    }
+
+    @Test
+    void findByAuthorAndRatingGreaterThanEqualAndIdGreaterThan_MatchingEntitiesReturned() {
+        // given
+        var book = bookRepository.save(new Book("9781617290459", "A", "X", 12, 3));
+        bookRepository.save(new Book("9783161484100", "B", "R", 111, 4));
+        var book3 = bookRepository.save(new Book("9781617290473", "C", "X", 50, 5));
+
+        // when
+        var byAuthor = bookRepository.findByAuthorAndIdGreaterThanOrderByIdAsc("X", 0L, PageRequest.of(0, 10));
+        var byAuthorAndRating = bookRepository.findByAuthorAndRatingGreaterThanEqualAndIdGreaterThanOrderByIdAsc("X", 4, 0L,
+                PageRequest.of(0, 10));
+        var unknownAuthor = bookRepository.findByAuthorAndIdGreaterThanOrderByIdAsc("Y", 0L, PageRequest.of(0, 10));
+
+        // then
+        assertThat(byAuthor).containsExactly(book, book3);
+        assertThat(byAuthorAndRating).containsExactly(book3);
+        assertThat(unknownAuthor).isEmpty();
+    }
+
+    @Test
+    void findByIsbn_IsbnChanged_OnlyCurrentIsbnFound() {
+        // given
+        var book = bookRepository.save(new Book("9781617290459", "A", "X", 12, 3));
+        bookRepository.updateById(book.getId(), new Book(book.getId(), "9783161484100", "A", "X", 12, 3));
+
+        // when
+        var result = bookRepository.findByIsbn("9783161484100");
+
+        // then
+        assertThat(result.get().getId()).isEqualTo(book.getId());
+        assertThat(bookRepository.findByIsbn("9781617290459")).isEmpty();
+        assertThat(bookRepository.findExistingIsbns(List.of("9781617290459", "9783161484100")))
+                .containsExactly("9783161484100");
+    }
+
+    @Test
+    void saveAll_DuplicatedIsbn_DataIntegrityViolationThrownAndNothingSaved() {
+        // given
+        bookRepository.save(new Book("9781617290459", "A", "X", 12, 3));
+
+        // when
+        var thrown = catchThrowable(() -> bookRepository.saveAll(List.of(
+                new Book("9783161484100", "B", "R", 111, 3),
+                new Book("9781617290459", "C", "R", 50, 4))));
+
+        // then
+        assertThat(thrown).isInstanceOf(DataIntegrityViolationException.class);
+        assertThat(bookRepository.count()).isEqualTo(1);
+    }
+
+    @Test
+    void updateByIdAndVersion_StaleVersion_NoRowUpdated() {
+        // given
+        var book = bookRepository.save(new Book("9781617290459", "A", "X", 12, 3));
+        bookRepository.updateById(book.getId(), new Book(book.getId(), "9781617290459", "B", "X", 12, 3));
+
+        // when
+        var result = bookRepository.updateByIdAndVersion(book.getId(), book.getVersion(),
+                new Book(book.getId(), "9781617290459", "C", "X", 12, 3));
+
+        // then
+        assertThat(result).isZero();
+        assertThat(bookRepository.findById(book.getId()).get().getTitle()).isEqualTo("B");
+        assertThat(bookRepository.findVersionById(book.getId()).get().getVersion()).isEqualTo(book.getVersion() + 1);
+    }
+
+    @Test
+    void batchUpdateAndBatchDelete_ExistingAndMissingEntity_CountsReturned() {
+        // given
+        var book = bookRepository.save(new Book("9781617290459", "A", "X", 12, 3));
+        var update = new Book(book.getId(), "9781617290459", "B", "R", 111, 5);
+
+        // when
+        var updated = bookRepository.batchUpdate(List.of(update, new Book(99L, "9783161484100", "C", "R", 50, 4)));
+        var deleted = bookRepository.batchDelete(List.of(99L, book.getId()));
+
+        // then
+        assertThat(updated).containsExactly(1, 0);
+        assertThat(deleted).containsExactly(0, 1);
+        assertThat(bookRepository.findAll()).isEmpty();
+        assertThat(bookRepository.findByAuthorAndIdGreaterThanOrderByIdAsc("R", 0L, PageRequest.of(0, 10))).isEmpty();
+    }
+
+    @Test
+    void findFields_FilteredPage_OnlyRequestedColumnsOfMatchingBooksReturned() {
+        // given
+        var first = bookRepository.save(new Book("9781617290459", "A", "X", 12, 3));
+        bookRepository.save(new Book("9781617290473", "B", "Y", 12, 4));
+        var third = bookRepository.save(new Book("9783161484100", "C", "X", 12, 5));
+
+        // when
+        var result = bookRepository.findFields(List.of("title", "rating"), "X", 3, 0L, 20);
+        var byId = bookRepository.findFieldsById(first.getId(), List.of("isbn")).get();
+
+        // then
+        assertThat(result).containsExactly(
+                Map.of("id", first.getId(), "title", "A", "rating", 3),
+                Map.of("id", third.getId(), "title", "C", "rating", 5));
+        assertThat(byId).containsOnlyKeys("id", "isbn", BookFieldsRepository.VERSION, BookFieldsRepository.LAST_MODIFIED);
+    }
+
+    @Test
+    void recover_Crashed_WritesReplayedFromLog() throws IOException {
+        // given
+        var book = bookRepository.save(new Book("9781617290459", "A", "X", 12, 3));
+        var book2 = bookRepository.save(new Book("9783161484100", "B", "R", 111, 3));
+        bookRepository.updateById(book.getId(), new Book(book.getId(), "9781617290459", "C", "X", 12, 5));
+        bookRepository.removeById(book2.getId());
+
+        // when
+        var recovered = restart();
+
+        // then
+        assertThat(recovered.findAll()).containsExactly(new Book(book.getId(), "9781617290459", "C", "X", 12, 5));
+        assertThat(recovered.findVersionById(book.getId()).get().getVersion()).isEqualTo(1L);
+        assertThat(recovered.save(new Book("9781617290473", "D", "X", 50, 4)).getId()).isEqualTo(book2.getId() + 1);
+    }
+
+    @Test
+    void save_ConcurrentWriters_EveryReturnedWriteRecoveredAfterCrash() throws Exception {
+        // given
+        var executor = Executors.newFixedThreadPool(8);
+        var saves = IntStream.range(0, 200)
+                .mapToObj(i -> executor.submit(() -> bookRepository.save(new Book(String.format("isbn-%03d", i), "A", "X", 12, 3))))
+                .collect(Collectors.toList());
+        var saved = new ArrayList<Book>();
+        for (var save : saves) {
+            saved.add(save.get());
+        }
+        executor.shutdown();
+
+        // when
+        var recovered = restart();
+
+        // then
+        assertThat(recovered.findAll()).containsExactlyInAnyOrderElementsOf(saved);
+    }
+
+    @Test
+    void recover_AfterSnapshot_SnapshotAndNewerLogEntriesLoaded() throws IOException {
+        // given
+        var book = bookRepository.save(new Book("9781617290459", "A", "X", 12, 3));
+        bookRepository.snapshot();
+        var book2 = bookRepository.save(new Book("9783161484100", "B", "R", 111, 3));
+
+        // when
+        var recovered = restart();
+
+        // then
+        assertThat(recovered.findAll()).containsExactly(book, book2);
+        assertThat(fileNames()).contains("snapshot-000000000001.bin").doesNotContain("wal-000000000000.log");
+    }
+
+    @Test
+    void recover_TornLogTail_CommittedEntriesKept() throws IOException {
+        // given
+        var book = bookRepository.save(new Book("9781617290459", "A", "X", 12, 3));
+        Files.write(directory.resolve("wal-000000000000.log"), new byte[]{0, 0, 0, 42, 1, 2}, StandardOpenOption.APPEND);
+
+        // when
+        restart();
+
+        // then
+        assertThat(bookRepository.findAll()).containsExactly(book);
+    }
+
+    @Test
+    void close_DeletedLastBook_IdsNotReusedAfterRecovery() throws IOException {
+        // given
+        var book = bookRepository.save(new Book("9781617290459", "A", "X", 12, 3));
+        bookRepository.removeById(book.getId());
+        bookRepository.close();
+
+        // when
+        bookRepository = open();
+
+        // then
+        assertThat(bookRepository.count()).isZero();
+        assertThat(bookRepository.save(new Book("9783161484100", "B", "R", 111, 3)).getId()).isEqualTo(book.getId() + 1);
+        assertThat(fileNames()).contains("snapshot-000000000001.bin").doesNotContain("wal-000000000000.log");
+    }
+
+    private InMemoryBookRepository restart() throws IOException {
+        bookRepository = open();
+        return bookRepository;
+    }
+
+    private InMemoryBookRepository open() throws IOException {
+        var properties = new InMemoryBookProperties();
+        properties.setDirectory(directory.toString());
+        properties.setFsync(false);
+        var repository = new InMemoryBookRepository(properties, new ConcurrentMapCacheManager(BookRepository.BOOKS_CACHE));
+        repository.recover();
+        return repository;
+    }
+
+    private List<String> fileNames() throws IOException {
+        try (var files = Files.list(directory)) {
+            return files.map(file -> file.getFileName().toString()).collect(Collectors.toList());
+        }
+    }
+}
@@ -0,0 +1,259 @@
+package com.example.bookshelfdemo.datasource;
+
+import com.example.bookshelfdemo.book.Book;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:hsqldb:mem:bookshelf-primary",
+        "spring.datasource.username=sa",
+        "bookshelf.datasource.replicas[0].url=jdbc:hsqldb:mem:bookshelf-replica",
+        "bookshelf.datasource.replicas[0].username=sa",
+        "bookshelf.datasource.heartbeat-interval=PT1H",
+        "bookshelf.datasource.max-lag=PT5S"
+})
+@ActiveProfiles("test")
+class ReplicaRoutingTest {
+
+    private static final JdbcTemplate REPLICA = new JdbcTemplate(
+            new DriverManagerDataSource("jdbc:hsqldb:mem:bookshelf-replica", "sa", ""));
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private ReplicaRoutingDataSource replicaRoutingDataSource;
+
+    @Autowired
+    private ReplicaMonitor replicaMonitor;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    private JdbcTemplate primary;
+
+    @BeforeAll
+    static void createReplicaSchema() {
+        REPLICA.execute("create table if not exists book (id bigint primary key, author varchar(255), " +
+                "isbn varchar(255), last_modified timestamp, number_of_pages integer, rating integer, " +
+                "title varchar(255), version bigint not null)");
+        REPLICA.execute("create table if not exists replication_heartbeat (id integer primary key, beat bigint not null)");
+    }
+
+    @BeforeEach
+    void setUp() {
+        primary = new JdbcTemplate(replicaRoutingDataSource.getPrimary());
+    }
+
+    @AfterEach
+    void cleanUp() {
+        primary.update("delete from book");
+        REPLICA.update("delete from book");
+        REPLICA.update("delete from replication_heartbeat");
+        replicaMonitor.check();
+        cacheManager.getCache("books").clear();
+    }
+
+    @Test
+    void search_ReplicaUpToDate_ReadFromReplica() {
+        // given
+        var book = save(new Book(null, "9781617290459", "Primary", "X", 12, 3));
+        replicate(book, "Replica");
+        replicateHeartbeat();
+
+        //when
+        var response = restTemplate.getForEntity("/books/search?q=primary", Book[].class);
+
+        //then
+        assertThat(response.getBody()).extracting(Book::getTitle).containsExactly("Replica");
+    }
+
+    @Test
+    void findById_ReplicaUpToDate_ReadFromReplicaAndCached() {
+        // given
+        var book = insertIntoPrimary(new Book(1000L, "9781617290459", "Primary", "X", 12, 3));
+        replicate(book, "Replica");
+        replicateHeartbeat();
+
+        //when
+        var first = restTemplate.getForEntity("/books/" + book.getId(), Book.class);
+        REPLICA.update("update book set title = 'Changed' where id = ?", book.getId());
+        var second = restTemplate.getForEntity("/books/" + book.getId(), Book.class);
+
+        //then
+        assertThat(first.getBody().getTitle()).isEqualTo("Replica");
+        assertThat(second.getBody().getTitle()).isEqualTo("Replica");
+    }
+
+    @Test
+    void findById_ReplicaBehindLastWrite_ReadFromReplicaWithoutCaching() {
+        // given
+        var book = insertIntoPrimary(new Book(1000L, "9781617290459", "Primary", "X", 12, 3));
+        replicate(book, "Replica");
+        replicateHeartbeat();
+        restTemplate.postForEntity("/books", new Book(null, "9781617290473", "Other", "X", 12, 3), Book.class);
+
+        //when
+        var first = restTemplate.getForEntity("/books/" + book.getId(), Book.class);
+        REPLICA.update("update book set title = 'Changed' where id = ?", book.getId());
+        var second = restTemplate.getForEntity("/books/" + book.getId(), Book.class);
+
+        //then
+        assertThat(first.getBody().getTitle()).isEqualTo("Replica");
+        assertThat(second.getBody().getTitle()).isEqualTo("Changed");
+    }
+
+    @Test
+    void findById_PinnedReadFromReplica_NotCachedForOtherClients() {
+        // given
+        var book = insertIntoPrimary(new Book(1000L, "9781617290459", "Primary", "X", 12, 3));
+        var cookie = new HttpHeaders();
+        cookie.set(HttpHeaders.COOKIE, ReadYourWrites.COOKIE + "=" + (System.currentTimeMillis() - 1000));
+        replicate(book, "Replica");
+        replicateHeartbeat();
+
+        //when
+        var pinned = restTemplate.exchange("/books/" + book.getId(), HttpMethod.GET, new HttpEntity<>(cookie), Book.class);
+        REPLICA.update("update book set title = 'Changed' where id = ?", book.getId());
+        var other = restTemplate.getForEntity("/books/" + book.getId(), Book.class);
+
+        //then
+        assertThat(pinned.getBody().getTitle()).isEqualTo("Replica");
+        assertThat(other.getBody().getTitle()).isEqualTo("Changed");
+    }
+
+    @Test
+    void findAll_ReplicaUpToDate_ReadFromReplicaAndCached() {
+        // given
+        var book = insertIntoPrimary(new Book(1000L, "9781617290459", "Primary", "X", 12, 3));
+        replicate(book, "Replica");
+        replicateHeartbeat();
+
+        //when
+        var first = restTemplate.getForEntity("/books", Book[].class);
+        REPLICA.update("update book set title = 'Changed' where id = ?", book.getId());
+        var second = restTemplate.getForEntity("/books", Book[].class);
+
+        //then
+        assertThat(first.getBody()).extracting(Book::getTitle).containsExactly("Replica");
+        assertThat(second.getBody()).extracting(Book::getTitle).containsExactly("Replica");
+    }
+
+    @Test
+    void findAll_ReplicaBehindLastWrite_ReadFromReplicaWithoutCaching() {
+        // given
+        var book = insertIntoPrimary(new Book(1000L, "9781617290459", "Primary", "X", 12, 3));
+        replicate(book, "Replica");
+        replicateHeartbeat();
+        restTemplate.postForEntity("/books", new Book(null, "9781617290473", "Other", "X", 12, 3), Book.class);
+
+        //when
+        var first = restTemplate.getForEntity("/books", Book[].class);
+        REPLICA.update("update book set title = 'Changed' where id = ?", book.getId());
+        var second = restTemplate.getForEntity("/books", Book[].class);
+
+        //then
+        assertThat(first.getBody()).extracting(Book::getTitle).containsExactly("Replica");
+        assertThat(second.getBody()).extracting(Book::getTitle).containsExactly("Changed");
+    }
+
+    @Test
+    void findById_ReplicaBehindOwnWrite_ReadFromPrimaryUntilReplicated() {
+        // given
+        var book = save(new Book(null, "9781617290459", "Primary", "X", 12, 3));
+        replicate(book, "Replica");
+        replicateHeartbeat();
+        var update = restTemplate.exchange("/books/" + book.getId(), HttpMethod.PUT,
+                new HttpEntity<>(new Book(null, "9781617290459", "Updated", "X", 12, 3)), Book.class);
+        var cookie = new HttpHeaders();
+        cookie.set(HttpHeaders.COOKIE, update.getHeaders().getFirst(HttpHeaders.SET_COOKIE).split(";")[0]);
+
+        //when
+        var beforeReplication = findById(book.getId(), cookie);
+        replicateHeartbeat();
+        var afterReplication = findById(book.getId(), cookie);
+
+        //then
+        assertThat(update.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(beforeReplication.getTitle()).isEqualTo("Updated");
+        assertThat(afterReplication.getTitle()).isEqualTo("Replica");
+    }
+
+    @Test
+    void findById_ReplicaLagging_ReadFromPrimary() {
+        // given
+        var book = save(new Book(null, "9781617290459", "Primary", "X", 12, 3));
+        replicate(book, "Replica");
+        REPLICA.update("insert into replication_heartbeat (id, beat) values (1, ?)", System.currentTimeMillis() - 10_000);
+        replicaMonitor.check();
+
+        //when
+        var response = restTemplate.getForEntity("/books/" + book.getId(), Book.class);
+
+        //then
+        assertThat(response.getBody().getTitle()).isEqualTo("Primary");
+    }
+
+    @Test
+    void save_NoReplicaCaughtUp_WrittenToPrimary() {
+        //when
+        var response = restTemplate.postForEntity("/books", new Book(null, "9781617290459", "Primary", "X", 12, 3), Book.class);
+
+        //then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getHeaders().getFirst(HttpHeaders.SET_COOKIE)).startsWith(ReadYourWrites.COOKIE + "=");
+        assertThat(primary.queryForObject("select count(*) from book", Integer.class)).isEqualTo(1);
+        assertThat(REPLICA.queryForObject("select count(*) from book", Integer.class)).isZero();
+    }
+
+    private Book save(Book book) {
+        var saved = restTemplate.postForEntity("/books", book, Book.class).getBody();
+        cacheManager.getCache("books").clear();
+        return saved;
+    }
+
+    private Book insertIntoPrimary(Book book) {
+        primary.update("insert into book (id, author, isbn, last_modified, number_of_pages, rating, title, version) " +
+                        "values (?, ?, ?, ?, ?, ?, ?, 0)", book.getId(), book.getAuthor(), book.getIsbn(),
+                Timestamp.from(Instant.now()), book.getNumberOfPages(), book.getRating(), book.getTitle());
+        return book;
+    }
+
+    private Book findById(Long id, HttpHeaders headers) {
+        cacheManager.getCache("books").clear();
+        return restTemplate.exchange("/books/" + id, HttpMethod.GET, new HttpEntity<>(headers), Book.class).getBody();
+    }
+
+    private void replicate(Book book, String title) {
+        REPLICA.update("insert into book (id, author, isbn, last_modified, number_of_pages, rating, title, version) " +
+                        "values (?, ?, ?, ?, ?, ?, ?, 0)", book.getId(), book.getAuthor(), book.getIsbn(),
+                Timestamp.from(Instant.now()), book.getNumberOfPages(), book.getRating(), title);
+    }
+
+    private void replicateHeartbeat() {
+        replicaMonitor.check();
+        var beat = primary.queryForObject("select beat from replication_heartbeat where id = 1", Long.class);
+        if (REPLICA.update("update replication_heartbeat set beat = ? where id = 1", beat) == 0) {
+            REPLICA.update("insert into replication_heartbeat (id, beat) values (1, ?)", beat);
+        }
+        replicaMonitor.check();
+    }
+}
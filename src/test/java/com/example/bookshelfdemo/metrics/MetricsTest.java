@@ -0,0 +1,112 @@
+package com.example.bookshelfdemo.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+class MetricsTest {
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Test
+    void findById_ExistingBook_RepositoryCallTimed() {
+        // given
+        var id = saveBook("9781617290459");
+        cacheManager.getCache("books").clear();
+        var before = repositoryCalls("findAllById");
+
+        // when
+        var response = restTemplate.getForEntity("/books/" + id, String.class);
+
+        // then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(repositoryCalls("findAllById")).isEqualTo(before + 1);
+        restTemplate.delete("/books/" + id);
+    }
+
+    @Test
+    void findById_NoBook_NotFoundCounted() {
+        // given
+        var before = meterRegistry.counter("books.not.found").count();
+
+        // when
+        var response = restTemplate.getForEntity("/books/123456", String.class);
+
+        // then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+        assertThat(meterRegistry.counter("books.not.found").count()).isEqualTo(before + 1);
+    }
+
+    @Test
+    void findByIsbn_ExistingBook_SqlStatementsRecordedPerRoute() {
+        // given
+        var id = saveBook("9781617290473");
+
+        // when
+        var response = restTemplate.getForEntity("/books/isbn/9781617290473", String.class);
+
+        // then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        var statements = meterRegistry.get(SqlStatementMetricsFilter.SQL_STATEMENTS_SUMMARY)
+                .tag("method", "GET")
+                .tag("uri", "/books/isbn/{isbn}")
+                .summary();
+        assertThat(statements.count()).isGreaterThanOrEqualTo(1);
+        assertThat(statements.max()).isEqualTo(1);
+        restTemplate.delete("/books/" + id);
+    }
+
+    @Test
+    void prometheus_AfterRequests_ExposesBookMetrics() {
+        // given
+        restTemplate.getForEntity("/books/123456", String.class);
+
+        // when
+        var response = restTemplate.getForEntity("/actuator/prometheus", String.class);
+
+        // then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody())
+                .contains("http_server_requests_seconds_bucket")
+                .contains("book_repository_seconds_bucket")
+                .contains("book_requests_sql_statements")
+                .contains("books_not_found_total")
+                .contains("cache_gets_total{cache=\"books\"")
+                .contains("hibernate_statements_total");
+    }
+
+    private long repositoryCalls(String method) {
+        var timer = meterRegistry.find(RepositoryMetricsAspect.REPOSITORY_TIMER).tag("method", method).timer();
+        return timer != null ? timer.count() : 0;
+    }
+
+    private Long saveBook(String isbn) {
+        var headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        var book = Map.of("isbn", isbn, "title", "A", "author", "X", "numberOfPages", 12, "rating", 3);
+        var response = restTemplate.postForEntity("/books", new HttpEntity<>(book, headers), Map.class);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        return ((Number) response.getBody().get("id")).longValue();
+    }
+}
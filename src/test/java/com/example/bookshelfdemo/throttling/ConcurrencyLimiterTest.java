@@ -0,0 +1,84 @@
+package com.example.bookshelfdemo.throttling;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ConcurrencyLimiterTest {
+
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(20);
+
+    @Test
+    void tryAcquire_LimitReached_Rejected() {
+        // given
+        var limiter = limiter(2, 2, 10);
+        limiter.tryAcquire();
+        limiter.tryAcquire();
+
+        //when
+        var acquired = limiter.tryAcquire();
+
+        //then
+        assertThat(acquired).isFalse();
+        assertThat(limiter.getInFlight()).isEqualTo(2);
+    }
+
+    @Test
+    void release_LatencyAboveTolerance_LimitShrinksToMinimum() {
+        // given
+        var limiter = limiter(50, 10, 100);
+        limiter.tryAcquire();
+        limiter.release(FAST);
+
+        //when
+        for (int i = 0; i < 100; i++) {
+            limiter.tryAcquire();
+            limiter.release(SLOW);
+        }
+
+        //then
+        assertThat(limiter.getLimit()).isEqualTo(10);
+    }
+
+    @Test
+    void release_SaturatedWithLowLatency_LimitGrowsToMaximum() {
+        // given
+        var limiter = limiter(10, 10, 100);
+
+        //when
+        for (int i = 0; i < 200; i++) {
+            while (limiter.tryAcquire()) {
+            }
+            limiter.release(FAST);
+        }
+
+        //then
+        assertThat(limiter.getLimit()).isEqualTo(100);
+    }
+
+    @Test
+    void release_IdleWithLowLatency_LimitUnchanged() {
+        // given
+        var limiter = limiter(10, 10, 100);
+
+        //when
+        for (int i = 0; i < 200; i++) {
+            limiter.tryAcquire();
+            limiter.release(FAST);
+        }
+
+        //then
+        assertThat(limiter.getLimit()).isEqualTo(10);
+    }
+
+    private static ConcurrencyLimiter limiter(int initialLimit, int minLimit, int maxLimit) {
+        var properties = new ThrottlingProperties.Concurrency();
+        properties.setInitialLimit(initialLimit);
+        properties.setMinLimit(minLimit);
+        properties.setMaxLimit(maxLimit);
+        return new ConcurrencyLimiter(properties);
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.bookshelfdemo.throttling;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RateLimiterTest {
+
+    @Test
+    void tryAcquire_MaxClientsReached_NewClientSharesOverflowBucketWithoutExpiring() {
+        // given
+        var properties = new ThrottlingProperties();
+        properties.setMaxClients(1);
+        properties.getDefaults().setPerSecond(1);
+        properties.getDefaults().setBurst(1);
+        var limiter = new RateLimiter(properties);
+        var now = System.nanoTime();
+        limiter.tryAcquire("/books/{id} GET idle", now - TimeUnit.MINUTES.toNanos(1));
+
+        //when
+        var first = limiter.tryAcquire("/books/{id} GET first", now);
+        var second = limiter.tryAcquire("/books/{id} GET second", now);
+
+        //then
+        assertThat(first).isZero();
+        assertThat(second).isPositive();
+        assertThat(limiter.size()).isEqualTo(1);
+    }
+
+    @Test
+    void expire_IdleBuckets_Removed() {
+        // given
+        var properties = new ThrottlingProperties();
+        var limiter = new RateLimiter(properties);
+        var now = System.nanoTime();
+        limiter.tryAcquire("/books/{id} GET idle", now - TimeUnit.MINUTES.toNanos(1));
+
+        //when
+        limiter.expire(now);
+
+        //then
+        assertThat(limiter.size()).isZero();
+    }
+}
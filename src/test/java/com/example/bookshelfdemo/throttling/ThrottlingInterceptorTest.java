@@ -0,0 +1,209 @@
+package com.example.bookshelfdemo.throttling;
+
+import com.example.bookshelfdemo.book.Book;
+import com.example.bookshelfdemo.book.BookRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "bookshelf.throttling.enabled=true",
+        "bookshelf.throttling.client-header=X-Client-Id",
+        "bookshelf.throttling.endpoints[/books/{id}].per-second=0.1",
+        "bookshelf.throttling.endpoints[/books/{id}].burst=2",
+        "bookshelf.throttling.endpoints[/books/isbn/{isbn}].per-second=0.1",
+        "bookshelf.throttling.endpoints[/books/isbn/{isbn}].burst=2",
+        "bookshelf.throttling.endpoints[/books/**].per-second=0.1",
+        "bookshelf.throttling.endpoints[/books/**].burst=2",
+        "bookshelf.throttling.concurrency.initial-limit=1",
+        "bookshelf.throttling.concurrency.min-limit=1",
+        "bookshelf.throttling.concurrency.max-limit=1"
+})
+@ActiveProfiles("test")
+class ThrottlingInterceptorTest {
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @MockBean
+    private BookRepository bookRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @BeforeEach
+    void clearCache() {
+        cacheManager.getCache(BookRepository.BOOKS_CACHE).clear();
+    }
+
+    @Test
+    void findById_BurstExceeded_TooManyRequestsWithRetryAfter() {
+        // given
+        get("/books/1", "burst");
+        get("/books/2", "burst");
+
+        //when
+        var response = get("/books/3", "burst");
+
+        //then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+        assertThat(Long.parseLong(response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER))).isBetween(1L, 10L);
+    }
+
+    @Test
+    void findById_OtherClientBurstExceeded_NotLimited() {
+        // given
+        get("/books/1", "noisy");
+        get("/books/1", "noisy");
+        get("/books/1", "noisy");
+
+        //when
+        var response = get("/books/1", "quiet");
+
+        //then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+    }
+
+    @Test
+    void findAll_FindByIdBurstExceeded_NotLimited() {
+        // given
+        get("/books/1", "reader");
+        get("/books/1", "reader");
+        get("/books/1", "reader");
+
+        //when
+        var response = get("/books", "reader");
+
+        //then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+    }
+
+    @Test
+    void findById_ConcurrencyLimitReached_ServiceUnavailable() throws Exception {
+        // given
+        var started = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+        when(bookRepository.findAllById(List.of(1L))).thenAnswer(invocation -> {
+            started.countDown();
+            release.await(10, TimeUnit.SECONDS);
+            return List.of(new Book(1L, "9781617290459", "A", "X", 12, 3));
+        });
+        var slow = CompletableFuture.supplyAsync(() -> get("/books/1", "slow"));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        var shed = meterRegistry.counter(ThrottlingInterceptor.THROTTLED_COUNTER, "reason", "load-shed").count();
+
+        //when
+        var response = get("/books/2", "other");
+
+        //then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+        assertThat(response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isEqualTo("1");
+        assertThat(meterRegistry.counter(ThrottlingInterceptor.THROTTLED_COUNTER, "reason", "load-shed").count()).isEqualTo(shed + 1);
+        release.countDown();
+        assertThat(slow.get().getStatusCode()).isEqualTo(HttpStatus.OK);
+    }
+
+    @Test
+    void exportBooks_ConcurrencyLimitReached_NotShed() throws Exception {
+        // given
+        var started = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+        when(bookRepository.findAllById(List.of(1L))).thenAnswer(invocation -> {
+            started.countDown();
+            release.await(10, TimeUnit.SECONDS);
+            return List.of(new Book(1L, "9781617290459", "A", "X", 12, 3));
+        });
+        var slow = CompletableFuture.supplyAsync(() -> get("/books/1", "slow-reader"));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+        //when
+        var response = get("/books:export", "exporter");
+
+        //then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        release.countDown();
+        assertThat(slow.get().getStatusCode()).isEqualTo(HttpStatus.OK);
+    }
+
+    @Test
+    void streamAll_ConcurrencyLimitReached_NotShed() throws Exception {
+        // given
+        var started = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+        when(bookRepository.findAllById(List.of(1L))).thenAnswer(invocation -> {
+            started.countDown();
+            release.await(10, TimeUnit.SECONDS);
+            return List.of(new Book(1L, "9781617290459", "A", "X", 12, 3));
+        });
+        when(bookRepository.streamAll()).thenReturn(Stream.empty());
+        var slow = CompletableFuture.supplyAsync(() -> get("/books/1", "slow-streamer"));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        var headers = new HttpHeaders();
+        headers.set("X-Client-Id", "streamer");
+        headers.setAccept(List.of(MediaType.valueOf("application/x-ndjson")));
+
+        //when
+        var response = restTemplate.exchange("/books", HttpMethod.GET, new HttpEntity<>(headers), String.class);
+
+        //then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        release.countDown();
+        assertThat(slow.get().getStatusCode()).isEqualTo(HttpStatus.OK);
+    }
+
+    @Test
+    void findByIsbn_DifferentIsbnsOfOneClient_ShareRouteBucket() {
+        // given
+        get("/books/isbn/978-1-61729-045-9", "isbn");
+        get("/books/isbn/978-1-61729-047-3", "isbn");
+
+        //when
+        var response = get("/books/isbn/080442957X", "isbn");
+
+        //then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+    }
+
+    @Test
+    void findById_UnmappedPaths_ShareOneBucket() {
+        // given
+        get("/books/unknown/1", "unmapped");
+        get("/books/unknown/2", "unmapped");
+
+        //when
+        var response = get("/books/unknown/3", "unmapped");
+
+        //then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+    }
+
+    private ResponseEntity<String> get(String path, String client) {
+        var headers = new HttpHeaders();
+        headers.set("X-Client-Id", client);
+        return restTemplate.exchange(path, HttpMethod.GET, new HttpEntity<>(headers), String.class);
+    }
+}